@@ -1,7 +1,6 @@
 package com.efile.core.audit;
 
-import com.efile.core.user.User;
-import com.efile.core.user.UserRepository;
+import com.efile.core.security.CurrentUserProvider;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
@@ -10,8 +9,6 @@ import java.util.List;
 import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -22,16 +19,16 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final ObjectMapper objectMapper;
 
     public AuditService(
         AuditLogRepository auditLogRepository,
-        UserRepository userRepository,
+        CurrentUserProvider currentUserProvider,
         ObjectMapper objectMapper
     ) {
         this.auditLogRepository = auditLogRepository;
-        this.userRepository = userRepository;
+        this.currentUserProvider = currentUserProvider;
         this.objectMapper = objectMapper;
     }
 
@@ -45,11 +42,7 @@ public class AuditService {
 
         // Set user if authenticated
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() && !"anonymousUser".equals(authentication.getPrincipal())) {
-                String email = authentication.getName();
-                userRepository.findByEmailIgnoreCase(email).ifPresent(auditLog::setUser);
-            }
+            currentUserProvider.find().ifPresent(auditLog::setUser);
         } catch (Exception e) {
             // Continue without user if there's an issue
         }
@@ -1,8 +1,10 @@
 package com.efile.core.casemanagement;
 
+import com.efile.core.search.SearchIndexListener;
 import com.efile.core.user.User;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -23,14 +25,21 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(
     name = "cases",
     indexes = {
-        @jakarta.persistence.Index(name = "idx_cases_assigned_to", columnList = "assigned_to_id"),
-        @jakarta.persistence.Index(name = "idx_cases_status", columnList = "status"),
+        // Filter columns lead and the board's sort key follows, so a filtered page is one range scan in order
+        @jakarta.persistence.Index(name = "idx_cases_assigned_status", columnList = "assigned_to_id, status, created_at, id"),
+        @jakarta.persistence.Index(name = "idx_cases_created_by", columnList = "created_by_id, created_at, id"),
+        @jakarta.persistence.Index(name = "idx_cases_status_created", columnList = "status, created_at, id"),
+        @jakarta.persistence.Index(name = "idx_cases_department_status", columnList = "department, status, created_at, id"),
         @jakarta.persistence.Index(name = "idx_cases_priority", columnList = "priority"),
         @jakarta.persistence.Index(name = "idx_cases_category", columnList = "category"),
-        @jakarta.persistence.Index(name = "idx_cases_created_at", columnList = "created_at")
+        @jakarta.persistence.Index(name = "idx_cases_due_date", columnList = "due_date"),
+        @jakarta.persistence.Index(name = "idx_cases_created_at", columnList = "created_at"),
+        @jakarta.persistence.Index(name = "idx_cases_updated_at", columnList = "updated_at, id"),
+        @jakarta.persistence.Index(name = "idx_cases_title", columnList = "title, id")
     }
 )
 @Getter
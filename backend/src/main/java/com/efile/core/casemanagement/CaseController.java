@@ -3,12 +3,28 @@ package com.efile.core.casemanagement;
 import com.efile.core.casemanagement.dto.AssignCaseRequest;
 import com.efile.core.casemanagement.dto.CaseRequest;
 import com.efile.core.casemanagement.dto.CaseResponse;
+import com.efile.core.casemanagement.dto.CaseSearchCriteria;
+import com.efile.core.casemanagement.dto.TagBackfillReport;
+import com.efile.core.casemanagement.dto.TagFacet;
+import com.efile.core.common.CursorResponse;
+import com.efile.core.common.PageResponse;
 import com.efile.core.communication.dto.CommunicationResponse;
 import com.efile.core.communication.CommunicationService;
 import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.document.CaseBundle;
+import com.efile.core.document.CaseBundleWriter;
 import com.efile.core.document.DocumentService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,6 +35,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -28,15 +45,21 @@ public class CaseController {
     private final CaseService caseService;
     private final DocumentService documentService;
     private final CommunicationService communicationService;
+    private final CaseBundleWriter caseBundleWriter;
+    private final CaseTagBackfill caseTagBackfill;
 
     public CaseController(
         CaseService caseService,
         DocumentService documentService,
-        CommunicationService communicationService
+        CommunicationService communicationService,
+        CaseBundleWriter caseBundleWriter,
+        CaseTagBackfill caseTagBackfill
     ) {
         this.caseService = caseService;
         this.documentService = documentService;
         this.communicationService = communicationService;
+        this.caseBundleWriter = caseBundleWriter;
+        this.caseTagBackfill = caseTagBackfill;
     }
 
     @GetMapping
@@ -46,10 +69,96 @@ public class CaseController {
         return ResponseEntity.ok(cases);
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PageResponse<CaseResponse>> listCases(
+        @RequestParam(value = "status", required = false) CaseStatus status,
+        @RequestParam(value = "priority", required = false) CasePriority priority,
+        @RequestParam(value = "category", required = false) CaseCategory category,
+        @RequestParam(value = "assignedToId", required = false) Long assignedToId,
+        @RequestParam(value = "createdById", required = false) Long createdById,
+        @RequestParam(value = "department", required = false) String department,
+        @RequestParam(value = "dueAfter", required = false) Instant dueAfter,
+        @RequestParam(value = "dueBefore", required = false) Instant dueBefore,
+        @RequestParam(value = "minBudget", required = false) Double minBudget,
+        @RequestParam(value = "maxBudget", required = false) Double maxBudget,
+        @RequestParam(value = "tag", required = false) List<String> tags,
+        @RequestParam(value = "sort", defaultValue = "CREATED_AT") CaseSort sort,
+        @RequestParam(value = "direction", defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(value = "page", defaultValue = "0") int page,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        CaseSearchCriteria criteria = CaseSearchCriteria.of(
+            status, priority, category, assignedToId, createdById, department, dueAfter, dueBefore, minBudget, maxBudget, tags
+        );
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort.attribute()).and(Sort.by(direction, "id")));
+        Page<CaseResponse> result = caseService.listCases(criteria, pageable);
+        return ResponseEntity.ok(PageResponse.from(result));
+    }
+
+    // Cursor mode for the case board; pass the previous page's nextCursor with the same sort to continue
+    @GetMapping("/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorResponse<CaseResponse>> listCasesByCursor(
+        @RequestParam(value = "status", required = false) CaseStatus status,
+        @RequestParam(value = "priority", required = false) CasePriority priority,
+        @RequestParam(value = "category", required = false) CaseCategory category,
+        @RequestParam(value = "assignedToId", required = false) Long assignedToId,
+        @RequestParam(value = "createdById", required = false) Long createdById,
+        @RequestParam(value = "department", required = false) String department,
+        @RequestParam(value = "dueAfter", required = false) Instant dueAfter,
+        @RequestParam(value = "dueBefore", required = false) Instant dueBefore,
+        @RequestParam(value = "minBudget", required = false) Double minBudget,
+        @RequestParam(value = "maxBudget", required = false) Double maxBudget,
+        @RequestParam(value = "tag", required = false) List<String> tags,
+        @RequestParam(value = "sort", defaultValue = "CREATED_AT") CaseSort sort,
+        @RequestParam(value = "direction", defaultValue = "DESC") Sort.Direction direction,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "size", defaultValue = "50") int size,
+        @RequestParam(value = "includeCount", defaultValue = "false") boolean includeCount
+    ) {
+        CaseSearchCriteria criteria = CaseSearchCriteria.of(
+            status, priority, category, assignedToId, createdById, department, dueAfter, dueBefore, minBudget, maxBudget, tags
+        );
+        CursorResponse<CaseResponse> result = caseService.searchCases(criteria, sort, direction, cursor, size, includeCount);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/tags/facets")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<TagFacet>> getTagFacets() {
+        return ResponseEntity.ok(caseService.getTagFacets());
+    }
+
+    @PostMapping("/tags/backfill")
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<TagBackfillReport> startTagBackfill() {
+        TagBackfillReport report = caseTagBackfill.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
+    @GetMapping("/tags/backfill")
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<TagBackfillReport> getTagBackfillReport() {
+        return ResponseEntity.ok(caseTagBackfill.report());
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PageResponse<CaseResponse>> searchCases(
+        @RequestParam("q") String query,
+        @RequestParam(value = "status", required = false) CaseStatus status,
+        @RequestParam(value = "page", defaultValue = "0") int page,
+        @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        Page<CaseResponse> result = caseService.searchCases(query, status, PageRequest.of(page, size));
+        return ResponseEntity.ok(PageResponse.from(result));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<CaseResponse> getCase(@PathVariable Long id) {
-        CaseResponse caseResponse = caseService.getCaseWithDocuments(id);
+        CaseResponse caseResponse = caseService.getCaseById(id);
         return ResponseEntity.ok(caseResponse);
     }
 
@@ -101,6 +210,25 @@ public class CaseController {
         return ResponseEntity.ok(documents);
     }
 
+    @GetMapping("/{id}/bundle")
+    @PreAuthorize("isAuthenticated()")
+    public void downloadCaseBundle(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        CaseBundle bundle = documentService.getCaseBundle(id);
+        response.setContentType("application/zip");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("case-" + id + ".zip").build().toString()
+        );
+        try {
+            caseBundleWriter.write(bundle, response.getOutputStream());
+        } catch (IOException ex) {
+            if (!response.isCommitted()) {
+                throw ex;
+            }
+            // Once bytes are on the wire there is no way to report an error; most often the client hung up
+        }
+    }
+
     @GetMapping("/{id}/communications")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<List<CommunicationResponse>> getCaseCommunications(@PathVariable Long id) {
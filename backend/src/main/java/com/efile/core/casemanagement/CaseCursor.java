@@ -0,0 +1,35 @@
+package com.efile.core.casemanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+
+// Position in a sorted case listing: the sort it was issued for and the last row's key and id. The key is
+// kept last in the encoded form so titles may contain the separator. Clients treat it as opaque.
+record CaseCursor(CaseSort sort, Sort.Direction direction, String key, long id) {
+
+    static CaseCursor of(CaseSort sort, Sort.Direction direction, Case caseEntity) {
+        return new CaseCursor(sort, direction, sort.keyOf(caseEntity), caseEntity.getId());
+    }
+
+    String encode() {
+        String raw = sort.name() + "|" + direction.name() + "|" + id + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static CaseCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            CaseSort sort = CaseSort.valueOf(parts[0]);
+            // Parse once here so a damaged key fails as a bad request rather than inside the query
+            sort.parseKey(parts[3]);
+            return new CaseCursor(sort, Sort.Direction.valueOf(parts[1]), parts[3], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
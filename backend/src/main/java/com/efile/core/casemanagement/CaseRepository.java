@@ -5,11 +5,24 @@ import java.time.Instant;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface CaseRepository extends JpaRepository<Case, Long> {
+public interface CaseRepository extends JpaRepository<Case, Long>, JpaSpecificationExecutor<Case> {
+
+    // Listings fetch creator and assignee in the same join, so mapping a page never touches a lazy proxy
+    @Override
+    @EntityGraph(attributePaths = {"createdBy", "assignedTo"})
+    Page<Case> findAll(Specification<Case> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"createdBy", "assignedTo"})
+    List<Case> findAll(Specification<Case> spec, Sort sort);
 
     Page<Case> findByAssignedToId(Long assignedToId, Pageable pageable);
 
@@ -27,4 +40,10 @@ public interface CaseRepository extends JpaRepository<Case, Long> {
 
     @Query("SELECT c FROM Case c WHERE c.assignedTo.id = :assignedToId AND c.status = :status AND c.createdAt < :date")
     List<Case> findByAssignedToIdAndStatusAndCreatedAtBefore(@Param("assignedToId") Long assignedToId, @Param("status") CaseStatus status, @Param("date") Instant date);
+
+    @Query("SELECT c FROM Case c WHERE c.id > :afterId ORDER BY c.id")
+    List<Case> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT c.id FROM Case c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -2,42 +2,72 @@ package com.efile.core.casemanagement;
 
 import com.efile.core.casemanagement.dto.CaseRequest;
 import com.efile.core.casemanagement.dto.CaseResponse;
-import com.efile.core.document.Document;
-import com.efile.core.document.DocumentRepository;
+import com.efile.core.casemanagement.dto.CaseSearchCriteria;
+import com.efile.core.casemanagement.dto.TagFacet;
+import com.efile.core.common.CursorResponse;
+import com.efile.core.document.CaseDocumentCounters;
 import com.efile.core.document.DocumentService;
+import com.efile.core.document.DocumentStatus;
 import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.search.SearchIndex;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.security.CurrentUserProvider;
 import com.efile.core.user.User;
 import com.efile.core.user.UserRepository;
 import com.efile.core.user.UserRole;
 import com.efile.core.user.dto.UserSummary;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.time.Instant;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Service
 @Transactional
 public class CaseService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Set<CaseStatus> FINISHED = EnumSet.of(CaseStatus.COMPLETED, CaseStatus.CLOSED);
+
     private final CaseRepository caseRepository;
+    private final CaseTagRepository caseTagRepository;
     private final UserRepository userRepository;
-    private final DocumentRepository documentRepository;
     private final DocumentService documentService;
+    private final CaseDocumentCounters documentCounters;
     private final ObjectMapper objectMapper;
+    private final ObjectReader tagsReader;
+    private final CurrentUserProvider currentUserProvider;
+    private final SearchIndexer searchIndexer;
 
-    public CaseService(CaseRepository caseRepository, UserRepository userRepository, 
-                      DocumentRepository documentRepository, DocumentService documentService, ObjectMapper objectMapper) {
+    public CaseService(CaseRepository caseRepository, CaseTagRepository caseTagRepository, UserRepository userRepository,
+                      DocumentService documentService, CaseDocumentCounters documentCounters, ObjectMapper objectMapper,
+                      CurrentUserProvider currentUserProvider, SearchIndexer searchIndexer) {
         this.caseRepository = caseRepository;
+        this.caseTagRepository = caseTagRepository;
         this.userRepository = userRepository;
-        this.documentRepository = documentRepository;
         this.documentService = documentService;
+        this.documentCounters = documentCounters;
         this.objectMapper = objectMapper;
+        this.tagsReader = objectMapper.readerForListOf(String.class);
+        this.currentUserProvider = currentUserProvider;
+        this.searchIndexer = searchIndexer;
     }
 
     public CaseResponse createCase(CaseRequest request) {
@@ -51,10 +81,11 @@ public class CaseService {
         caseEntity.setCategory(request.category() != null ? request.category() : CaseCategory.GENERAL);
         caseEntity.setCreatedBy(currentUser);
 
-        // Handle tags - store as JSON string
-        if (request.tags() != null && !request.tags().isEmpty()) {
+        // Tags are written to case_tags and, until every reader has moved over, mirrored into the JSON column
+        List<String> tags = request.tags() == null ? List.of() : CaseTag.normalize(request.tags());
+        if (!tags.isEmpty()) {
             try {
-                caseEntity.setTags(objectMapper.writeValueAsString(request.tags()));
+                caseEntity.setTags(objectMapper.writeValueAsString(tags));
             } catch (Exception e) {
                 // Handle JSON serialization error
                 caseEntity.setTags("[]");
@@ -92,7 +123,8 @@ public class CaseService {
         }
 
         Case saved = caseRepository.save(caseEntity);
-        return mapToResponse(saved);
+        caseTagRepository.saveAll(tags.stream().map(tag -> new CaseTag(saved.getId(), tag)).toList());
+        return mapToResponse(saved, null, tags, documentCounters.countsOf(List.of(saved.getId())).get(saved.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -108,20 +140,40 @@ public class CaseService {
 
     @Transactional(readOnly = true)
     public List<CaseResponse> getAllCases() {
-        User currentUser = getCurrentUser();
-        List<Case> cases;
+        List<Case> cases = caseRepository.findAll(visibleTo(getCurrentUser()), Sort.by("id"));
+        return mapToResponses(cases);
+    }
 
-        // Role-based filtering
-        if (hasRole(currentUser, UserRole.ADMIN, UserRole.CEO, UserRole.CFO, UserRole.AUDITOR)) {
-            cases = caseRepository.findAll();
-        } else {
-            // Users can see cases they created or are assigned to
-            cases = caseRepository.findByCreatedByOrAssignedTo(currentUser, currentUser);
+    // Paged listing: one joined query for the cases, one for the count, and one IN query each for tags and document counts
+    @Transactional(readOnly = true)
+    public Page<CaseResponse> listCases(CaseSearchCriteria criteria, Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must not exceed " + MAX_PAGE_SIZE);
         }
+        Specification<Case> specification = visibleTo(getCurrentUser()).and(toSpecification(criteria));
+        Page<Case> page = caseRepository.findAll(specification, pageable);
+        return new PageImpl<>(mapToResponses(page.getContent()), pageable, page.getTotalElements());
+    }
 
-        return cases.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<CaseResponse> searchCases(String query, CaseStatus status, Pageable pageable) {
+        User currentUser = getCurrentUser();
+        // The same visibility rule as getAllCases, applied inside the index so totals and pages stay right
+        Long visibleTo = hasRole(currentUser, UserRole.ADMIN, UserRole.CEO, UserRole.CFO, UserRole.AUDITOR)
+            ? null
+            : currentUser.getId();
+        SearchIndex.Hits hits = searchIndexer.searchCases(query, status, visibleTo, pageable);
+        if (hits.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.total());
+        }
+        Map<Long, CaseResponse> found = mapToResponses(
+            caseRepository.findAll((root, criteriaQuery, cb) -> root.get("id").in(hits.ids()), Sort.unsorted())
+        ).stream().collect(Collectors.toMap(CaseResponse::id, response -> response));
+        List<CaseResponse> content = hits.ids().stream()
+            .map(found::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new PageImpl<>(content, pageable, hits.total());
     }
 
     public CaseResponse updateCase(Long id, CaseRequest request) {
@@ -176,11 +228,8 @@ public class CaseService {
         
         checkCaseAccess(caseEntity);
         
-        List<Document> documents = documentRepository.findByCaseRef(caseEntity);
-        List<DocumentResponse> documentResponses = documents.stream()
-            .map(documentService::toResponse)
-            .collect(Collectors.toList());
-        
+        List<DocumentResponse> documentResponses = documentService.documentsOfCase(caseEntity.getId());
+
         return mapToResponseWithDocuments(caseEntity, documentResponses);
     }
 
@@ -193,14 +242,7 @@ public class CaseService {
         
         caseEntity.setStatus(newStatus);
         Case updated = caseRepository.save(caseEntity);
-        return mapToResponseWithDocuments(updated, getDocumentsForCase(updated.getId()));
-    }
-
-    private List<DocumentResponse> getDocumentsForCase(Long caseId) {
-        List<Document> documents = documentRepository.findByCaseRefId(caseId);
-        return documents.stream()
-            .map(documentService::toResponse)
-            .collect(Collectors.toList());
+        return mapToResponseWithDocuments(updated, documentService.documentsOfCase(updated.getId()));
     }
 
     private void validateCaseStatusTransition(CaseStatus currentStatus, CaseStatus newStatus) {
@@ -236,20 +278,179 @@ public class CaseService {
     }
 
     private CaseResponse mapToResponse(Case caseEntity) {
-        return mapToResponseWithDocuments(caseEntity, getDocumentsForCase(caseEntity.getId()));
+        return mapToResponseWithDocuments(caseEntity, null);
     }
 
-    private CaseResponse mapToResponseWithDocuments(Case caseEntity, List<DocumentResponse> documents) {
-        // Parse tags from JSON string
-        List<String> tags = List.of();
-        if (caseEntity.getTags() != null && !caseEntity.getTags().isEmpty()) {
-            try {
-                tags = objectMapper.readValue(caseEntity.getTags(), List.class);
-            } catch (Exception e) {
-                tags = List.of();
+    // Cases outside the detail view carry per-status document counts instead of the documents themselves
+    private List<CaseResponse> mapToResponses(List<Case> cases) {
+        Map<Long, Map<DocumentStatus, Long>> counts = documentCounters.countsOf(cases.stream().map(Case::getId).toList());
+        Map<Long, List<String>> tags = tagsOf(cases);
+        return cases.stream()
+            .map(caseEntity -> mapToResponse(
+                caseEntity,
+                null,
+                tags.get(caseEntity.getId()),
+                counts.get(caseEntity.getId())
+            ))
+            .toList();
+    }
+
+    // Tags for a set of cases in one query. A case with no rows may simply not have been backfilled yet,
+    // so its JSON column is read instead.
+    private Map<Long, List<String>> tagsOf(List<Case> cases) {
+        if (cases.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<String>> tags = caseTagRepository.findByCaseIdIn(cases.stream().map(Case::getId).toList()).stream()
+            .collect(Collectors.groupingBy(CaseTag::getCaseId, Collectors.mapping(CaseTag::getTag, Collectors.toList())));
+        for (Case caseEntity : cases) {
+            tags.computeIfAbsent(caseEntity.getId(), id -> legacyTags(caseEntity));
+        }
+        return tags;
+    }
+
+    private List<String> legacyTags(Case caseEntity) {
+        if (caseEntity.getTags() == null || caseEntity.getTags().isEmpty()) {
+            return List.of();
+        }
+        try {
+            return tagsReader.readValue(caseEntity.getTags());
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+
+    // Open cases per tag for the caller's workload
+    @Transactional(readOnly = true)
+    public List<TagFacet> getTagFacets() {
+        User currentUser = getCurrentUser();
+        Long visibleTo = hasRole(currentUser, UserRole.ADMIN, UserRole.CEO, UserRole.CFO, UserRole.AUDITOR)
+            ? null
+            : currentUser.getId();
+        return caseTagRepository.countOpenCasesByTag(FINISHED, visibleTo);
+    }
+
+    private Specification<Case> toSpecification(CaseSearchCriteria criteria) {
+        Specification<Case> specification = Specification.allOf();
+        if (criteria.status().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("status"), criteria.status().get()));
+        }
+        if (criteria.priority().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("priority"), criteria.priority().get()));
+        }
+        if (criteria.category().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("category"), criteria.category().get()));
+        }
+        if (criteria.assignedToId().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("assignedTo").get("id"), criteria.assignedToId().get()));
+        }
+        if (criteria.createdById().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("createdBy").get("id"), criteria.createdById().get()));
+        }
+        if (criteria.department().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("department"), criteria.department().get()));
+        }
+        if (criteria.dueAfter().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dueDate"), criteria.dueAfter().get()));
+        }
+        if (criteria.dueBefore().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("dueDate"), criteria.dueBefore().get()));
+        }
+        if (criteria.minBudget().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("budget"), criteria.minBudget().get()));
+        }
+        if (criteria.maxBudget().isPresent()) {
+            specification = specification.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("budget"), criteria.maxBudget().get()));
+        }
+        for (String tag : criteria.tags()) {
+            // A case must carry every tag; each check is a probe of idx_case_tags_tag
+            specification = specification.and((root, query, cb) -> {
+                Subquery<Long> tagged = query.subquery(Long.class);
+                Root<CaseTag> caseTag = tagged.from(CaseTag.class);
+                tagged.select(caseTag.get("caseId")).where(
+                    cb.equal(caseTag.get("tag"), tag),
+                    cb.equal(caseTag.get("caseId"), root.get("id"))
+                );
+                return cb.exists(tagged);
+            });
+        }
+        return specification;
+    }
+
+    // Keyset step past the cursor row in the cursor's own order, with id breaking ties
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Specification<Case> after(CaseCursor cursor) {
+        boolean descending = cursor.direction().isDescending();
+        Comparable key = cursor.sort().parseKey(cursor.key());
+        return (root, query, cb) -> {
+            Expression<Comparable> value = root.get(cursor.sort().attribute());
+            Expression<Long> id = root.get("id");
+            return cb.or(
+                descending ? cb.lessThan(value, key) : cb.greaterThan(value, key),
+                cb.and(cb.equal(value, key), descending ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id()))
+            );
+        };
+    }
+
+    // Cursor listing for the case board. The cursor carries its sort, so a later page cannot silently switch
+    // order; the total is only counted when asked for.
+    @Transactional(readOnly = true)
+    public CursorResponse<CaseResponse> searchCases(
+        CaseSearchCriteria criteria,
+        CaseSort sort,
+        Sort.Direction direction,
+        String cursor,
+        int size,
+        boolean includeCount
+    ) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Specification<Case> filters = visibleTo(getCurrentUser()).and(toSpecification(criteria));
+        Specification<Case> specification = filters;
+        if (StringUtils.hasText(cursor)) {
+            CaseCursor position = CaseCursor.decode(cursor);
+            if (position.sort() != sort || position.direction() != direction) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
             }
+            specification = specification.and(after(position));
+        }
+        Sort order = Sort.by(direction, sort.attribute()).and(Sort.by(direction, "id"));
+        // One extra row tells whether another page exists; no count query, and the users come in the same join
+        List<Case> rows = caseRepository.findBy(specification, query -> query
+            .sortBy(order)
+            .limit(size + 1)
+            .project("createdBy", "assignedTo")
+            .all());
+        boolean hasNext = rows.size() > size;
+        List<Case> page = hasNext ? rows.subList(0, size) : rows;
+        return new CursorResponse<>(
+            mapToResponses(page),
+            size,
+            hasNext,
+            hasNext ? CaseCursor.of(sort, direction, page.get(page.size() - 1)).encode() : null,
+            includeCount ? caseRepository.count(filters) : null
+        );
+    }
+
+    // The role rule from checkCaseAccess as a predicate, so filtering happens in the query rather than after loading
+    private Specification<Case> visibleTo(User user) {
+        if (hasRole(user, UserRole.ADMIN, UserRole.CEO, UserRole.CFO, UserRole.AUDITOR)) {
+            return Specification.allOf();
         }
+        return (root, query, cb) -> cb.or(
+            cb.equal(root.get("createdBy").get("id"), user.getId()),
+            cb.equal(root.get("assignedTo").get("id"), user.getId())
+        );
+    }
+
+    private CaseResponse mapToResponseWithDocuments(Case caseEntity, List<DocumentResponse> documents) {
+        return mapToResponse(caseEntity, documents, tagsOf(List.of(caseEntity)).get(caseEntity.getId()),
+            documentCounters.countsOf(List.of(caseEntity.getId())).get(caseEntity.getId()));
+    }
 
+    private CaseResponse mapToResponse(Case caseEntity, List<DocumentResponse> documents, List<String> tags,
+                                       Map<DocumentStatus, Long> documentCounts) {
         return new CaseResponse(
             caseEntity.getId(),
             caseEntity.getTitle(),
@@ -267,7 +468,8 @@ public class CaseService {
             mapToUserSummary(caseEntity.getCreatedBy()),
             caseEntity.getCreatedAt(),
             caseEntity.getUpdatedAt(),
-            documents
+            documents,
+            documentCounts
         );
     }
 
@@ -281,10 +483,7 @@ public class CaseService {
     }
 
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmailIgnoreCase(email)
-            .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+        return currentUserProvider.get();
     }
 
     private void checkCaseAccess(Case caseEntity) {
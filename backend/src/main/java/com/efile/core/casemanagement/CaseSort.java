@@ -0,0 +1,43 @@
+package com.efile.core.casemanagement;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+// Orders the case board can be paged in. Only non-null columns qualify, since a keyset cursor cannot step
+// over NULLs; each is backed by an index ending in id so the tie-break stays an index seek.
+public enum CaseSort {
+    CREATED_AT("createdAt", Case::getCreatedAt),
+    UPDATED_AT("updatedAt", Case::getUpdatedAt),
+    TITLE("title", Case::getTitle);
+
+    private final String attribute;
+    private final Function<Case, Comparable<?>> extractor;
+
+    CaseSort(String attribute, Function<Case, Comparable<?>> extractor) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    String keyOf(Case caseEntity) {
+        Comparable<?> value = extractor.apply(caseEntity);
+        if (value instanceof Instant instant) {
+            return instant.getEpochSecond() + "." + instant.getNano();
+        }
+        return value.toString();
+    }
+
+    Comparable<?> parseKey(String key) {
+        if (this == TITLE) {
+            return key;
+        }
+        String[] parts = key.split("\\.");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+    }
+}
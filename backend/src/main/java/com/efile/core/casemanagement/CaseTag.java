@@ -0,0 +1,122 @@
+package com.efile.core.casemanagement;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// One tag on one case. The primary key answers "tags of these cases" and idx_case_tags_tag answers
+// "cases carrying this tag"; rows go away with their case.
+@Entity
+@Table(
+    name = "case_tags",
+    indexes = {
+        @jakarta.persistence.Index(name = "idx_case_tags_tag", columnList = "tag, case_id")
+    }
+)
+@IdClass(CaseTag.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"caseId", "tag"})
+@ToString(of = {"caseId", "tag"})
+public class CaseTag implements Persistable<CaseTag.Key> {
+
+    public static final int MAX_LENGTH = 100;
+
+    @Id
+    @Column(name = "case_id")
+    private Long caseId;
+
+    @Id
+    @Column(length = MAX_LENGTH)
+    private String tag;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "case_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Case caseRef;
+
+    // Ids are assigned, so without this every save would SELECT the row first to decide between insert and merge
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    public CaseTag(Long caseId, String tag) {
+        this.caseId = caseId;
+        this.tag = tag;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(caseId, tag);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    // Trims, drops blanks and keeps the first spelling of tags that differ only in case, which the
+    // case-insensitive collation would treat as the same key
+    static List<String> normalize(Collection<String> tags) {
+        List<String> normalized = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String tag : tags) {
+            if (tag == null || tag.isBlank()) {
+                continue;
+            }
+            String trimmed = tag.trim();
+            if (trimmed.length() > MAX_LENGTH) {
+                throw new IllegalArgumentException("Tags must be at most " + MAX_LENGTH + " characters");
+            }
+            if (seen.add(trimmed.toLowerCase(Locale.ROOT))) {
+                normalized.add(trimmed);
+            }
+        }
+        return normalized;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long caseId;
+
+        private String tag;
+    }
+}
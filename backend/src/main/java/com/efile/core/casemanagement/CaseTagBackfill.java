@@ -0,0 +1,126 @@
+package com.efile.core.casemanagement;
+
+import com.efile.core.casemanagement.dto.TagBackfillReport;
+import com.efile.core.common.BackgroundJob;
+import com.efile.core.common.JobState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Copies tags from the legacy JSON column into case_tags while the application keeps serving. Cases are
+// walked by id in small batches, each in its own short transaction, and a case that already has rows is
+// left alone, so the job can be stopped and rerun at any time. New cases write both forms themselves.
+@Service
+public class CaseTagBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaseTagBackfill.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final CaseRepository caseRepository;
+    private final CaseTagRepository caseTagRepository;
+    private final ObjectReader tagsReader;
+    private final TransactionTemplate transactionTemplate;
+    private final BackgroundJob<Run> job = new BackgroundJob<>("case-tag-backfill");
+
+    public CaseTagBackfill(
+        CaseRepository caseRepository,
+        CaseTagRepository caseTagRepository,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.caseRepository = caseRepository;
+        this.caseTagRepository = caseTagRepository;
+        this.tagsReader = objectMapper.readerForListOf(String.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public TagBackfillReport start() {
+        job.start(Run::new, this::execute);
+        return report();
+    }
+
+    public TagBackfillReport report() {
+        Run run = job.current();
+        if (run == null) {
+            return new TagBackfillReport(JobState.IDLE, null, null, 0, 0, 0, 0, null);
+        }
+        return run.snapshot();
+    }
+
+    private void execute(Run run) {
+        logger.info("Case tag backfill started");
+        long afterId = 0;
+        Long last;
+        do {
+            long from = afterId;
+            last = transactionTemplate.execute(status -> migrateBatch(from, run));
+            if (last != null) {
+                afterId = last;
+            }
+        } while (last != null);
+        logger.info("Case tag backfill finished: {} cases, {} migrated, {} tags, {} unreadable",
+            run.scanned.get(), run.migrated.get(), run.tags.get(), run.unreadable.get());
+    }
+
+    // Returns the last id of the batch, or null once the table is exhausted
+    private Long migrateBatch(long afterId, Run run) {
+        List<Case> cases = caseRepository.findPageAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+        if (cases.isEmpty()) {
+            return null;
+        }
+        Set<Long> tagged = new HashSet<>(caseTagRepository.findTaggedCaseIds(cases.stream().map(Case::getId).toList()));
+        List<CaseTag> rows = new ArrayList<>();
+        for (Case caseEntity : cases) {
+            run.scanned.incrementAndGet();
+            String json = caseEntity.getTags();
+            if (tagged.contains(caseEntity.getId()) || json == null || json.isBlank()) {
+                continue;
+            }
+            try {
+                List<String> tags = CaseTag.normalize(tagsReader.<List<String>>readValue(json));
+                tags.forEach(tag -> rows.add(new CaseTag(caseEntity.getId(), tag)));
+                if (!tags.isEmpty()) {
+                    run.migrated.incrementAndGet();
+                }
+            } catch (IOException | IllegalArgumentException ex) {
+                logger.warn("Skipping tags of case {}: {}", caseEntity.getId(), ex.getMessage());
+                run.unreadable.incrementAndGet();
+            }
+        }
+        caseTagRepository.saveAll(rows);
+        run.tags.addAndGet(rows.size());
+        return cases.get(cases.size() - 1).getId();
+    }
+
+    private static final class Run extends BackgroundJob.Run {
+
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong migrated = new AtomicLong();
+        private final AtomicLong tags = new AtomicLong();
+        private final AtomicLong unreadable = new AtomicLong();
+
+        TagBackfillReport snapshot() {
+            return new TagBackfillReport(
+                getState(),
+                getStartedAt(),
+                getFinishedAt(),
+                scanned.get(),
+                migrated.get(),
+                tags.get(),
+                unreadable.get(),
+                getFailure()
+            );
+        }
+    }
+}
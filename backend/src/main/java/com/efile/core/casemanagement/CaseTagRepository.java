@@ -0,0 +1,31 @@
+package com.efile.core.casemanagement;
+
+import com.efile.core.casemanagement.dto.TagFacet;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CaseTagRepository extends JpaRepository<CaseTag, CaseTag.Key> {
+
+    List<CaseTag> findByCaseIdIn(Collection<Long> caseIds);
+
+    @Query("SELECT DISTINCT t.caseId FROM CaseTag t WHERE t.caseId IN :caseIds")
+    List<Long> findTaggedCaseIds(@Param("caseIds") Collection<Long> caseIds);
+
+    // One aggregate over the tag index joined to the open cases the caller may see; visibleTo is null for
+    // roles that see every case
+    @Query("""
+        SELECT new com.efile.core.casemanagement.dto.TagFacet(t.tag, COUNT(t))
+        FROM CaseTag t JOIN t.caseRef c
+        WHERE c.status NOT IN :finished
+            AND (:visibleTo IS NULL OR c.createdBy.id = :visibleTo OR c.assignedTo.id = :visibleTo)
+        GROUP BY t.tag
+        ORDER BY COUNT(t) DESC, t.tag
+        """)
+    List<TagFacet> countOpenCasesByTag(
+        @Param("finished") Collection<CaseStatus> finished,
+        @Param("visibleTo") Long visibleTo
+    );
+}
@@ -3,10 +3,12 @@ package com.efile.core.casemanagement.dto;
 import com.efile.core.casemanagement.CaseStatus;
 import com.efile.core.casemanagement.CasePriority;
 import com.efile.core.casemanagement.CaseCategory;
+import com.efile.core.document.DocumentStatus;
 import com.efile.core.document.dto.DocumentResponse;
 import com.efile.core.user.dto.UserSummary;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 public record CaseResponse(
     Long id,
@@ -25,5 +27,6 @@ public record CaseResponse(
     UserSummary createdBy,
     Instant createdAt,
     Instant updatedAt,
-    List<DocumentResponse> documents
+    List<DocumentResponse> documents,
+    Map<DocumentStatus, Long> documentCounts
 ) {}
@@ -0,0 +1,54 @@
+package com.efile.core.casemanagement.dto;
+
+import com.efile.core.casemanagement.CaseCategory;
+import com.efile.core.casemanagement.CasePriority;
+import com.efile.core.casemanagement.CaseStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public record CaseSearchCriteria(
+    Optional<CaseStatus> status,
+    Optional<CasePriority> priority,
+    Optional<CaseCategory> category,
+    Optional<Long> assignedToId,
+    Optional<Long> createdById,
+    Optional<String> department,
+    Optional<Instant> dueAfter,
+    Optional<Instant> dueBefore,
+    Optional<Double> minBudget,
+    Optional<Double> maxBudget,
+    List<String> tags
+) {
+    public static CaseSearchCriteria of(
+        CaseStatus status,
+        CasePriority priority,
+        CaseCategory category,
+        Long assignedToId,
+        Long createdById,
+        String department,
+        Instant dueAfter,
+        Instant dueBefore,
+        Double minBudget,
+        Double maxBudget,
+        List<String> tags
+    ) {
+        return new CaseSearchCriteria(
+            Optional.ofNullable(status),
+            Optional.ofNullable(priority),
+            Optional.ofNullable(category),
+            Optional.ofNullable(assignedToId),
+            Optional.ofNullable(createdById),
+            Optional.ofNullable(department).filter(s -> !s.isBlank()),
+            Optional.ofNullable(dueAfter),
+            Optional.ofNullable(dueBefore),
+            Optional.ofNullable(minBudget),
+            Optional.ofNullable(maxBudget),
+            tags == null ? List.of() : tags.stream().filter(tag -> tag != null && !tag.isBlank()).map(String::trim).distinct().toList()
+        );
+    }
+
+    public static CaseSearchCriteria none() {
+        return of(null, null, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.efile.core.casemanagement.dto;
+
+import com.efile.core.common.JobState;
+import java.time.Instant;
+
+public record TagBackfillReport(
+    JobState state,
+    Instant startedAt,
+    Instant finishedAt,
+    long casesScanned,
+    long casesMigrated,
+    long tagsWritten,
+    long unreadable,
+    String failure
+) {
+}
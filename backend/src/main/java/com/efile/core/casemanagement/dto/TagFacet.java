@@ -0,0 +1,4 @@
+package com.efile.core.casemanagement.dto;
+
+public record TagFacet(String tag, long openCases) {
+}
@@ -0,0 +1,105 @@
+package com.efile.core.common;
+
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Runs an admin-triggered maintenance pass on a daemon thread of its own, one run at a time. The latest run is
+// kept after it ends so its counters can still be polled; jobs extend Run with their counters and build their
+// report from it.
+public final class BackgroundJob<R extends BackgroundJob.Run> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundJob.class);
+
+    private final String name;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile R current;
+
+    public BackgroundJob(String name) {
+        this.name = name;
+    }
+
+    // A second start while a run is going does nothing; either way the caller gets the current run
+    public R start(Supplier<R> newRun, Body<R> body) {
+        if (running.compareAndSet(false, true)) {
+            R run = newRun.get();
+            current = run;
+            Thread.ofPlatform().name(name).daemon().start(() -> execute(run, body));
+        }
+        return current;
+    }
+
+    // Null until the first run starts
+    public R current() {
+        return current;
+    }
+
+    // A full queue makes the feeding thread do the work itself, which bounds memory and keeps every thread busy
+    public static ThreadPoolExecutor boundedPool(int threads) {
+        return new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threads * 4),
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    private void execute(R run, Body<R> body) {
+        try {
+            body.execute(run);
+            run.finish(null);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            run.finish("Interrupted");
+        } catch (RuntimeException ex) {
+            logger.error("Background job {} failed", name, ex);
+            run.finish(ex.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Body<R> {
+
+        void execute(R run) throws InterruptedException;
+    }
+
+    public abstract static class Run {
+
+        private final Instant startedAt = Instant.now();
+        private volatile Instant finishedAt;
+        private volatile String failure;
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Instant getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getFailure() {
+            return failure;
+        }
+
+        public JobState getState() {
+            if (finishedAt == null) {
+                return JobState.RUNNING;
+            }
+            return failure == null ? JobState.COMPLETED : JobState.FAILED;
+        }
+
+        void finish(String failure) {
+            this.failure = failure;
+            this.finishedAt = Instant.now();
+        }
+    }
+}
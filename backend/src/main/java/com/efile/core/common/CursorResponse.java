@@ -0,0 +1,14 @@
+package com.efile.core.common;
+
+import java.util.List;
+
+// A page of a keyset listing. nextCursor is null on the last page; totalElements is only filled when the
+// caller asked for it and may lag behind recent writes.
+public record CursorResponse<T>(
+    List<T> content,
+    int size,
+    boolean hasNext,
+    String nextCursor,
+    Long totalElements
+) {
+}
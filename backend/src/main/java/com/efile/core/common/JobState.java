@@ -0,0 +1,8 @@
+package com.efile.core.common;
+
+public enum JobState {
+    IDLE,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
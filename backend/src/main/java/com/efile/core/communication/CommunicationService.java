@@ -4,6 +4,7 @@ import com.efile.core.casemanagement.Case;
 import com.efile.core.casemanagement.CaseRepository;
 import com.efile.core.communication.dto.CommunicationRequest;
 import com.efile.core.communication.dto.CommunicationResponse;
+import com.efile.core.security.CurrentUserProvider;
 import com.efile.core.security.EncryptionService;
 import com.efile.core.user.User;
 import com.efile.core.user.UserRepository;
@@ -14,8 +15,6 @@ import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,17 +26,20 @@ public class CommunicationService {
     private final UserRepository userRepository;
     private final CaseRepository caseRepository;
     private final EncryptionService encryptionService;
+    private final CurrentUserProvider currentUserProvider;
 
     public CommunicationService(
         CommunicationRepository communicationRepository,
         UserRepository userRepository,
         CaseRepository caseRepository,
-        EncryptionService encryptionService
+        EncryptionService encryptionService,
+        CurrentUserProvider currentUserProvider
     ) {
         this.communicationRepository = communicationRepository;
         this.userRepository = userRepository;
         this.caseRepository = caseRepository;
         this.encryptionService = encryptionService;
+        this.currentUserProvider = currentUserProvider;
     }
 
     public CommunicationResponse sendCommunication(CommunicationRequest request) {
@@ -155,9 +157,6 @@ public class CommunicationService {
     }
 
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmailIgnoreCase(email)
-            .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+        return currentUserProvider.get();
     }
 }
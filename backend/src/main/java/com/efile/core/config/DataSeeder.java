@@ -16,6 +16,7 @@ import com.efile.core.communication.CommunicationRepository;
 import com.efile.core.communication.CommunicationType;
 import com.efile.core.department.Department;
 import com.efile.core.department.DepartmentRepository;
+import com.efile.core.document.CaseDocumentCountReconciler;
 import com.efile.core.document.Document;
 import com.efile.core.document.DocumentRepository;
 import com.efile.core.document.DocumentStatus;
@@ -33,19 +34,22 @@ public class DataSeeder implements CommandLineRunner {
     private final DocumentRepository documentRepository;
     private final CommunicationRepository communicationRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CaseDocumentCountReconciler countReconciler;
 
     public DataSeeder(UserRepository userRepository,
                      DepartmentRepository departmentRepository,
                      CaseRepository caseRepository,
                      DocumentRepository documentRepository,
                      CommunicationRepository communicationRepository,
-                     PasswordEncoder passwordEncoder) {
+                     PasswordEncoder passwordEncoder,
+                     CaseDocumentCountReconciler countReconciler) {
         this.userRepository = userRepository;
         this.departmentRepository = departmentRepository;
         this.caseRepository = caseRepository;
         this.documentRepository = documentRepository;
         this.communicationRepository = communicationRepository;
         this.passwordEncoder = passwordEncoder;
+        this.countReconciler = countReconciler;
     }
 
     @Override
@@ -379,6 +383,8 @@ public class DataSeeder implements CommandLineRunner {
                 documentRepository.save(doc8);
 
                 System.out.println("✅ Seeded 8 test documents");
+                // Seeded rows bypass DocumentService, so their case counters are filled in from the table
+                countReconciler.start();
             }
         }
     }
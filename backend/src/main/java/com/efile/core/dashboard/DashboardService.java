@@ -2,13 +2,12 @@ package com.efile.core.dashboard;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,16 +19,17 @@ import com.efile.core.communication.Communication;
 import com.efile.core.communication.CommunicationRepository;
 import com.efile.core.communication.dto.CommunicationResponse;
 import com.efile.core.dashboard.dto.DashboardSummary;
+import com.efile.core.document.CaseDocumentCounters;
 import com.efile.core.document.Document;
 import com.efile.core.document.DocumentRepository;
 import com.efile.core.document.DocumentStatus;
 import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.security.CurrentUserProvider;
 import com.efile.core.user.User;
 import com.efile.core.user.UserRepository;
 import com.efile.core.user.UserRole;
 import com.efile.core.user.dto.UserSummary;
 
-import jakarta.persistence.EntityNotFoundException;
 
 @Service
 @Transactional(readOnly = true)
@@ -39,17 +39,23 @@ public class DashboardService {
     private final CaseRepository caseRepository;
     private final CommunicationRepository communicationRepository;
     private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final CaseDocumentCounters documentCounters;
 
     public DashboardService(
         DocumentRepository documentRepository,
         CaseRepository caseRepository,
         CommunicationRepository communicationRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        CurrentUserProvider currentUserProvider,
+        CaseDocumentCounters documentCounters
     ) {
         this.documentRepository = documentRepository;
         this.caseRepository = caseRepository;
         this.communicationRepository = communicationRepository;
         this.userRepository = userRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.documentCounters = documentCounters;
     }
 
     public DashboardSummary getDashboardSummary() {
@@ -102,10 +108,11 @@ public class DashboardService {
             currentUser.getRole() == UserRole.ADMIN) {
 
             Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "uploadedAt"));
-            return documentRepository.findByStatus(DocumentStatus.SUBMITTED, pageable).getContent()
-                .stream()
-                .map(this::mapDocumentToResponse)
-                .collect(Collectors.toList());
+            return documentRepository.findResponses(
+                (root, query, cb) -> cb.equal(root.get("status"), DocumentStatus.SUBMITTED),
+                pageable.getSort(),
+                pageable.getPageSize()
+            );
         }
 
         return List.of();
@@ -115,21 +122,22 @@ public class DashboardService {
         User currentUser = getCurrentUser();
         Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "updatedAt"));
 
+        List<Case> cases;
         if (currentUser.getRole() == UserRole.ADMIN ||
             currentUser.getRole() == UserRole.CEO ||
             currentUser.getRole() == UserRole.CFO) {
             // Show all active cases
-            return caseRepository.findAll(pageable).getContent().stream()
+            cases = caseRepository.findAll(pageable).getContent().stream()
                 .filter(c -> c.getStatus() != CaseStatus.CLOSED)
-                .map(this::mapCaseToResponse)
                 .collect(Collectors.toList());
         } else {
             // Show only assigned cases
-            return caseRepository.findByAssignedToId(currentUser.getId(), pageable).getContent()
-                .stream()
-                .map(this::mapCaseToResponse)
-                .collect(Collectors.toList());
+            cases = caseRepository.findByAssignedToId(currentUser.getId(), pageable).getContent();
         }
+        Map<Long, Map<DocumentStatus, Long>> counts = documentCounters.countsOf(cases.stream().map(Case::getId).toList());
+        return cases.stream()
+            .map(caseEntity -> mapCaseToResponse(caseEntity, counts.get(caseEntity.getId())))
+            .collect(Collectors.toList());
     }
 
     public List<CommunicationResponse> getNotifications() {
@@ -242,10 +250,7 @@ public class DashboardService {
     }
 
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmailIgnoreCase(email)
-            .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+        return currentUserProvider.get();
     }
 
     private Double calculateMonthlyGrowth() {
@@ -297,34 +302,7 @@ public class DashboardService {
         }
     }
 
-    private DocumentResponse mapDocumentToResponse(Document document) {
-        Long caseId = document.getCaseRef() != null ? document.getCaseRef().getId() : null;
-        String caseTitle = document.getCaseRef() != null ? document.getCaseRef().getTitle() : null;
-        Long uploadedById = document.getUploadedBy() != null ? document.getUploadedBy().getId() : null;
-        String uploadedByName = document.getUploadedBy() != null ? document.getUploadedBy().getName() : null;
-        Long approvedById = document.getApprovedBy() != null ? document.getApprovedBy().getId() : null;
-        String approvedByName = document.getApprovedBy() != null ? document.getApprovedBy().getName() : null;
-
-        return new DocumentResponse(
-            document.getId(),
-            document.getTitle(),
-            document.getType(),
-            document.getStatus(),
-            caseId,
-            caseTitle,
-            uploadedById,
-            uploadedByName,
-            approvedById,
-            approvedByName,
-            document.getFileSize(),
-            document.getFilePath(),
-            document.getReceiptNumber(),
-            document.getUploadedAt(),
-            document.getProcessedAt()
-        );
-    }
-
-    private CaseResponse mapCaseToResponse(Case caseEntity) {
+    private CaseResponse mapCaseToResponse(Case caseEntity, Map<DocumentStatus, Long> documentCounts) {
         return new CaseResponse(
             caseEntity.getId(),
             caseEntity.getTitle(),
@@ -342,7 +320,8 @@ public class DashboardService {
             mapToUserSummary(caseEntity.getCreatedBy()),
             caseEntity.getCreatedAt(),
             caseEntity.getUpdatedAt(),
-            List.of() // Empty documents list for dashboard
+            null, // Dashboard cards only need the counts
+            documentCounts
         );
     }
 
@@ -0,0 +1,5 @@
+package com.efile.core.department;
+
+// Published inside the transaction that created, renamed, re-headed or deleted a department
+public record DepartmentChangedEvent(Long departmentId) {
+}
@@ -8,6 +8,7 @@ import com.efile.core.user.dto.UserSummary;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -15,10 +16,16 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DepartmentService(DepartmentRepository departmentRepository, UserRepository userRepository) {
+    public DepartmentService(
+        DepartmentRepository departmentRepository,
+        UserRepository userRepository,
+        ApplicationEventPublisher eventPublisher
+    ) {
         this.departmentRepository = departmentRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -30,6 +37,7 @@ public class DepartmentService {
         department.setName(request.name());
         department.setHead(resolveHead(request.headId()));
         Department saved = departmentRepository.save(department);
+        eventPublisher.publishEvent(new DepartmentChangedEvent(saved.getId()));
         return toResponse(saved);
     }
 
@@ -42,6 +50,7 @@ public class DepartmentService {
         department.setName(request.name());
         department.setHead(resolveHead(request.headId()));
         Department saved = departmentRepository.save(department);
+        eventPublisher.publishEvent(new DepartmentChangedEvent(saved.getId()));
         return toResponse(saved);
     }
 
@@ -53,6 +62,7 @@ public class DepartmentService {
             throw new IllegalStateException("Department has assigned users");
         }
         departmentRepository.delete(department);
+        eventPublisher.publishEvent(new DepartmentChangedEvent(id));
     }
 
     @Transactional(readOnly = true)
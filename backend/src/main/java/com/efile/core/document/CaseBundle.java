@@ -0,0 +1,13 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.DocumentHistoryResponse;
+import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.storage.StoredContent;
+import java.util.List;
+
+public record CaseBundle(Long caseId, String caseTitle, List<Item> items) {
+
+    // content is null when the stored file could not be opened; the manifest records why
+    public record Item(DocumentResponse document, List<DocumentHistoryResponse> history, StoredContent content, String error) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.CaseBundleManifest;
+import com.efile.core.storage.StoredContent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CaseBundleWriter {
+
+    static final String MANIFEST_ENTRY = "manifest.json";
+    // PNG is deflated already and DOCX/XLSX are ZIP archives themselves; deflating them again only burns CPU
+    private static final Set<String> STORED_EXTENSIONS = Set.of("png", "docx", "xlsx");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_TITLE_LENGTH = 100;
+
+    private final ObjectMapper objectMapper;
+
+    public CaseBundleWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Writes straight to the response; when the client goes away the next write fails and the
+    // remaining documents are never read
+    public void write(CaseBundle bundle, OutputStream out) throws IOException {
+        List<String> entryNames = new ArrayList<>(bundle.items().size());
+        List<CaseBundleManifest.Entry> manifestEntries = new ArrayList<>(bundle.items().size());
+        for (CaseBundle.Item item : bundle.items()) {
+            String name = item.content() == null ? null : entryName(item);
+            entryNames.add(name);
+            manifestEntries.add(new CaseBundleManifest.Entry(name, item.error(), item.document(), item.history()));
+        }
+        CaseBundleManifest manifest = new CaseBundleManifest(bundle.caseId(), bundle.caseTitle(), Instant.now(), manifestEntries);
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.putNextEntry(new ZipEntry(MANIFEST_ENTRY));
+        zip.write(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest));
+        zip.closeEntry();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (int i = 0; i < bundle.items().size(); i++) {
+            StoredContent content = bundle.items().get(i).content();
+            if (content == null) {
+                continue;
+            }
+            ZipEntry entry = new ZipEntry(entryNames.get(i));
+            if (STORED_EXTENSIONS.contains(extension(entry.getName()))) {
+                // STORED entries need their CRC in the local header, which costs a read-only first pass
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(content.length());
+                entry.setCompressedSize(content.length());
+                entry.setCrc(crc(content, buffer));
+            }
+            zip.putNextEntry(entry);
+            try (InputStream in = content.openStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    zip.write(buffer, 0, read);
+                }
+            }
+            zip.closeEntry();
+            // Pushes each document to the client as it completes, so a disconnect surfaces promptly
+            zip.flush();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private long crc(StoredContent content, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = content.openStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private String entryName(CaseBundle.Item item) {
+        String filePath = item.document().filePath();
+        String title = item.document().title() == null ? "document" : item.document().title();
+        // The id prefix keeps names unique when titles repeat
+        String safeTitle = title.replaceAll("[^A-Za-z0-9._ -]", "_").trim();
+        if (safeTitle.length() > MAX_TITLE_LENGTH) {
+            safeTitle = safeTitle.substring(0, MAX_TITLE_LENGTH);
+        }
+        return item.document().id() + "-" + safeTitle + "." + extension(filePath);
+    }
+
+    private String extension(String path) {
+        int dotIndex = path.lastIndexOf('.');
+        return dotIndex < 0 ? "" : path.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.efile.core.document;
+
+import com.efile.core.casemanagement.Case;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// How many of a case's documents are in one status. Rows are only ever changed through the upserts in
+// CaseDocumentCountRepository, driven by CaseDocumentCounters and repaired by the reconciler.
+@Entity
+@Table(name = "case_document_counts")
+@IdClass(CaseDocumentCount.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"caseId", "status"})
+@ToString(of = {"caseId", "status", "documentCount"})
+public class CaseDocumentCount {
+
+    @Id
+    @Column(name = "case_id")
+    private Long caseId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private DocumentStatus status;
+
+    @Column(name = "document_count", nullable = false)
+    private long documentCount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "case_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Case caseRef;
+
+    public CaseDocumentCount(Long caseId, DocumentStatus status, long documentCount) {
+        this.caseId = caseId;
+        this.status = status;
+        this.documentCount = documentCount;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        private Long caseId;
+
+        private DocumentStatus status;
+    }
+}
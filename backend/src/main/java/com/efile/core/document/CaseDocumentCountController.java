@@ -0,0 +1,35 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.CountReconciliationReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/documents/counts/reconcile")
+public class CaseDocumentCountController {
+
+    private final CaseDocumentCountReconciler reconciler;
+
+    public CaseDocumentCountController(CaseDocumentCountReconciler reconciler) {
+        this.reconciler = reconciler;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<CountReconciliationReport> start() {
+        CountReconciliationReport report = reconciler.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<CountReconciliationReport> getReport() {
+        CountReconciliationReport report = reconciler.report();
+        return ResponseEntity.ok(report);
+    }
+}
@@ -0,0 +1,127 @@
+package com.efile.core.document;
+
+import com.efile.core.casemanagement.CaseRepository;
+import com.efile.core.common.BackgroundJob;
+import com.efile.core.common.JobState;
+import com.efile.core.document.dto.CountReconciliationReport;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Recomputes the per-case counters from the documents table and overwrites any that drifted. Cases are
+// checked in batches; each batch locks its counter rows before counting, so a concurrent upload either
+// committed before the count (and is in it) or waits and applies its delta on top of the repaired value.
+@Service
+public class CaseDocumentCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaseDocumentCountReconciler.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final CaseRepository caseRepository;
+    private final DocumentRepository documentRepository;
+    private final CaseDocumentCountRepository countRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BackgroundJob<Run> job = new BackgroundJob<>("document-count-reconcile");
+
+    public CaseDocumentCountReconciler(
+        CaseRepository caseRepository,
+        DocumentRepository documentRepository,
+        CaseDocumentCountRepository countRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.caseRepository = caseRepository;
+        this.documentRepository = documentRepository;
+        this.countRepository = countRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CountReconciliationReport start() {
+        job.start(Run::new, this::execute);
+        return report();
+    }
+
+    public CountReconciliationReport report() {
+        Run run = job.current();
+        if (run == null) {
+            return new CountReconciliationReport(JobState.IDLE, null, null, 0, 0, null);
+        }
+        return run.snapshot();
+    }
+
+    @Scheduled(cron = "${documents.counts.reconcile-cron:-}")
+    public void scheduledReconcile() {
+        start();
+    }
+
+    private void execute(Run run) {
+        logger.info("Document count reconciliation started");
+        long afterId = 0;
+        List<Long> caseIds;
+        do {
+            caseIds = caseRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            if (caseIds.isEmpty()) {
+                break;
+            }
+            List<Long> batch = caseIds;
+            Integer repaired = transactionTemplate.execute(status -> reconcile(batch));
+            run.checked.addAndGet(batch.size());
+            run.repaired.addAndGet(repaired == null ? 0 : repaired);
+            afterId = batch.get(batch.size() - 1);
+        } while (caseIds.size() == BATCH_SIZE);
+        logger.info("Document count reconciliation finished: {} cases, {} counters repaired", run.checked.get(), run.repaired.get());
+    }
+
+    // Must run inside a transaction; returns how many counters were wrong
+    int reconcile(List<Long> caseIds) {
+        Map<CaseDocumentCount.Key, Long> stored = new HashMap<>();
+        for (CaseDocumentCount row : countRepository.lockByCaseIdIn(caseIds)) {
+            stored.put(new CaseDocumentCount.Key(row.getCaseId(), row.getStatus()), row.getDocumentCount());
+        }
+        Map<CaseDocumentCount.Key, Long> actual = new HashMap<>();
+        for (CaseStatusCount count : documentRepository.countByCaseAndStatus(caseIds)) {
+            actual.put(new CaseDocumentCount.Key(count.caseId(), count.status()), count.count());
+        }
+        Set<CaseDocumentCount.Key> keys = new HashSet<>(stored.keySet());
+        keys.addAll(actual.keySet());
+        int repaired = 0;
+        for (CaseDocumentCount.Key key : keys) {
+            long expected = actual.getOrDefault(key, 0L);
+            Long recorded = stored.get(key);
+            if (recorded != null && recorded == expected) {
+                continue;
+            }
+            if (expected == 0) {
+                countRepository.deleteCount(key.getCaseId(), key.getStatus());
+                if (recorded == 0) {
+                    // An empty row is tidied away but was never wrong
+                    continue;
+                }
+            } else {
+                countRepository.setCount(key.getCaseId(), key.getStatus().name(), expected);
+            }
+            logger.warn("Document count for case {} {} was {}, actual {}", key.getCaseId(), key.getStatus(), recorded, expected);
+            repaired++;
+        }
+        return repaired;
+    }
+
+    private static final class Run extends BackgroundJob.Run {
+
+        private final AtomicLong checked = new AtomicLong();
+        private final AtomicLong repaired = new AtomicLong();
+
+        CountReconciliationReport snapshot() {
+            return new CountReconciliationReport(getState(), getStartedAt(), getFinishedAt(), checked.get(), repaired.get(), getFailure());
+        }
+    }
+}
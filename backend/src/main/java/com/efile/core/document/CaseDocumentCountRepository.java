@@ -0,0 +1,41 @@
+package com.efile.core.document;
+
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CaseDocumentCountRepository extends JpaRepository<CaseDocumentCount, CaseDocumentCount.Key> {
+
+    List<CaseDocumentCount> findByCaseIdIn(Collection<Long> caseIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CaseDocumentCount c WHERE c.caseId IN :caseIds")
+    List<CaseDocumentCount> lockByCaseIdIn(@Param("caseIds") Collection<Long> caseIds);
+
+    // A delta against a row that does not exist yet creates it, so the first document of a case needs no
+    // separate insert path
+    @Modifying
+    @Query(
+        value = "INSERT INTO case_document_counts (case_id, status, document_count) VALUES (:caseId, :status, :delta) "
+            + "ON DUPLICATE KEY UPDATE document_count = document_count + :delta",
+        nativeQuery = true
+    )
+    int addToCount(@Param("caseId") Long caseId, @Param("status") String status, @Param("delta") long delta);
+
+    @Modifying
+    @Query(
+        value = "INSERT INTO case_document_counts (case_id, status, document_count) VALUES (:caseId, :status, :count) "
+            + "ON DUPLICATE KEY UPDATE document_count = :count",
+        nativeQuery = true
+    )
+    int setCount(@Param("caseId") Long caseId, @Param("status") String status, @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM CaseDocumentCount c WHERE c.caseId = :caseId AND c.status = :status")
+    int deleteCount(@Param("caseId") Long caseId, @Param("status") DocumentStatus status);
+}
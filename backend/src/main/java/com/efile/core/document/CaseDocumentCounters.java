@@ -0,0 +1,92 @@
+package com.efile.core.document;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Per-case document counts by status, kept in step by DocumentService. Changes made during a transaction
+// are summed and written just before it commits, one upsert per (case, status) in key order: the counter
+// rows stay locked only for the commit, writers always lock them in the same order, and a rollback writes
+// nothing. Anything that slips past (seed data, manual SQL) is repaired by CaseDocumentCountReconciler.
+@Component
+public class CaseDocumentCounters {
+
+    private static final Comparator<CaseDocumentCount.Key> KEY_ORDER =
+        Comparator.comparing(CaseDocumentCount.Key::getCaseId).thenComparing(CaseDocumentCount.Key::getStatus);
+
+    private final CaseDocumentCountRepository repository;
+
+    public CaseDocumentCounters(CaseDocumentCountRepository repository) {
+        this.repository = repository;
+    }
+
+    void added(Long caseId, DocumentStatus status, int documents) {
+        record(caseId, status, documents);
+    }
+
+    void moved(Long caseId, DocumentStatus from, DocumentStatus to) {
+        record(caseId, from, -1);
+        record(caseId, to, 1);
+    }
+
+    void removed(Long caseId, DocumentStatus status) {
+        record(caseId, status, -1);
+    }
+
+    // Every status is present, zero included, so clients get the same shape for every case
+    public Map<Long, Map<DocumentStatus, Long>> countsOf(Collection<Long> caseIds) {
+        Map<Long, Map<DocumentStatus, Long>> counts = new HashMap<>();
+        if (caseIds.isEmpty()) {
+            return counts;
+        }
+        for (Long caseId : caseIds) {
+            Map<DocumentStatus, Long> byStatus = new EnumMap<>(DocumentStatus.class);
+            for (DocumentStatus status : DocumentStatus.values()) {
+                byStatus.put(status, 0L);
+            }
+            counts.put(caseId, byStatus);
+        }
+        for (CaseDocumentCount row : repository.findByCaseIdIn(caseIds)) {
+            counts.get(row.getCaseId()).put(row.getStatus(), row.getDocumentCount());
+        }
+        return counts;
+    }
+
+    private void record(Long caseId, DocumentStatus status, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Document counts can only change inside a transaction");
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.deltas.merge(new CaseDocumentCount.Key(caseId, status), delta, Long::sum);
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<CaseDocumentCount.Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            deltas.forEach((key, delta) -> {
+                if (delta != 0) {
+                    repository.addToCount(key.getCaseId(), key.getStatus().name(), delta);
+                }
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CaseDocumentCounters.this);
+        }
+    }
+}
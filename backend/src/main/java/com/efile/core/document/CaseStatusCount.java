@@ -0,0 +1,5 @@
+package com.efile.core.document;
+
+// One row of a GROUP BY case, status over the documents table
+public record CaseStatusCount(Long caseId, DocumentStatus status, long count) {
+}
@@ -0,0 +1,69 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.CreateUploadSessionRequest;
+import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.document.dto.UploadSessionResponse;
+import jakarta.validation.Valid;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/documents/uploads")
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    public ChunkedUploadController(ChunkedUploadService chunkedUploadService) {
+        this.chunkedUploadService = chunkedUploadService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<UploadSessionResponse> createSession(@Valid @RequestBody CreateUploadSessionRequest request) {
+        UploadSessionResponse response = chunkedUploadService.createSession(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String id) {
+        return ResponseEntity.ok(chunkedUploadService.getSession(id));
+    }
+
+    @PutMapping("/{id}/chunks/{index}")
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+        @PathVariable String id,
+        @PathVariable int index,
+        @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+        InputStream body
+    ) {
+        UploadSessionResponse response = chunkedUploadService.receiveChunk(id, index, contentLength, body);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/{id}/complete")
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<DocumentResponse> complete(@PathVariable String id) {
+        return DocumentController.uploaded(chunkedUploadService.complete(id));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<Void> abort(@PathVariable String id) {
+        chunkedUploadService.abort(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,214 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.CreateUploadSessionRequest;
+import com.efile.core.document.dto.UploadOutcome;
+import com.efile.core.document.dto.UploadSessionResponse;
+import com.efile.core.security.UserPrincipal;
+import com.efile.core.storage.FileStorageException;
+import com.efile.core.storage.FileStorageProperties;
+import com.efile.core.storage.FileStorageService;
+import com.efile.core.storage.StagedFile;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ChunkedUploadService {
+
+    private static final Duration ABANDONED_COMPLETION_AGE = Duration.ofDays(1);
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadChunkRepository chunkRepository;
+    private final DocumentService documentService;
+    private final FileStorageService fileStorageService;
+    private final FileStorageProperties storageProperties;
+
+    public ChunkedUploadService(
+        UploadSessionRepository sessionRepository,
+        UploadChunkRepository chunkRepository,
+        DocumentService documentService,
+        FileStorageService fileStorageService,
+        FileStorageProperties storageProperties
+    ) {
+        this.sessionRepository = sessionRepository;
+        this.chunkRepository = chunkRepository;
+        this.documentService = documentService;
+        this.fileStorageService = fileStorageService;
+        this.storageProperties = storageProperties;
+    }
+
+    @Transactional
+    public UploadSessionResponse createSession(CreateUploadSessionRequest request) {
+        documentService.validateUpload(request.title(), request.type(), request.caseId());
+        fileStorageService.validateFilename(request.filename());
+        long maxSize = storageProperties.getMaxChunkedUploadSize().toBytes();
+        if (request.totalSize() > maxSize) {
+            throw new FileStorageException("File exceeds maximum allowed size of " + maxSize / (1024 * 1024) + "MB");
+        }
+        int chunkSize = (int) storageProperties.getChunkSize().toBytes();
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setTitle(request.title());
+        session.setType(request.type());
+        session.setCaseId(request.caseId());
+        session.setCreatedById(currentUserId());
+        session.setFilename(request.filename());
+        session.setTotalSize(request.totalSize());
+        session.setChunkSize(chunkSize);
+        session.setChunkCount((int) ((request.totalSize() + chunkSize - 1) / chunkSize));
+        session.setExpiresAt(Instant.now().plus(storageProperties.getUploadSessionTtl()));
+        UploadSession saved = sessionRepository.save(session);
+        fileStorageService.allocatePart(saved.getId(), saved.getTotalSize());
+        return toResponse(saved, List.of());
+    }
+
+    // Not transactional: the chunk body is streamed to disk before a connection is borrowed to record it
+    public UploadSessionResponse receiveChunk(String sessionId, int index, Long contentLength, InputStream body) {
+        UploadSession session = loadOwnedSession(sessionId);
+        if (index < 0 || index >= session.getChunkCount()) {
+            throw new IllegalArgumentException("Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        long expected = session.chunkLength(index);
+        if (contentLength != null && contentLength != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " must be exactly " + expected + " bytes");
+        }
+        // Registered before the first byte lands, so complete() cannot hash the part underneath this write
+        if (sessionRepository.beginWrite(session.getId()) == 0) {
+            throw new DocumentConflictException("Upload is being completed");
+        }
+        try {
+            fileStorageService.writePart(session.getId(), (long) index * session.getChunkSize(), expected, body);
+            chunkRepository.markReceived(session.getId(), index);
+        } finally {
+            sessionRepository.endWrite(session.getId());
+        }
+        return toResponse(session, chunkRepository.findReceivedIndexes(session.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getSession(String sessionId) {
+        UploadSession session = loadOwnedSession(sessionId);
+        return toResponse(session, chunkRepository.findReceivedIndexes(session.getId()));
+    }
+
+    public UploadOutcome complete(String sessionId) {
+        UploadSession session = loadOwnedSession(sessionId);
+        long received = chunkRepository.countBySessionId(session.getId());
+        if (received < session.getChunkCount()) {
+            throw new IllegalArgumentException("Upload is missing " + (session.getChunkCount() - received) + " chunk(s)");
+        }
+        claim(session);
+        boolean completed = false;
+        try {
+            StagedFile staged = fileStorageService.adoptPart(session.getId(), session.getFilename());
+            try {
+                UploadOutcome outcome = documentService.uploadDocument(session.getTitle(), session.getType(), session.getCaseId(), staged);
+                removeSession(session);
+                completed = true;
+                return outcome;
+            } finally {
+                // Linked or rejected duplicates leave the staged copy behind
+                fileStorageService.discard(staged);
+            }
+        } finally {
+            if (!completed) {
+                sessionRepository.releaseCompletion(session.getId());
+            }
+        }
+    }
+
+    public void abort(String sessionId) {
+        UploadSession session = loadOwnedSession(sessionId);
+        // Claimed like a completion, so the part is not deleted under a running complete() or chunk write
+        claim(session);
+        removeSession(session);
+    }
+
+    @Scheduled(fixedDelayString = "PT1H")
+    public void purgeExpiredSessions() {
+        Instant now = Instant.now();
+        Instant abandonedBefore = now.minus(ABANDONED_COMPLETION_AGE);
+        for (UploadSession session : sessionRepository.findByExpiresAtBefore(now)) {
+            // A session that expired while complete() was adopting its part is left to that call
+            if (sessionRepository.claimForPurge(session.getId(), abandonedBefore) == 1) {
+                removeSession(session);
+            }
+        }
+    }
+
+    private void removeSession(UploadSession session) {
+        chunkRepository.deleteBySessionId(session.getId());
+        sessionRepository.delete(session);
+        fileStorageService.discardPart(session.getId());
+    }
+
+    private UploadSession loadOwnedSession(String sessionId) {
+        UploadSession session = sessionRepository.findById(sessionId)
+            .orElseThrow(() -> new IllegalArgumentException("Upload session not found"));
+        if (session.getExpiresAt().isBefore(Instant.now())) {
+            throw new IllegalArgumentException("Upload session has expired");
+        }
+        if (!session.getCreatedById().equals(currentUserId())) {
+            throw new AccessDeniedException("Upload session belongs to another user");
+        }
+        return session;
+    }
+
+    private void claim(UploadSession session) {
+        if (sessionRepository.claimCompletion(session.getId()) == 0) {
+            throw new DocumentConflictException("Upload is already being completed or still receiving a chunk");
+        }
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new IllegalStateException("No authenticated user");
+        }
+        return principal.getId();
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session, List<Integer> receivedIndexes) {
+        // Contiguous chunk indexes collapse into byte ranges so clients can resume from the gaps
+        List<UploadSessionResponse.ReceivedRange> ranges = new ArrayList<>();
+        int runStart = -1;
+        int previous = -2;
+        for (int index : receivedIndexes) {
+            if (index != previous + 1) {
+                if (runStart >= 0) {
+                    ranges.add(toRange(session, runStart, previous));
+                }
+                runStart = index;
+            }
+            previous = index;
+        }
+        if (runStart >= 0) {
+            ranges.add(toRange(session, runStart, previous));
+        }
+        return new UploadSessionResponse(
+            session.getId(),
+            session.getFilename(),
+            session.getTotalSize(),
+            session.getChunkSize(),
+            session.getChunkCount(),
+            ranges,
+            receivedIndexes.size() == session.getChunkCount(),
+            session.getExpiresAt()
+        );
+    }
+
+    private UploadSessionResponse.ReceivedRange toRange(UploadSession session, int firstChunk, int lastChunk) {
+        long start = (long) firstChunk * session.getChunkSize();
+        long end = (long) lastChunk * session.getChunkSize() + session.chunkLength(lastChunk) - 1;
+        return new UploadSessionResponse.ReceivedRange(start, end);
+    }
+}
@@ -1,9 +1,11 @@
 package com.efile.core.document;
 
 import com.efile.core.casemanagement.Case;
+import com.efile.core.search.SearchIndexListener;
 import com.efile.core.user.User;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
@@ -13,7 +15,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.Instant;
 import org.hibernate.annotations.CreationTimestamp;
 import lombok.AllArgsConstructor;
@@ -24,13 +28,19 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(
     name = "documents",
     uniqueConstraints = @UniqueConstraint(name = "uq_documents_receipt", columnNames = "receipt_number"),
     indexes = {
         @jakarta.persistence.Index(name = "idx_documents_case", columnList = "case_id"),
         @jakarta.persistence.Index(name = "idx_documents_status", columnList = "status"),
-        @jakarta.persistence.Index(name = "idx_documents_uploaded_by", columnList = "uploaded_by_id")
+        // Seek indexes for the newest-first cursor listing, with and without a status filter
+        @jakarta.persistence.Index(name = "idx_documents_status_uploaded", columnList = "status, uploaded_at, id"),
+        @jakarta.persistence.Index(name = "idx_documents_uploaded", columnList = "uploaded_at, id"),
+        @jakarta.persistence.Index(name = "idx_documents_uploaded_by", columnList = "uploaded_by_id"),
+        // Duplicate detection looks up the same content within a case
+        @jakarta.persistence.Index(name = "idx_documents_case_hash", columnList = "case_id, content_hash")
     }
 )
 @Getter
@@ -41,8 +51,17 @@ import lombok.ToString;
 @ToString(of = "id")
 public class Document {
 
+    // Table-backed pooled ids let Hibernate batch inserts, which IDENTITY rules out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "document_ids")
+    @TableGenerator(
+        name = "document_ids",
+        table = IdGenerators.TABLE,
+        pkColumnName = "name",
+        valueColumnName = "next_val",
+        pkColumnValue = "documents",
+        allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @Column(nullable = false, length = 191)
@@ -58,6 +77,9 @@ public class Document {
     @Column(nullable = false)
     private long fileSize;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 32)
     private DocumentStatus status = DocumentStatus.DRAFT;
@@ -86,4 +108,8 @@ public class Document {
 
     @Column(name = "processed_at")
     private Instant processedAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
@@ -0,0 +1,9 @@
+package com.efile.core.document;
+
+// A document changed between being read and being written, e.g. two reviewers deciding it at once
+public class DocumentConflictException extends RuntimeException {
+
+    public DocumentConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,22 +1,45 @@
 package com.efile.core.document;
 
+import com.efile.core.common.CursorResponse;
 import com.efile.core.common.PageResponse;
+import com.efile.core.document.dto.BatchUploadResult;
+import com.efile.core.document.dto.BulkTransitionRequest;
+import com.efile.core.document.dto.BulkTransitionResult;
 import com.efile.core.document.dto.DocumentHistoryResponse;
 import com.efile.core.document.dto.DocumentResponse;
 import com.efile.core.document.dto.DocumentSearchCriteria;
 import com.efile.core.document.dto.DocumentRejectionRequest;
+import com.efile.core.document.dto.UploadOutcome;
+import com.efile.core.storage.FileStorageException;
+import com.efile.core.storage.RangedContentWriter;
+import com.efile.core.storage.StoredContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
-import org.springframework.core.io.Resource;
+import java.util.Map;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -31,10 +54,16 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api/documents")
 public class DocumentController {
 
+    private static final int MAX_FORM_FIELD_BYTES = 4096;
+    private static final String DUPLICATE_OF_HEADER = "X-Duplicate-Of";
+    private static final String DUPLICATE_POLICY_HEADER = "X-Duplicate-Policy";
+
     private final DocumentService documentService;
+    private final RangedContentWriter rangedContentWriter;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, RangedContentWriter rangedContentWriter) {
         this.documentService = documentService;
+        this.rangedContentWriter = rangedContentWriter;
     }
 
     @PostMapping("/upload")
@@ -45,8 +74,66 @@ public class DocumentController {
         @RequestParam("caseId") Long caseId,
         @RequestParam("file") MultipartFile file
     ) {
-        DocumentResponse response = documentService.uploadDocument(title, type, caseId, file);
-        return ResponseEntity.status(201).body(response);
+        UploadOutcome outcome = documentService.uploadDocument(title, type, caseId, file);
+        return uploaded(outcome);
+    }
+
+    @PostMapping("/upload/batch")
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<List<BatchUploadResult>> uploadBatch(
+        @RequestParam("type") DocumentType type,
+        @RequestParam("caseId") Long caseId,
+        @RequestParam("files") List<MultipartFile> files,
+        @RequestParam(value = "titles", required = false) List<String> titles
+    ) {
+        List<BatchUploadResult> results = documentService.uploadDocuments(type, caseId, files, titles);
+        // 207 tells the client to look at each entry, since some files may have been rejected
+        boolean allStored = results.stream().allMatch(BatchUploadResult::success);
+        return ResponseEntity.status(allStored ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(results);
+    }
+
+    @PostMapping("/upload/stream")
+    @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','PROCUREMENT','ACCOUNTANT')")
+    public ResponseEntity<DocumentResponse> uploadStream(HttpServletRequest request) throws IOException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new IllegalArgumentException("Request must be multipart/form-data");
+        }
+        // Parts are read straight off the socket, so title, type and caseId must precede the file part
+        Map<String, String> fields = new HashMap<>();
+        try {
+            FileItemInputIterator items = new JakartaServletFileUpload<>().getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemInput item = items.next();
+                if (item.isFormField()) {
+                    try (InputStream in = item.getInputStream()) {
+                        // One byte past the limit tells an over-long field apart from one that fits exactly
+                        byte[] value = in.readNBytes(MAX_FORM_FIELD_BYTES + 1);
+                        if (value.length > MAX_FORM_FIELD_BYTES) {
+                            throw new IllegalArgumentException(
+                                "Form field " + item.getFieldName() + " exceeds " + MAX_FORM_FIELD_BYTES + " bytes");
+                        }
+                        fields.put(item.getFieldName(), new String(value, StandardCharsets.UTF_8));
+                    }
+                    continue;
+                }
+                if (!"file".equals(item.getFieldName())) {
+                    continue;
+                }
+                try (InputStream in = item.getInputStream()) {
+                    UploadOutcome outcome = documentService.uploadDocument(
+                        fields.get("title"),
+                        fields.containsKey("type") ? DocumentType.valueOf(fields.get("type")) : null,
+                        fields.containsKey("caseId") ? Long.valueOf(fields.get("caseId")) : null,
+                        item.getName(),
+                        in
+                    );
+                    return uploaded(outcome);
+                }
+            }
+        } catch (FileUploadException ex) {
+            throw new FileStorageException("Malformed multipart request", ex);
+        }
+        throw new FileStorageException("File is empty");
     }
 
     @GetMapping
@@ -60,16 +147,40 @@ public class DocumentController {
         @RequestParam(value = "page", defaultValue = "0") int page,
         @RequestParam(value = "size", defaultValue = "20") int size
     ) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "uploadedAt"));
+        // Keyword searches are ranked by relevance; plain listings stay newest first
+        Pageable pageable = StringUtils.hasText(title)
+            ? PageRequest.of(page, size)
+            : PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "uploadedAt"));
         DocumentSearchCriteria criteria = DocumentSearchCriteria.of(status, type, uploadedAfter, uploadedBefore, caseId, title);
         Page<DocumentResponse> result = documentService.searchDocuments(criteria, pageable);
         return ResponseEntity.ok(PageResponse.from(result));
     }
 
+    // Cursor mode for deep listings; pass the previous page's nextCursor to continue
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorResponse<DocumentResponse>> searchByCursor(
+        @RequestParam(value = "status", required = false) DocumentStatus status,
+        @RequestParam(value = "type", required = false) DocumentType type,
+        @RequestParam(value = "uploadedAfter", required = false) Instant uploadedAfter,
+        @RequestParam(value = "uploadedBefore", required = false) Instant uploadedBefore,
+        @RequestParam(value = "caseId", required = false) Long caseId,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "size", defaultValue = "50") int size,
+        @RequestParam(value = "includeCount", defaultValue = "false") boolean includeCount
+    ) {
+        DocumentSearchCriteria criteria = DocumentSearchCriteria.of(status, type, uploadedAfter, uploadedBefore, caseId, null);
+        CursorResponse<DocumentResponse> result = documentService.searchDocuments(criteria, cursor, size, includeCount);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<DocumentResponse> getDocument(@PathVariable Long id) {
         DocumentResponse response = documentService.getDocument(id);
-        return ResponseEntity.ok(response);
+        // The framework answers If-None-Match with a 304 before the body is serialized
+        return ResponseEntity.ok()
+            .eTag(metadataTag(response))
+            .cacheControl(cacheControl(response.status()))
+            .body(response);
     }
 
     @GetMapping("/{id}/history")
@@ -79,47 +190,69 @@ public class DocumentController {
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> download(@PathVariable Long id) {
-        DocumentResponse document = documentService.getDocument(id);
-        Resource resource = documentService.download(id);
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + document.filePath().substring(document.filePath().lastIndexOf('/') + 1))
-            .contentType(MediaType.APPLICATION_OCTET_STREAM)
-            .body(resource);
+    public void download(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DocumentDownloadView document = documentService.getDownloadView(id);
+        // Stored bytes never change after upload, so the content hash is a strong validator for every status
+        RangedContentWriter.Validators validators = new RangedContentWriter.Validators(
+            document.getContentHash() == null ? null : "\"" + document.getContentHash() + "\"",
+            document.getUploadedAt(),
+            cacheControl(document.getStatus())
+        );
+        if (rangedContentWriter.notModified(request, response, validators)) {
+            return;
+        }
+        StoredContent content = documentService.openContent(document);
+        String filename = document.getFilePath().substring(document.getFilePath().lastIndexOf('/') + 1);
+        MediaType contentType = MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        rangedContentWriter.write(request, response, content, filename, contentType, validators);
     }
 
     @PutMapping("/{id}/approve")
     @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO')")
-    public ResponseEntity<DocumentResponse> approve(@PathVariable Long id) {
-        DocumentResponse response = documentService.approveDocument(id);
+    public ResponseEntity<DocumentResponse> approve(@PathVariable Long id, @RequestParam(value = "version", required = false) Long version) {
+        DocumentResponse response = documentService.approveDocument(id, version);
         return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}/reject")
     @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO')")
-    public ResponseEntity<DocumentResponse> reject(@PathVariable Long id, @Valid @RequestBody DocumentRejectionRequest request) {
-        DocumentResponse response = documentService.rejectDocument(id, request.reason());
+    public ResponseEntity<DocumentResponse> reject(
+        @PathVariable Long id,
+        @RequestParam(value = "version", required = false) Long version,
+        @Valid @RequestBody DocumentRejectionRequest request
+    ) {
+        DocumentResponse response = documentService.rejectDocument(id, request.reason(), version);
         return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}/submit")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<DocumentResponse> submit(@PathVariable Long id) {
-        DocumentResponse response = documentService.submitDocument(id);
+    public ResponseEntity<DocumentResponse> submit(@PathVariable Long id, @RequestParam(value = "version", required = false) Long version) {
+        DocumentResponse response = documentService.submitDocument(id, version);
         return ResponseEntity.ok(response);
     }
 
     @PutMapping("/{id}/start-review")
     @PreAuthorize("hasAnyRole('ADMIN','CEO','CFO','AUDITOR')")
-    public ResponseEntity<DocumentResponse> startReview(@PathVariable Long id) {
-        DocumentResponse response = documentService.startReview(id);
+    public ResponseEntity<DocumentResponse> startReview(@PathVariable Long id, @RequestParam(value = "version", required = false) Long version) {
+        DocumentResponse response = documentService.startReview(id, version);
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping("/transitions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<BulkTransitionResult>> transition(@Valid @RequestBody BulkTransitionRequest request) {
+        List<BulkTransitionResult> results = documentService.transitionDocuments(
+            request.documentIds(), request.targetStatus(), request.reason());
+        // Role checks for the target status happen in the service; 207 means some ids were skipped
+        boolean allApplied = results.stream().allMatch(BulkTransitionResult::success);
+        return ResponseEntity.status(allApplied ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(results);
+    }
+
     @PutMapping("/{id}/withdraw")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<DocumentResponse> withdraw(@PathVariable Long id) {
-        DocumentResponse response = documentService.withdrawDocument(id);
+    public ResponseEntity<DocumentResponse> withdraw(@PathVariable Long id, @RequestParam(value = "version", required = false) Long version) {
+        DocumentResponse response = documentService.withdrawDocument(id, version);
         return ResponseEntity.ok(response);
     }
 
@@ -133,4 +266,30 @@ public class DocumentController {
             .contentType(MediaType.TEXT_PLAIN)
             .body(receipt);
     }
+
+    // A linked upload created nothing, so it answers 200 with the existing document; the headers let clients
+    // spot a duplicate without changing the body they already parse
+    static ResponseEntity<DocumentResponse> uploaded(UploadOutcome outcome) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(outcome.linked() ? HttpStatus.OK : HttpStatus.CREATED);
+        if (outcome.duplicateOf() != null) {
+            builder.header(DUPLICATE_OF_HEADER, outcome.duplicateOf().toString());
+            builder.header(DUPLICATE_POLICY_HEADER, outcome.duplicatePolicy().name());
+        }
+        return builder.body(outcome.document());
+    }
+
+    // Approved and withdrawn documents are final; everything else must be revalidated on each use
+    private CacheControl cacheControl(DocumentStatus status) {
+        if (status == DocumentStatus.APPROVED || status == DocumentStatus.WITHDRAWN) {
+            return CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+        }
+        return CacheControl.noCache().cachePrivate();
+    }
+
+    // Every change to a document bumps its version, and the stored bytes never change, so id, version and content
+    // hash identify the representation without depending on how the response happens to print
+    private String metadataTag(DocumentResponse response) {
+        String tag = response.id() + "-" + response.version();
+        return "\"" + (response.contentHash() == null ? tag : tag + "-" + response.contentHash()) + "\"";
+    }
 }
@@ -0,0 +1,43 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.DocumentSearchCriteria;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Totals for cursor listings. An exact COUNT(*) over hundreds of thousands of rows is too expensive to repeat
+// for every page, and a listing that is being paged through does not need it to the row, so each filter's
+// count is reused until it expires.
+@Component
+class DocumentCountCache {
+
+    private record Entry(long count, long expiresAt) {
+    }
+
+    private static final int MAX_ENTRIES = 1000;
+
+    private final Map<DocumentSearchCriteria, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    DocumentCountCache(@Value("${documents.search.count-ttl:PT1M}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    long get(DocumentSearchCriteria criteria, Supplier<Long> counter) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(criteria);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.count();
+        }
+        long count = counter.get();
+        if (entries.size() >= MAX_ENTRIES) {
+            // Ad-hoc date ranges make the key space unbounded; starting over is cheaper than tracking usage
+            entries.clear();
+        }
+        entries.put(criteria, new Entry(count, now + ttlMillis));
+        return count;
+    }
+}
@@ -0,0 +1,37 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.DocumentResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+// Position in the uploadedAt DESC, id DESC listing: the last row a page ended on. Clients treat the encoded
+// form as opaque.
+record DocumentCursor(Instant uploadedAt, long id) {
+
+    static DocumentCursor of(DocumentResponse document) {
+        return new DocumentCursor(document.uploadedAt(), document.id());
+    }
+
+    String encode() {
+        String raw = uploadedAt.getEpochSecond() + "." + uploadedAt.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static DocumentCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new DocumentCursor(
+                Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                Long.parseLong(parts[2])
+            );
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
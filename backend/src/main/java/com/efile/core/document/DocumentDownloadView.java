@@ -0,0 +1,14 @@
+package com.efile.core.document;
+
+import java.time.Instant;
+
+public interface DocumentDownloadView {
+
+    String getFilePath();
+
+    String getContentHash();
+
+    DocumentStatus getStatus();
+
+    Instant getUploadedAt();
+}
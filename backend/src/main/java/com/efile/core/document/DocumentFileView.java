@@ -0,0 +1,12 @@
+package com.efile.core.document;
+
+public interface DocumentFileView {
+
+    Long getId();
+
+    String getFilePath();
+
+    String getContentHash();
+
+    long getFileSize();
+}
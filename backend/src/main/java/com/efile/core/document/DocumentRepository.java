@@ -1,18 +1,23 @@
 package com.efile.core.document;
 
 import com.efile.core.casemanagement.Case;
+import com.efile.core.user.User;
+import jakarta.persistence.LockModeType;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document> {
+public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document>, DocumentResponseRepository {
 
     Page<Document> findByStatus(DocumentStatus status, Pageable pageable);
 
@@ -35,4 +40,114 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSp
     List<Document> findByUploadedAtAfter(Instant date);
 
     List<Document> findByUploadedAtBetween(Instant startDate, Instant endDate);
+
+    List<DocumentFileView> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    Optional<DocumentFileView> findFileViewById(Long id);
+
+    Optional<DocumentDownloadView> findDownloadViewById(Long id);
+
+    // Both probes are served by idx_documents_case_hash
+    Optional<DocumentFileView> findFirstByCaseRefIdAndContentHashOrderByIdAsc(Long caseId, String contentHash);
+
+    List<DocumentFileView> findByCaseRefIdAndContentHashIn(Long caseId, Collection<String> contentHashes);
+
+    List<DocumentFileView> findByContentHashIsNullAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("""
+        SELECT new com.efile.core.document.CaseStatusCount(d.caseRef.id, d.status, COUNT(d))
+        FROM Document d
+        WHERE d.caseRef.id IN :caseIds
+        GROUP BY d.caseRef.id, d.status
+        """)
+    List<CaseStatusCount> countByCaseAndStatus(@Param("caseIds") Collection<Long> caseIds);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.contentHash = :hash WHERE d.id = :id AND d.contentHash IS NULL")
+    int fillContentHash(@Param("id") Long id, @Param("hash") String hash);
+
+    boolean existsByFilePath(String filePath);
+
+    @Query("SELECT d FROM Document d WHERE d.id > :afterId ORDER BY d.id")
+    List<Document> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Locks the rows so the conditional updates below cannot lose a race with a single-document transition
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.id IN :ids")
+    List<Document> findAllForTransition(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.status = :target, d.version = d.version + 1 WHERE d.id IN :ids AND d.status = :expected")
+    int transition(
+        @Param("ids") Collection<Long> ids,
+        @Param("expected") DocumentStatus expected,
+        @Param("target") DocumentStatus target
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE Document d SET d.status = :target, d.approvedBy = :approver, d.processedAt = :processedAt,
+            d.rejectionReason = :reason, d.version = d.version + 1
+        WHERE d.id IN :ids AND d.status = :expected
+        """)
+    int decide(
+        @Param("ids") Collection<Long> ids,
+        @Param("expected") DocumentStatus expected,
+        @Param("target") DocumentStatus target,
+        @Param("approver") User approver,
+        @Param("processedAt") Instant processedAt,
+        @Param("reason") String reason
+    );
+
+    @Modifying
+    @Query("UPDATE Document d SET d.status = :target, d.processedAt = :processedAt, d.version = d.version + 1 WHERE d.id IN :ids AND d.status = :expected")
+    int close(
+        @Param("ids") Collection<Long> ids,
+        @Param("expected") DocumentStatus expected,
+        @Param("target") DocumentStatus target,
+        @Param("processedAt") Instant processedAt
+    );
+
+    // Single-document variants that only apply while the row still has the status and version the caller read;
+    // 0 means someone else got there first
+    @Modifying
+    @Query("""
+        UPDATE Document d SET d.status = :target, d.version = d.version + 1
+        WHERE d.id = :id AND d.status = :expected AND d.version = :version
+        """)
+    int transitionIfUnchanged(
+        @Param("id") Long id,
+        @Param("expected") DocumentStatus expected,
+        @Param("version") long version,
+        @Param("target") DocumentStatus target
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE Document d SET d.status = :target, d.approvedBy = :approver, d.processedAt = :processedAt,
+            d.rejectionReason = :reason, d.version = d.version + 1
+        WHERE d.id = :id AND d.status = :expected AND d.version = :version
+        """)
+    int decideIfUnchanged(
+        @Param("id") Long id,
+        @Param("expected") DocumentStatus expected,
+        @Param("version") long version,
+        @Param("target") DocumentStatus target,
+        @Param("approver") User approver,
+        @Param("processedAt") Instant processedAt,
+        @Param("reason") String reason
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE Document d SET d.status = :target, d.processedAt = :processedAt, d.version = d.version + 1
+        WHERE d.id = :id AND d.status = :expected AND d.version = :version
+        """)
+    int closeIfUnchanged(
+        @Param("id") Long id,
+        @Param("expected") DocumentStatus expected,
+        @Param("version") long version,
+        @Param("target") DocumentStatus target,
+        @Param("processedAt") Instant processedAt
+    );
 }
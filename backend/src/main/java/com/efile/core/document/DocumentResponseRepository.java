@@ -0,0 +1,20 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.DocumentResponse;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+// Read paths that build DocumentResponse rows straight from one joined query, without loading entities
+public interface DocumentResponseRepository {
+
+    Page<DocumentResponse> findResponses(Specification<Document> specification, Pageable pageable);
+
+    List<DocumentResponse> findResponses(Specification<Document> specification, Sort sort, int limit);
+
+    // Rows come back in no particular order
+    List<DocumentResponse> findResponsesByIds(Collection<Long> ids);
+}
@@ -0,0 +1,103 @@
+package com.efile.core.document;
+
+import com.efile.core.casemanagement.Case;
+import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+class DocumentResponseRepositoryImpl implements DocumentResponseRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<DocumentResponse> findResponses(Specification<Document> specification, Pageable pageable) {
+        TypedQuery<DocumentResponse> query = entityManager.createQuery(select(specification, pageable.getSort()));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // The count only runs when the page itself cannot tell the total
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<DocumentResponse> findResponses(Specification<Document> specification, Sort sort, int limit) {
+        return entityManager.createQuery(select(specification, sort)).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<DocumentResponse> findResponsesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Specification<Document> byId = (root, query, cb) -> root.get("id").in(ids);
+        return entityManager.createQuery(select(byId, Sort.unsorted())).getResultList();
+    }
+
+    private CriteriaQuery<DocumentResponse> select(Specification<Document> specification, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentResponse> query = cb.createQuery(DocumentResponse.class);
+        Root<Document> root = query.from(Document.class);
+        // Left joins, so the projection matches toResponse for rows whose associations are missing
+        Join<Document, Case> caseRef = root.join("caseRef", JoinType.LEFT);
+        Join<Document, User> uploadedBy = root.join("uploadedBy", JoinType.LEFT);
+        Join<Document, User> approvedBy = root.join("approvedBy", JoinType.LEFT);
+        query.select(cb.construct(
+            DocumentResponse.class,
+            root.get("id"),
+            root.get("title"),
+            root.get("type"),
+            root.get("status"),
+            caseRef.get("id"),
+            caseRef.get("title"),
+            uploadedBy.get("id"),
+            uploadedBy.get("name"),
+            approvedBy.get("id"),
+            approvedBy.get("name"),
+            root.get("fileSize"),
+            root.get("filePath"),
+            root.get("receiptNumber"),
+            root.get("uploadedAt"),
+            root.get("processedAt"),
+            root.get("contentHash"),
+            root.get("version")
+        ));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return query;
+    }
+
+    private long count(Specification<Document> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Document> root = query.from(Document.class);
+        query.select(cb.count(root));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,47 @@
+package com.efile.core.document;
+
+import com.efile.core.document.dto.DocumentRouteRequest;
+import com.efile.core.document.dto.DocumentRouteResponse;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/document-routes")
+public class DocumentRouteController {
+
+    private final DocumentRoutingTable routingTable;
+
+    public DocumentRouteController(DocumentRoutingTable routingTable) {
+        this.routingTable = routingTable;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<List<DocumentRouteResponse>> getRoutes() {
+        return ResponseEntity.ok(routingTable.listRoutes());
+    }
+
+    @PutMapping("/{type}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> setRoute(@PathVariable DocumentType type, @Valid @RequestBody DocumentRouteRequest request) {
+        routingTable.setRoute(type, request.departmentId());
+        return ResponseEntity.noContent().build();
+    }
+
+    // Removes the override, so the type goes back to its built-in department
+    @DeleteMapping("/{type}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> clearRoute(@PathVariable DocumentType type) {
+        routingTable.clearRoute(type);
+        return ResponseEntity.noContent().build();
+    }
+}
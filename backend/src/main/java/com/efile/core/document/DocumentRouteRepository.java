@@ -0,0 +1,6 @@
+package com.efile.core.document;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DocumentRouteRepository extends JpaRepository<DocumentRoute, DocumentType> {
+}
@@ -0,0 +1,172 @@
+package com.efile.core.document;
+
+import com.efile.core.department.Department;
+import com.efile.core.department.DepartmentChangedEvent;
+import com.efile.core.department.DepartmentRepository;
+import com.efile.core.document.dto.DocumentRouteResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Document type -> department routes, held in an immutable snapshot so submissions resolve their department
+// without touching the database. Types without an override go to their built-in department; types with
+// neither fall back to the uploader's department. The snapshot is rebuilt and swapped in one step after a
+// department or route change commits, so readers never see a half-applied change.
+@Component
+public class DocumentRoutingTable {
+
+    public record Route(Long departmentId, String departmentName, boolean hasHead) {
+    }
+
+    private record Snapshot(Map<DocumentType, Route> byType, Map<Long, Route> byDepartment, Set<DocumentType> overridden) {
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentRoutingTable.class);
+    private static final Map<DocumentType, String> DEFAULT_DEPARTMENTS = Map.of(
+        DocumentType.FINANCIAL_REPORT, "Finance",
+        DocumentType.PROCUREMENT_BID, "Finance",
+        DocumentType.INVESTMENT_REPORT, "Finance",
+        DocumentType.LEGAL_DOCUMENT, "Legal",
+        DocumentType.AUDIT_REPORT, "Audit"
+    );
+
+    private final DepartmentRepository departmentRepository;
+    private final DocumentRouteRepository routeRepository;
+    private final TransactionTemplate loadTransaction;
+    private volatile Snapshot snapshot;
+
+    public DocumentRoutingTable(
+        DepartmentRepository departmentRepository,
+        DocumentRouteRepository routeRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.departmentRepository = departmentRepository;
+        this.routeRepository = routeRepository;
+        // Reloads run after the triggering transaction has committed, so they read in a fresh one
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+    }
+
+    public Optional<Route> forType(DocumentType type) {
+        return Optional.ofNullable(current().byType().get(type));
+    }
+
+    public Optional<Route> forDepartment(Long departmentId) {
+        return departmentId == null ? Optional.empty() : Optional.ofNullable(current().byDepartment().get(departmentId));
+    }
+
+    public List<DocumentRouteResponse> listRoutes() {
+        Snapshot current = current();
+        List<DocumentRouteResponse> routes = new ArrayList<>();
+        for (DocumentType type : DocumentType.values()) {
+            Route route = current.byType().get(type);
+            routes.add(new DocumentRouteResponse(
+                type,
+                route == null ? null : route.departmentId(),
+                route == null ? null : route.departmentName(),
+                current.overridden().contains(type)
+            ));
+        }
+        return routes;
+    }
+
+    @Transactional
+    public void setRoute(DocumentType type, Long departmentId) {
+        Department department = departmentRepository.findById(departmentId)
+            .orElseThrow(() -> new IllegalArgumentException("Department not found"));
+        DocumentRoute route = routeRepository.findById(type).orElseGet(DocumentRoute::new);
+        route.setDocumentType(type);
+        route.setDepartment(department);
+        routeRepository.save(route);
+        reloadAfterCommit();
+    }
+
+    @Transactional
+    public void clearRoute(DocumentType type) {
+        routeRepository.deleteById(type);
+        reloadAfterCommit();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentChanged(DepartmentChangedEvent event) {
+        reload();
+    }
+
+    // Serialized so the last reload to finish is also the last to read, and an older snapshot never wins
+    public synchronized void reload() {
+        snapshot = loadTransaction.execute(status -> {
+            Map<Long, Route> byDepartment = new HashMap<>();
+            Map<String, Route> byName = new HashMap<>();
+            for (Department department : departmentRepository.findAll()) {
+                // The head is a lazy to-one, so checking it for null does not load the user
+                Route route = new Route(department.getId(), department.getName(), department.getHead() != null);
+                byDepartment.put(department.getId(), route);
+                byName.put(department.getName().toLowerCase(Locale.ROOT), route);
+            }
+            Map<DocumentType, Route> byType = new EnumMap<>(DocumentType.class);
+            DEFAULT_DEPARTMENTS.forEach((type, name) -> {
+                Route route = byName.get(name.toLowerCase(Locale.ROOT));
+                if (route != null) {
+                    byType.put(type, route);
+                }
+            });
+            Set<DocumentType> overridden = EnumSet.noneOf(DocumentType.class);
+            for (DocumentRoute override : routeRepository.findAll()) {
+                Route route = byDepartment.get(override.getDepartment().getId());
+                if (route != null) {
+                    byType.put(override.getDocumentType(), route);
+                    overridden.add(override.getDocumentType());
+                }
+            }
+            return new Snapshot(
+                Collections.unmodifiableMap(byType),
+                Map.copyOf(byDepartment),
+                Collections.unmodifiableSet(overridden)
+            );
+        });
+        logger.debug("Loaded document routes for {} types", snapshot.byType().size());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+}
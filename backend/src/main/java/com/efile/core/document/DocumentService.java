@@ -2,201 +2,570 @@ package com.efile.core.document;
 
 import com.efile.core.casemanagement.Case;
 import com.efile.core.casemanagement.CaseRepository;
+import com.efile.core.common.CursorResponse;
 import com.efile.core.department.Department;
-import com.efile.core.department.DepartmentRepository;
+import com.efile.core.document.dto.BatchUploadResult;
+import com.efile.core.document.dto.BulkTransitionResult;
 import com.efile.core.document.dto.DocumentHistoryResponse;
 import com.efile.core.document.dto.DocumentResponse;
 import com.efile.core.document.dto.DocumentSearchCriteria;
+import com.efile.core.document.dto.UploadOutcome;
+import com.efile.core.extraction.TextExtractionService;
+import com.efile.core.search.SearchIndex;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.security.CurrentUserProvider;
+import com.efile.core.storage.FileStorageException;
 import com.efile.core.storage.FileStorageService;
+import com.efile.core.storage.StagedFile;
+import com.efile.core.storage.StoredContent;
+import com.efile.core.storage.StoredFile;
 import com.efile.core.user.User;
-import com.efile.core.user.UserRepository;
 import com.efile.core.user.UserRole;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
 public class DocumentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
+    private static final int MAX_BATCH_FILES = 100;
+    private static final int BATCH_STAGING_PARALLELISM = 8;
+    private static final int MAX_BULK_TRANSITIONS = 500;
+    private static final int MAX_CURSOR_PAGE_SIZE = 200;
+    private static final Sort CURSOR_ORDER = Sort.by(Sort.Order.desc("uploadedAt"), Sort.Order.desc("id"));
+
     private final DocumentRepository documentRepository;
     private final DocumentStatusHistoryRepository historyRepository;
     private final CaseRepository caseRepository;
-    private final UserRepository userRepository;
-    private final DepartmentRepository departmentRepository;
+    private final CurrentUserProvider currentUserProvider;
+    private final DocumentRoutingTable routingTable;
     private final FileStorageService fileStorageService;
+    private final ReceiptNumberGenerator receiptNumberGenerator;
+    private final SearchIndexer searchIndexer;
+    private final TextExtractionService textExtractionService;
+    private final DocumentCountCache countCache;
+    private final DuplicatePolicyProperties duplicatePolicies;
+    private final CaseDocumentCounters counters;
+    private final TransactionTemplate transactionTemplate;
 
     public DocumentService(
         DocumentRepository documentRepository,
         DocumentStatusHistoryRepository historyRepository,
         CaseRepository caseRepository,
-        UserRepository userRepository,
-        DepartmentRepository departmentRepository,
-        FileStorageService fileStorageService
+        CurrentUserProvider currentUserProvider,
+        DocumentRoutingTable routingTable,
+        FileStorageService fileStorageService,
+        ReceiptNumberGenerator receiptNumberGenerator,
+        SearchIndexer searchIndexer,
+        TextExtractionService textExtractionService,
+        DocumentCountCache countCache,
+        DuplicatePolicyProperties duplicatePolicies,
+        CaseDocumentCounters counters,
+        PlatformTransactionManager transactionManager
     ) {
         this.documentRepository = documentRepository;
         this.historyRepository = historyRepository;
         this.caseRepository = caseRepository;
-        this.userRepository = userRepository;
-        this.departmentRepository = departmentRepository;
+        this.currentUserProvider = currentUserProvider;
+        this.routingTable = routingTable;
         this.fileStorageService = fileStorageService;
+        this.receiptNumberGenerator = receiptNumberGenerator;
+        this.searchIndexer = searchIndexer;
+        this.textExtractionService = textExtractionService;
+        this.countCache = countCache;
+        this.duplicatePolicies = duplicatePolicies;
+        this.counters = counters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional
-    public DocumentResponse uploadDocument(String title, DocumentType type, Long caseId, MultipartFile file) {
+    public UploadOutcome uploadDocument(String title, DocumentType type, Long caseId, MultipartFile file) {
+        Case caseEntity = validateUpload(title, type, caseId);
+        User uploader = currentUser();
+        StagedFile staged = fileStorageService.stage(file);
+        try {
+            return registerUpload(title, type, caseEntity, uploader, staged);
+        } finally {
+            fileStorageService.discard(staged);
+        }
+    }
+
+    public UploadOutcome uploadDocument(String title, DocumentType type, Long caseId, String originalFilename, InputStream content) {
+        // Everything that can be rejected without the file body is checked before a single byte is written
+        Case caseEntity = validateUpload(title, type, caseId);
+        User uploader = currentUser();
+        // The body is streamed outside any transaction so a slow client does not pin a pooled connection
+        StagedFile staged = fileStorageService.stage(content, originalFilename);
+        try {
+            return transactionTemplate.execute(status -> registerUpload(title, type, caseEntity, uploader, staged));
+        } finally {
+            fileStorageService.discard(staged);
+        }
+    }
+
+    @Transactional
+    public UploadOutcome uploadDocument(String title, DocumentType type, Long caseId, StagedFile staged) {
+        Case caseEntity = validateUpload(title, type, caseId);
+        User uploader = currentUser();
+        return registerUpload(title, type, caseEntity, uploader, staged);
+    }
+
+    // Files are staged in parallel outside any transaction; the commit phase then writes every document and
+    // history row in one transaction so Hibernate can send them as JDBC batches
+    public List<BatchUploadResult> uploadDocuments(DocumentType type, Long caseId, List<MultipartFile> files, List<String> titles) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("At least one file is required");
+        }
+        if (files.size() > MAX_BATCH_FILES) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_BATCH_FILES + " files");
+        }
+        if (titles != null && !titles.isEmpty() && titles.size() != files.size()) {
+            throw new IllegalArgumentException("Titles must be given for every file or for none");
+        }
+        Case caseEntity = validateTarget(type, caseId);
+        User uploader = currentUser();
+
+        int count = files.size();
+        String[] resolvedTitles = new String[count];
+        StagedFile[] staged = new StagedFile[count];
+        String[] errors = new String[count];
+        Semaphore permits = new Semaphore(BATCH_STAGING_PARALLELISM);
+        try {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < count; i++) {
+                    int index = i;
+                    MultipartFile file = files.get(index);
+                    resolvedTitles[index] = titles == null || titles.isEmpty() ? defaultTitle(file.getOriginalFilename()) : titles.get(index);
+                    if (!StringUtils.hasText(resolvedTitles[index])) {
+                        errors[index] = "Title is required";
+                        continue;
+                    }
+                    executor.execute(() -> {
+                        permits.acquireUninterruptibly();
+                        try (InputStream in = file.getInputStream()) {
+                            staged[index] = fileStorageService.stage(in, file.getOriginalFilename());
+                        } catch (FileStorageException ex) {
+                            errors[index] = ex.getMessage();
+                        } catch (IOException ex) {
+                            errors[index] = "Failed to read file";
+                        } catch (RuntimeException ex) {
+                            // Anything else would otherwise leave the file with neither a staged copy nor a reason
+                            logger.warn("Failed to stage batch file {}", file.getOriginalFilename(), ex);
+                            errors[index] = ex.getMessage() != null ? ex.getMessage() : "Failed to store file";
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+            return transactionTemplate.execute(status -> {
+                // One probe covers every digest in the batch; a file repeating an earlier one in the same batch
+                // is treated like a duplicate of the document that earlier file becomes
+                DuplicatePolicy policy = duplicatePolicies.policyFor(type);
+                Set<String> digests = Arrays.stream(staged).filter(Objects::nonNull).map(StagedFile::digest).collect(Collectors.toSet());
+                Map<String, Long> existing = digests.isEmpty() ? Map.of() : documentRepository
+                    .findByCaseRefIdAndContentHashIn(caseId, digests)
+                    .stream()
+                    .collect(Collectors.toMap(DocumentFileView::getContentHash, DocumentFileView::getId, Math::min));
+                Map<String, Integer> firstInBatch = new HashMap<>();
+                Long[] duplicateOf = new Long[count];
+                int[] twinOf = new int[count];
+                Arrays.fill(twinOf, -1);
+                boolean[] store = new boolean[count];
+                for (int i = 0; i < count; i++) {
+                    if (staged[i] == null) {
+                        continue;
+                    }
+                    Long existingId = existing.get(staged[i].digest());
+                    Integer twin = existingId == null ? firstInBatch.putIfAbsent(staged[i].digest(), i) : null;
+                    if (existingId == null && twin == null) {
+                        store[i] = true;
+                    } else if (policy == DuplicatePolicy.REJECT) {
+                        errors[i] = existingId != null
+                            ? duplicateMessage(existingId)
+                            : "This file repeats " + files.get(twin).getOriginalFilename() + " in the same batch";
+                    } else {
+                        store[i] = policy == DuplicatePolicy.WARN;
+                        duplicateOf[i] = existingId;
+                        twinOf[i] = twin == null ? -1 : twin;
+                    }
+                }
+
+                // A failure while committing is an infrastructure error, so it rolls back the whole batch
+                List<Document> documents = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    if (store[i]) {
+                        StoredFile stored = fileStorageService.commit(staged[i], caseId);
+                        documents.add(newDocument(resolvedTitles[i], type, caseEntity, uploader, stored));
+                    }
+                }
+                List<Document> saved = documentRepository.saveAll(documents);
+                counters.added(caseId, DocumentStatus.DRAFT, saved.size());
+                textExtractionService.schedule(saved);
+                historyRepository.saveAll(saved.stream()
+                    .map(document -> newHistory(document, DocumentStatus.DRAFT, "Document uploaded as draft"))
+                    .toList());
+
+                DocumentResponse[] responses = new DocumentResponse[count];
+                int next = 0;
+                for (int i = 0; i < count; i++) {
+                    if (store[i]) {
+                        responses[i] = toResponse(saved.get(next++));
+                    }
+                }
+                List<Long> linkedIds = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    if (twinOf[i] >= 0) {
+                        duplicateOf[i] = responses[twinOf[i]].id();
+                    } else if (duplicateOf[i] != null && !store[i]) {
+                        linkedIds.add(duplicateOf[i]);
+                    }
+                }
+                Map<Long, DocumentResponse> linked = linkedIds.isEmpty() ? Map.of() : documentRepository
+                    .findResponsesByIds(linkedIds)
+                    .stream()
+                    .collect(Collectors.toMap(DocumentResponse::id, response -> response));
+
+                List<BatchUploadResult> results = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String filename = files.get(i).getOriginalFilename();
+                    if (store[i]) {
+                        results.add(new BatchUploadResult(filename, true, responses[i], null, duplicateOf[i]));
+                    } else if (duplicateOf[i] != null) {
+                        DocumentResponse target = twinOf[i] >= 0 ? responses[twinOf[i]] : linked.get(duplicateOf[i]);
+                        results.add(new BatchUploadResult(filename, true, target, null, duplicateOf[i]));
+                    } else {
+                        results.add(new BatchUploadResult(filename, false, null, errors[i], null));
+                    }
+                }
+                return results;
+            });
+        } finally {
+            for (StagedFile file : staged) {
+                if (file != null) {
+                    fileStorageService.discard(file);
+                }
+            }
+        }
+    }
+
+    private String defaultTitle(String originalFilename) {
+        String filename = StringUtils.getFilename(StringUtils.cleanPath(originalFilename == null ? "" : originalFilename));
+        return filename == null ? null : StringUtils.stripFilenameExtension(filename);
+    }
+
+    Case validateUpload(String title, DocumentType type, Long caseId) {
         if (!StringUtils.hasText(title)) {
             throw new IllegalArgumentException("Title is required");
         }
+        return validateTarget(type, caseId);
+    }
+
+    private Case validateTarget(DocumentType type, Long caseId) {
         if (type == null) {
             throw new IllegalArgumentException("Document type is required");
         }
         if (caseId == null) {
             throw new IllegalArgumentException("Case is required");
         }
-        Case caseEntity = caseRepository.findById(caseId).orElseThrow(() -> new IllegalArgumentException("Case not found"));
-        User uploader = currentUser();
-        String storedPath = fileStorageService.store(file, caseId);
+        return caseRepository.findById(caseId).orElseThrow(() -> new IllegalArgumentException("Case not found"));
+    }
+
+    // The digest was computed while the file was staged, so the duplicate check is a single index probe made
+    // before anything is published. It is advisory: two identical uploads racing each other can both get through.
+    private UploadOutcome registerUpload(String title, DocumentType type, Case caseEntity, User uploader, StagedFile staged) {
+        Long duplicateId = documentRepository
+            .findFirstByCaseRefIdAndContentHashOrderByIdAsc(caseEntity.getId(), staged.digest())
+            .map(DocumentFileView::getId)
+            .orElse(null);
+        DuplicatePolicy policy = duplicateId == null ? null : duplicatePolicies.policyFor(type);
+        if (policy == DuplicatePolicy.REJECT) {
+            throw new DocumentConflictException(duplicateMessage(duplicateId));
+        }
+        if (policy == DuplicatePolicy.LINK) {
+            DocumentResponse existing = documentRepository.findResponsesByIds(List.of(duplicateId)).getFirst();
+            return new UploadOutcome(existing, duplicateId, policy);
+        }
+        StoredFile stored = fileStorageService.commit(staged, caseEntity.getId());
+        Document saved = documentRepository.save(newDocument(title, type, caseEntity, uploader, stored));
+        counters.added(caseEntity.getId(), DocumentStatus.DRAFT, 1);
+        recordHistory(saved, DocumentStatus.DRAFT, "Document uploaded as draft");
+        textExtractionService.schedule(List.of(saved));
+        return new UploadOutcome(toResponse(saved), duplicateId, policy);
+    }
+
+    private String duplicateMessage(Long existingId) {
+        return "This file was already uploaded to the case as document " + existingId;
+    }
+
+    private Document newDocument(String title, DocumentType type, Case caseEntity, User uploader, StoredFile stored) {
         Document document = new Document();
         document.setTitle(title);
         document.setType(type);
-        document.setFilePath(storedPath);
-        document.setFileSize(file.getSize());
+        document.setFilePath(stored.path());
+        document.setFileSize(stored.size());
+        document.setContentHash(stored.digest());
         document.setStatus(DocumentStatus.DRAFT);
         document.setCaseRef(caseEntity);
         document.setUploadedBy(uploader);
-        document.setReceiptNumber(generateReceiptNumber());
-        Document saved = documentRepository.save(document);
-        recordHistory(saved, DocumentStatus.DRAFT, "Document uploaded as draft");
-        return toResponse(saved);
+        document.setReceiptNumber(receiptNumberGenerator.next());
+        return document;
     }
 
+    // Single-document transitions read one joined row, check the move against the state machine and then
+    // write it with an UPDATE conditioned on the status and version that were read. A concurrent change makes
+    // that UPDATE match nothing and surfaces as a conflict instead of being silently overwritten. expectedVersion,
+    // when given, is the version the caller last saw.
     @Transactional
-    public DocumentResponse approveDocument(Long documentId) {
-        Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
-        if (document.getStatus() == DocumentStatus.APPROVED) {
-            return toResponse(document);
+    public DocumentResponse approveDocument(Long documentId, Long expectedVersion) {
+        DocumentResponse document = loadForTransition(documentId, expectedVersion);
+        if (document.status() == DocumentStatus.APPROVED) {
+            return document;
         }
-        validateStatusTransition(document.getStatus(), DocumentStatus.APPROVED);
+        DocumentStateMachine.check(document.status(), DocumentStatus.APPROVED);
         User approver = currentUser();
         ensureApproverRole(approver.getRole());
-        document.setStatus(DocumentStatus.APPROVED);
-        document.setApprovedBy(approver);
-        document.setProcessedAt(Instant.now());
-        document.setRejectionReason(null);
-        Document saved = documentRepository.save(document);
-        recordHistory(saved, DocumentStatus.APPROVED, "Approved by " + approver.getName());
-        return toResponse(saved);
+        return applyTransition(document, DocumentStatus.APPROVED, approver, null, "Approved by " + approver.getName());
     }
 
     @Transactional
-    public DocumentResponse rejectDocument(Long documentId, String reason) {
+    public DocumentResponse rejectDocument(Long documentId, String reason, Long expectedVersion) {
         if (!StringUtils.hasText(reason) || reason.length() < 10) {
             throw new IllegalArgumentException("Rejection reason must be at least 10 characters");
         }
-        Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
-        validateStatusTransition(document.getStatus(), DocumentStatus.REJECTED);
+        DocumentResponse document = loadForTransition(documentId, expectedVersion);
+        DocumentStateMachine.check(document.status(), DocumentStatus.REJECTED);
         User approver = currentUser();
         ensureApproverRole(approver.getRole());
-        document.setStatus(DocumentStatus.REJECTED);
-        document.setApprovedBy(approver);
-        document.setProcessedAt(Instant.now());
-        document.setRejectionReason(reason);
-        Document saved = documentRepository.save(document);
-        recordHistory(saved, DocumentStatus.REJECTED, reason);
-        return toResponse(saved);
+        return applyTransition(document, DocumentStatus.REJECTED, approver, reason, reason);
     }
 
     @Transactional
-    public DocumentResponse submitDocument(Long documentId) {
-        Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
-        validateStatusTransition(document.getStatus(), DocumentStatus.SUBMITTED);
-        ensureCanSubmit(document);
-        
+    public DocumentResponse submitDocument(Long documentId, Long expectedVersion) {
+        DocumentResponse document = loadForTransition(documentId, expectedVersion);
+        DocumentStateMachine.check(document.status(), DocumentStatus.SUBMITTED);
+        User user = currentUser();
+        ensureUploaderOrAdmin(document.uploadedById(), user, "submit");
+
         // Route document based on department and document type
-        routeDocument(document);
-        
-        document.setStatus(DocumentStatus.SUBMITTED);
-        Document saved = documentRepository.save(document);
-        recordHistory(saved, DocumentStatus.SUBMITTED, "Document submitted for review and routed to " + getTargetDepartment(document).getName());
-        return toResponse(saved);
+        DocumentRoutingTable.Route route = getTargetDepartment(document.type(), document.uploadedById(),
+            () -> documentRepository.getReferenceById(document.id()).getUploadedBy());
+        if (route.hasHead()) {
+            // The routing is recorded in history; assignments to the department head are not modelled yet
+            historyRepository.save(newHistory(documentRepository.getReferenceById(document.id()), document.status(),
+                "Document routed to " + route.departmentName() + " department"));
+        }
+        return applyTransition(document, DocumentStatus.SUBMITTED, user, null,
+            "Document submitted for review and routed to " + route.departmentName());
     }
 
     @Transactional
-    public DocumentResponse startReview(Long documentId) {
-        Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
-        validateStatusTransition(document.getStatus(), DocumentStatus.UNDER_REVIEW);
-        ensureReviewerRole(currentUser().getRole());
-        document.setStatus(DocumentStatus.UNDER_REVIEW);
-        Document saved = documentRepository.save(document);
-        recordHistory(saved, DocumentStatus.UNDER_REVIEW, "Review started by " + currentUser().getName());
-        return toResponse(saved);
+    public DocumentResponse startReview(Long documentId, Long expectedVersion) {
+        DocumentResponse document = loadForTransition(documentId, expectedVersion);
+        DocumentStateMachine.check(document.status(), DocumentStatus.UNDER_REVIEW);
+        User reviewer = currentUser();
+        ensureReviewerRole(reviewer.getRole());
+        return applyTransition(document, DocumentStatus.UNDER_REVIEW, reviewer, null, "Review started by " + reviewer.getName());
     }
 
     @Transactional
-    public DocumentResponse withdrawDocument(Long documentId) {
-        Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
-        validateStatusTransition(document.getStatus(), DocumentStatus.WITHDRAWN);
-        ensureCanWithdraw(document);
-        document.setStatus(DocumentStatus.WITHDRAWN);
-        document.setProcessedAt(Instant.now());
-        Document saved = documentRepository.save(document);
-        recordHistory(saved, DocumentStatus.WITHDRAWN, "Document withdrawn by " + currentUser().getName());
-        return toResponse(saved);
-    }
-
-    private void validateStatusTransition(DocumentStatus currentStatus, DocumentStatus newStatus) {
-        switch (currentStatus) {
-            case DRAFT:
-                if (newStatus != DocumentStatus.SUBMITTED && newStatus != DocumentStatus.WITHDRAWN) {
-                    throw new IllegalStateException("Draft documents can only be submitted or withdrawn");
+    public DocumentResponse withdrawDocument(Long documentId, Long expectedVersion) {
+        DocumentResponse document = loadForTransition(documentId, expectedVersion);
+        DocumentStateMachine.check(document.status(), DocumentStatus.WITHDRAWN);
+        User user = currentUser();
+        ensureUploaderOrAdmin(document.uploadedById(), user, "withdraw");
+        return applyTransition(document, DocumentStatus.WITHDRAWN, user, null, "Document withdrawn by " + user.getName());
+    }
+
+    private DocumentResponse loadForTransition(Long documentId, Long expectedVersion) {
+        DocumentResponse document = documentRepository.findResponsesByIds(List.of(documentId)).stream()
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Document not found"));
+        if (expectedVersion != null && expectedVersion != document.version()) {
+            throw new DocumentConflictException("Document has changed since version " + expectedVersion + ", reload and try again");
+        }
+        return document;
+    }
+
+    private DocumentResponse applyTransition(DocumentResponse document, DocumentStatus target, User actor, String reason, String comment) {
+        Instant now = Instant.now();
+        DocumentStateMachine.Effect effect = DocumentStateMachine.effect(target);
+        int updated = switch (effect) {
+            case DECISION -> documentRepository.decideIfUnchanged(
+                document.id(), document.status(), document.version(), target, actor, now, reason);
+            case CLOSE -> documentRepository.closeIfUnchanged(document.id(), document.status(), document.version(), target, now);
+            case STATUS_ONLY -> documentRepository.transitionIfUnchanged(document.id(), document.status(), document.version(), target);
+        };
+        if (updated == 0) {
+            throw new DocumentConflictException("Document was changed by someone else, reload and try again");
+        }
+        counters.moved(document.caseId(), document.status(), target);
+        // A reference is enough for the history row's foreign key, so the document is never loaded
+        historyRepository.save(newHistory(documentRepository.getReferenceById(document.id()), target, comment));
+        DocumentResponse transitioned = new DocumentResponse(
+            document.id(),
+            document.title(),
+            document.type(),
+            target,
+            document.caseId(),
+            document.caseTitle(),
+            document.uploadedById(),
+            document.uploadedByName(),
+            effect == DocumentStateMachine.Effect.DECISION ? actor.getId() : document.approvedById(),
+            effect == DocumentStateMachine.Effect.DECISION ? actor.getName() : document.approvedByName(),
+            document.fileSize(),
+            document.filePath(),
+            document.receiptNumber(),
+            document.uploadedAt(),
+            effect == DocumentStateMachine.Effect.STATUS_ONLY ? document.processedAt() : now,
+            document.contentHash(),
+            document.version() + 1
+        );
+        // The response carries every indexed field, so the entry is built without reading the row back
+        searchIndexer.documentChangedAfterCommit(transitioned);
+        return transitioned;
+    }
+
+    // Moves many documents to one status. Each id is checked against the same rules as the single-document
+    // endpoints; the eligible ones are then moved with one conditional UPDATE per current status and their
+    // history rows are inserted in batches, so a large queue costs a handful of statements instead of one
+    // round-trip per document.
+    @Transactional
+    public List<BulkTransitionResult> transitionDocuments(List<Long> documentIds, DocumentStatus target, String reason) {
+        Set<Long> ids = new LinkedHashSet<>(documentIds);
+        if (ids.size() > MAX_BULK_TRANSITIONS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_TRANSITIONS + " documents can be transitioned at once");
+        }
+        User user = currentUser();
+        switch (target) {
+            case APPROVED -> ensureApproverRole(user.getRole());
+            case REJECTED -> {
+                if (!StringUtils.hasText(reason) || reason.length() < 10) {
+                    throw new IllegalArgumentException("Rejection reason must be at least 10 characters");
                 }
-                break;
-            case SUBMITTED:
-                if (newStatus != DocumentStatus.UNDER_REVIEW && newStatus != DocumentStatus.WITHDRAWN) {
-                    throw new IllegalStateException("Submitted documents can only be moved to review or withdrawn");
+                ensureApproverRole(user.getRole());
+            }
+            case UNDER_REVIEW -> ensureReviewerRole(user.getRole());
+            case SUBMITTED, WITHDRAWN -> {
+                // Ownership is checked per document below
+            }
+            default -> throw new IllegalArgumentException("Documents cannot be moved to " + target + " in bulk");
+        }
+
+        Map<Long, Document> documents = documentRepository.findAllForTransition(ids).stream()
+            .collect(Collectors.toMap(Document::getId, document -> document));
+        Map<Long, String> errors = new HashMap<>();
+        Map<DocumentStatus, List<Document>> eligible = new EnumMap<>(DocumentStatus.class);
+        Map<Long, DocumentRoutingTable.Route> routes = new HashMap<>();
+        for (Long id : ids) {
+            Document document = documents.get(id);
+            if (document == null) {
+                errors.put(id, "Document not found");
+                continue;
+            }
+            if (target == DocumentStatus.APPROVED && document.getStatus() == DocumentStatus.APPROVED) {
+                // Same as approveDocument: approving twice is a no-op
+                continue;
+            }
+            try {
+                DocumentStateMachine.check(document.getStatus(), target);
+                if (target == DocumentStatus.SUBMITTED || target == DocumentStatus.WITHDRAWN) {
+                    ensureUploaderOrAdmin(document.getUploadedBy().getId(), user, target == DocumentStatus.SUBMITTED ? "submit" : "withdraw");
                 }
-                break;
-            case UNDER_REVIEW:
-                if (newStatus != DocumentStatus.APPROVED && newStatus != DocumentStatus.REJECTED) {
-                    throw new IllegalStateException("Documents under review can only be approved or rejected");
+                if (target == DocumentStatus.SUBMITTED) {
+                    routes.put(id, getTargetDepartment(document.getType(), document.getUploadedBy().getId(), document::getUploadedBy));
                 }
-                break;
-            case APPROVED:
-                throw new IllegalStateException("Approved documents cannot be changed");
-            case REJECTED:
-                if (newStatus != DocumentStatus.DRAFT && newStatus != DocumentStatus.WITHDRAWN) {
-                    throw new IllegalStateException("Rejected documents can only be edited (draft) or withdrawn");
+            } catch (IllegalStateException | IllegalArgumentException ex) {
+                errors.put(id, ex.getMessage());
+                continue;
+            }
+            eligible.computeIfAbsent(document.getStatus(), status -> new ArrayList<>()).add(document);
+        }
+
+        Instant now = Instant.now();
+        List<DocumentStatusHistory> histories = new ArrayList<>();
+        for (Map.Entry<DocumentStatus, List<Document>> group : eligible.entrySet()) {
+            List<Long> groupIds = group.getValue().stream().map(Document::getId).toList();
+            int updated = switch (DocumentStateMachine.effect(target)) {
+                case DECISION -> documentRepository.decide(groupIds, group.getKey(), target, user, now,
+                    target == DocumentStatus.REJECTED ? reason : null);
+                case CLOSE -> documentRepository.close(groupIds, group.getKey(), target, now);
+                case STATUS_ONLY -> documentRepository.transition(groupIds, group.getKey(), target);
+            };
+            if (updated != groupIds.size()) {
+                // The rows are locked, so a mismatch means something bypassed the lock; roll back rather than guess
+                throw new IllegalStateException("Documents changed during bulk transition, please retry");
+            }
+            for (Document document : group.getValue()) {
+                counters.moved(document.getCaseRef().getId(), group.getKey(), target);
+                searchIndexer.statusChangedAfterCommit(document, target);
+                // The bulk UPDATE bypasses the loaded entities, so getStatus() still reports the previous status here
+                switch (target) {
+                    case APPROVED -> histories.add(newHistory(document, target, "Approved by " + user.getName()));
+                    case REJECTED -> histories.add(newHistory(document, target, reason));
+                    case UNDER_REVIEW -> histories.add(newHistory(document, target, "Review started by " + user.getName()));
+                    case WITHDRAWN -> histories.add(newHistory(document, target, "Document withdrawn by " + user.getName()));
+                    case SUBMITTED -> {
+                        DocumentRoutingTable.Route route = routes.get(document.getId());
+                        if (route.hasHead()) {
+                            histories.add(newHistory(document, document.getStatus(),
+                                "Document routed to " + route.departmentName() + " department"));
+                        }
+                        histories.add(newHistory(document, target, "Document submitted for review and routed to " + route.departmentName()));
+                    }
+                    default -> {
+                    }
                 }
-                break;
-            case WITHDRAWN:
-                throw new IllegalStateException("Withdrawn documents cannot be changed");
+            }
         }
-    }
+        historyRepository.saveAll(histories);
 
-    private void ensureCanSubmit(Document document) {
-        User currentUser = currentUser();
-        if (!document.getUploadedBy().getId().equals(currentUser.getId()) && 
-            currentUser.getRole() != UserRole.ADMIN) {
-            throw new IllegalStateException("Only document uploader or admin can submit document");
+        List<BulkTransitionResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String error = errors.get(id);
+            if (error == null) {
+                results.add(new BulkTransitionResult(id, true, target, null));
+            } else {
+                DocumentStatus status = Optional.ofNullable(documents.get(id)).map(Document::getStatus).orElse(null);
+                results.add(new BulkTransitionResult(id, false, status, error));
+            }
         }
+        return results;
     }
 
-    private void ensureCanWithdraw(Document document) {
-        User currentUser = currentUser();
-        if (!document.getUploadedBy().getId().equals(currentUser.getId()) && 
-            currentUser.getRole() != UserRole.ADMIN) {
-            throw new IllegalStateException("Only document uploader or admin can withdraw document");
+    private void ensureUploaderOrAdmin(Long uploadedById, User user, String action) {
+        if (!uploadedById.equals(user.getId()) && user.getRole() != UserRole.ADMIN) {
+            throw new IllegalStateException("Only document uploader or admin can " + action + " document");
         }
     }
 
@@ -206,42 +575,71 @@ public class DocumentService {
         }
     }
 
-    private void routeDocument(Document document) {
-        Department targetDepartment = getTargetDepartment(document);
-        // Assign document to department head for review
-        if (targetDepartment.getHead() != null) {
-            // In a real implementation, you might create assignments or notifications
-            // For now, we'll just record the routing in history
-            recordHistory(document, document.getStatus(), 
-                "Document routed to " + targetDepartment.getName() + " department");
-        }
+    // Route based on document type, falling back to the uploader's department; both come from the in-memory table
+    private DocumentRoutingTable.Route getTargetDepartment(DocumentType type, Long uploadedById, Supplier<User> uploader) {
+        return routingTable.forType(type)
+            .or(() -> routingTable.forDepartment(uploaderDepartmentId(uploadedById, uploader)))
+            .orElseThrow(() -> new IllegalArgumentException("No department to route " + type + " documents to"));
     }
 
-    private Department getTargetDepartment(Document document) {
-        // Route based on document type
-        switch (document.getType()) {
-            case FINANCIAL_REPORT:
-            case PROCUREMENT_BID:
-                return getDepartmentByName("Finance");
-            case LEGAL_DOCUMENT:
-                return getDepartmentByName("Legal");
-            case AUDIT_REPORT:
-                return getDepartmentByName("Audit");
-            case INVESTMENT_REPORT:
-                return getDepartmentByName("Finance");
-            default:
-                // Route to general department or user's department
-                return document.getUploadedBy().getDepartment();
-        }
+    private Long uploaderDepartmentId(Long uploadedById, Supplier<User> uploader) {
+        // The caller is usually the uploader and is already loaded with its department
+        User current = currentUser();
+        User user = uploadedById.equals(current.getId()) ? current : uploader.get();
+        return Optional.ofNullable(user.getDepartment()).map(Department::getId).orElse(null);
     }
 
-    private Department getDepartmentByName(String name) {
-        return departmentRepository.findByNameIgnoreCase(name)
-            .orElseThrow(() -> new IllegalArgumentException("Department not found: " + name));
+    @Transactional(readOnly = true)
+    public Page<DocumentResponse> searchDocuments(DocumentSearchCriteria criteria, Pageable pageable) {
+        if (criteria.titleKeyword().isPresent()) {
+            // Keyword searches go to the full-text index with the other criteria applied as index filters
+            SearchIndex.Hits hits = searchIndexer.searchDocuments(criteria.titleKeyword().get(), criteria, pageable);
+            Map<Long, DocumentResponse> found = documentRepository.findResponsesByIds(hits.ids()).stream()
+                .collect(Collectors.toMap(DocumentResponse::id, response -> response));
+            // Keep the index's ranking; rows deleted since they were indexed are skipped
+            List<DocumentResponse> content = hits.ids().stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+            return new PageImpl<>(content, pageable, hits.total());
+        }
+        return documentRepository.findResponses(toSpecification(criteria), pageable);
     }
 
+    // Keyset listing, newest first: each page seeks past the (uploadedAt, id) it was given instead of skipping
+    // OFFSET rows, and no COUNT(*) runs unless the caller asks for a total
     @Transactional(readOnly = true)
-    public Page<DocumentResponse> searchDocuments(DocumentSearchCriteria criteria, Pageable pageable) {
+    public CursorResponse<DocumentResponse> searchDocuments(DocumentSearchCriteria criteria, String cursor, int size, boolean includeCount) {
+        if (criteria.titleKeyword().isPresent()) {
+            throw new IllegalArgumentException("Keyword searches are ranked and cannot be paged by cursor");
+        }
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        Specification<Document> filters = toSpecification(criteria);
+        Specification<Document> specification = filters;
+        if (StringUtils.hasText(cursor)) {
+            DocumentCursor after = DocumentCursor.decode(cursor);
+            specification = specification.and((root, query, cb) -> cb.or(
+                cb.lessThan(root.get("uploadedAt"), after.uploadedAt()),
+                cb.and(cb.equal(root.get("uploadedAt"), after.uploadedAt()), cb.lessThan(root.get("id"), after.id()))
+            ));
+        }
+        // One extra row tells whether another page exists
+        List<DocumentResponse> rows = documentRepository.findResponses(specification, CURSOR_ORDER, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<DocumentResponse> page = hasNext ? rows.subList(0, size) : rows;
+        Long total = includeCount ? countCache.get(criteria, () -> documentRepository.count(filters)) : null;
+        return new CursorResponse<>(
+            page,
+            size,
+            hasNext,
+            hasNext ? DocumentCursor.of(page.get(page.size() - 1)).encode() : null,
+            total
+        );
+    }
+
+    private Specification<Document> toSpecification(DocumentSearchCriteria criteria) {
         Specification<Document> specification = Specification.allOf();
         if (criteria.status().isPresent()) {
             specification = specification.and((root, query, cb) -> cb.equal(root.get("status"), criteria.status().get()));
@@ -258,11 +656,7 @@ public class DocumentService {
         if (criteria.uploadedBefore().isPresent()) {
             specification = specification.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("uploadedAt"), criteria.uploadedBefore().get()));
         }
-        if (criteria.titleKeyword().isPresent()) {
-            String pattern = "%" + criteria.titleKeyword().get().toLowerCase() + "%";
-            specification = specification.and((root, query, cb) -> cb.like(cb.lower(root.get("title")), pattern));
-        }
-        return documentRepository.findAll(specification, pageable).map(this::toResponse);
+        return specification;
     }
 
     @Transactional(readOnly = true)
@@ -277,24 +671,72 @@ public class DocumentService {
         return historyRepository
             .findByDocumentIdOrderByChangedAtAsc(documentId)
             .stream()
-            .map(history -> new DocumentHistoryResponse(DocumentStatus.valueOf(history.getStatus()), history.getComment(), history.getChangedAt()))
+            .map(this::toHistoryResponse)
             .collect(Collectors.toList());
     }
 
+    private DocumentHistoryResponse toHistoryResponse(DocumentStatusHistory history) {
+        return new DocumentHistoryResponse(DocumentStatus.valueOf(history.getStatus()), history.getComment(), history.getChangedAt());
+    }
+
     @Transactional(readOnly = true)
     public Resource download(Long documentId) {
         Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
         return fileStorageService.loadAsResource(document.getFilePath());
     }
 
+    // Just the columns a download needs, so serving a file never loads the document or its associations
+    @Transactional(readOnly = true)
+    public DocumentDownloadView getDownloadView(Long documentId) {
+        return documentRepository.findDownloadViewById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
+    }
+
+    public StoredContent openContent(DocumentDownloadView document) {
+        return fileStorageService.openContent(document.getFilePath());
+    }
+
     @Transactional(readOnly = true)
     public List<DocumentResponse> getDocumentsByCase(Long caseId) {
+        Case caseEntity = caseRepository.findById(caseId)
+            .orElseThrow(() -> new IllegalArgumentException("Case not found with id: " + caseId));
+        return documentsOfCase(caseEntity.getId());
+    }
+
+    // Read-only listing of a case's documents in one joined query
+    @Transactional(readOnly = true)
+    public List<DocumentResponse> documentsOfCase(Long caseId) {
+        return documentRepository.findResponses(
+            (root, query, cb) -> cb.equal(root.get("caseRef").get("id"), caseId),
+            Sort.by("id"),
+            Integer.MAX_VALUE
+        );
+    }
+
+    // Resolves everything the bundle needs up front, so streaming the archive holds no database connection
+    @Transactional(readOnly = true)
+    public CaseBundle getCaseBundle(Long caseId) {
         Case caseEntity = caseRepository.findById(caseId)
             .orElseThrow(() -> new IllegalArgumentException("Case not found with id: " + caseId));
         List<Document> documents = documentRepository.findByCaseRef(caseEntity);
-        return documents.stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
+        Map<Long, List<DocumentHistoryResponse>> histories = historyRepository
+            .findByDocumentIdInOrderByChangedAtAsc(documents.stream().map(Document::getId).toList())
+            .stream()
+            .collect(Collectors.groupingBy(
+                history -> history.getDocument().getId(),
+                Collectors.mapping(this::toHistoryResponse, Collectors.toList())
+            ));
+        List<CaseBundle.Item> items = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            StoredContent content = null;
+            String error = null;
+            try {
+                content = fileStorageService.openContent(document.getFilePath());
+            } catch (FileStorageException ex) {
+                error = ex.getMessage();
+            }
+            items.add(new CaseBundle.Item(toResponse(document), histories.getOrDefault(document.getId(), List.of()), content, error));
+        }
+        return new CaseBundle(caseEntity.getId(), caseEntity.getTitle(), items);
     }
 
     @Transactional
@@ -302,6 +744,7 @@ public class DocumentService {
         Document document = documentRepository.findById(documentId).orElseThrow(() -> new IllegalArgumentException("Document not found"));
         historyRepository.deleteByDocumentId(documentId);
         documentRepository.delete(document);
+        counters.removed(document.getCaseRef().getId(), document.getStatus());
         fileStorageService.delete(document.getFilePath());
     }
 
@@ -333,39 +776,26 @@ public class DocumentService {
             document.getFilePath(),
             document.getReceiptNumber(),
             document.getUploadedAt(),
-            document.getProcessedAt()
+            document.getProcessedAt(),
+            document.getContentHash(),
+            document.getVersion()
         );
     }
 
     private void recordHistory(Document document, DocumentStatus status, String comment) {
+        historyRepository.save(newHistory(document, status, comment));
+    }
+
+    private DocumentStatusHistory newHistory(Document document, DocumentStatus status, String comment) {
         DocumentStatusHistory history = new DocumentStatusHistory();
         history.setDocument(document);
         history.setStatus(status.name());
         history.setComment(comment);
-        historyRepository.save(history);
+        return history;
     }
 
     private User currentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof com.efile.core.security.UserPrincipal principal)) {
-            throw new IllegalStateException("No authenticated user");
-        }
-        return userRepository.findById(principal.getId()).orElseThrow(() -> new IllegalStateException("User not found"));
-    }
-
-    private String generateReceiptNumber() {
-        String timestamp = String.valueOf(Instant.now().toEpochMilli());
-        String random = UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
-        String candidate = "EF" + timestamp + "-" + random;
-        
-        // Ensure uniqueness
-        int counter = 1;
-        String uniqueCandidate = candidate;
-        while (documentRepository.findByReceiptNumber(uniqueCandidate).isPresent()) {
-            uniqueCandidate = candidate + "-" + counter;
-            counter++;
-        }
-        return uniqueCandidate;
+        return currentUserProvider.get();
     }
 
     @Transactional(readOnly = true)
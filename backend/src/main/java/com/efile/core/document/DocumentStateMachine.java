@@ -0,0 +1,67 @@
+package com.efile.core.document;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+// Which status a document may move to from each status, and which columns each move writes besides status.
+// Final statuses simply have no outgoing moves.
+final class DocumentStateMachine {
+
+    // DECISION stamps the approver and processing time, CLOSE only the processing time
+    enum Effect {
+        STATUS_ONLY,
+        DECISION,
+        CLOSE
+    }
+
+    private static final Map<DocumentStatus, Set<DocumentStatus>> MOVES = new EnumMap<>(DocumentStatus.class);
+    private static final Map<DocumentStatus, String> REFUSALS = new EnumMap<>(DocumentStatus.class);
+    private static final Map<DocumentStatus, Effect> EFFECTS = new EnumMap<>(DocumentStatus.class);
+
+    static {
+        allow(DocumentStatus.DRAFT, "Draft documents can only be submitted or withdrawn",
+            DocumentStatus.SUBMITTED, DocumentStatus.WITHDRAWN);
+        allow(DocumentStatus.SUBMITTED, "Submitted documents can only be moved to review or withdrawn",
+            DocumentStatus.UNDER_REVIEW, DocumentStatus.WITHDRAWN);
+        allow(DocumentStatus.UNDER_REVIEW, "Documents under review can only be approved or rejected",
+            DocumentStatus.APPROVED, DocumentStatus.REJECTED);
+        allow(DocumentStatus.APPROVED, "Approved documents cannot be changed");
+        allow(DocumentStatus.REJECTED, "Rejected documents can only be edited (draft) or withdrawn",
+            DocumentStatus.DRAFT, DocumentStatus.WITHDRAWN);
+        allow(DocumentStatus.WITHDRAWN, "Withdrawn documents cannot be changed");
+
+        for (DocumentStatus status : DocumentStatus.values()) {
+            EFFECTS.put(status, Effect.STATUS_ONLY);
+        }
+        EFFECTS.put(DocumentStatus.APPROVED, Effect.DECISION);
+        EFFECTS.put(DocumentStatus.REJECTED, Effect.DECISION);
+        EFFECTS.put(DocumentStatus.WITHDRAWN, Effect.CLOSE);
+    }
+
+    private DocumentStateMachine() {
+    }
+
+    static boolean allows(DocumentStatus from, DocumentStatus to) {
+        return MOVES.get(from).contains(to);
+    }
+
+    static void check(DocumentStatus from, DocumentStatus to) {
+        if (!allows(from, to)) {
+            throw new IllegalStateException(REFUSALS.get(from));
+        }
+    }
+
+    static Effect effect(DocumentStatus target) {
+        return EFFECTS.get(target);
+    }
+
+    private static void allow(DocumentStatus from, String refusal, DocumentStatus... targets) {
+        Set<DocumentStatus> allowed = EnumSet.noneOf(DocumentStatus.class);
+        Collections.addAll(allowed, targets);
+        MOVES.put(from, Collections.unmodifiableSet(allowed));
+        REFUSALS.put(from, refusal);
+    }
+}
@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import java.time.Instant;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -17,7 +18,15 @@ import org.hibernate.annotations.CreationTimestamp;
 public class DocumentStatusHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "document_history_ids")
+    @TableGenerator(
+        name = "document_history_ids",
+        table = IdGenerators.TABLE,
+        pkColumnName = "name",
+        valueColumnName = "next_val",
+        pkColumnValue = "document_status_history",
+        allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
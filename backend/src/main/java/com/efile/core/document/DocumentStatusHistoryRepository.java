@@ -1,5 +1,6 @@
 package com.efile.core.document;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
@@ -7,5 +8,7 @@ public interface DocumentStatusHistoryRepository extends JpaRepository<DocumentS
 
     List<DocumentStatusHistory> findByDocumentIdOrderByChangedAtAsc(Long documentId);
 
+    List<DocumentStatusHistory> findByDocumentIdInOrderByChangedAtAsc(Collection<Long> documentIds);
+
     void deleteByDocumentId(Long documentId);
 }
@@ -0,0 +1,11 @@
+package com.efile.core.document;
+
+// What an upload does when the case already holds a document with the same content digest
+public enum DuplicatePolicy {
+    // Store the copy anyway and tell the uploader which document it repeats
+    WARN,
+    // Store nothing and hand back the existing document
+    LINK,
+    // Refuse the upload with a conflict
+    REJECT
+}
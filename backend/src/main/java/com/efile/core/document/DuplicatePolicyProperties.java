@@ -0,0 +1,36 @@
+package com.efile.core.document;
+
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "documents.duplicates")
+public class DuplicatePolicyProperties {
+
+    private DuplicatePolicy defaultPolicy = DuplicatePolicy.WARN;
+
+    // Per-type overrides, e.g. documents.duplicates.policies.PROCUREMENT_BID=REJECT
+    private Map<DocumentType, DuplicatePolicy> policies = new EnumMap<>(DocumentType.class);
+
+    public DuplicatePolicy policyFor(DocumentType type) {
+        return policies.getOrDefault(type, defaultPolicy);
+    }
+
+    public DuplicatePolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    public void setDefaultPolicy(DuplicatePolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public Map<DocumentType, DuplicatePolicy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<DocumentType, DuplicatePolicy> policies) {
+        this.policies = policies;
+    }
+}
@@ -0,0 +1,37 @@
+package com.efile.core.document;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Keeps the pooled id generators ahead of rows that were inserted with AUTO_INCREMENT before the
+// switch. Runs after the schema update (done by the EntityManagerFactory) and before any runner inserts.
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGenerators {
+
+    static final String TABLE = "id_generators";
+    static final int ALLOCATION_SIZE = 50;
+
+    // Each generator row is named after the table it numbers
+    private static final List<String> SEEDED_TABLES = List.of("documents", "document_status_history");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGenerators(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void seed() {
+        // A pooled generator may hand out ids up to ALLOCATION_SIZE below the stored value, hence the margin
+        SEEDED_TABLES.forEach(table -> jdbcTemplate.update(
+            "INSERT INTO " + TABLE + " (name, next_val) "
+                + "SELECT ?, COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + table + " "
+                + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+            table
+        ));
+    }
+}
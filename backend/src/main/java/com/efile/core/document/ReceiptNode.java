@@ -0,0 +1,29 @@
+package com.efile.core.document;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Lease on one of the node ids that keep receipt numbers from different instances apart
+@Entity
+@Table(name = "receipt_nodes")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReceiptNode {
+
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    @Column(nullable = false, length = 64)
+    private String holder;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,40 @@
+package com.efile.core.document;
+
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ReceiptNodeRepository extends JpaRepository<ReceiptNode, Integer> {
+
+    // Takes the node id if it is free, expired or already ours, and leaves another holder's live lease alone.
+    // The affected-row count depends on driver flags, so callers read the holder back in the same transaction;
+    // a read from any other transaction may be looking at a snapshot taken before the claim. Both assignments
+    // test the same condition so the result does not depend on whether the second one sees the updated holder.
+    @Modifying
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(
+        value = "INSERT INTO receipt_nodes (node_id, holder, expires_at) VALUES (:nodeId, :holder, :expiresAt) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "holder = CASE WHEN expires_at < :now OR holder = :holder THEN VALUES(holder) ELSE holder END, "
+            + "expires_at = CASE WHEN expires_at < :now OR holder = :holder THEN VALUES(expires_at) ELSE expires_at END",
+        nativeQuery = true
+    )
+    int claim(
+        @Param("nodeId") int nodeId,
+        @Param("holder") String holder,
+        @Param("expiresAt") Instant expiresAt,
+        @Param("now") Instant now
+    );
+
+    @Query("SELECT n.holder FROM ReceiptNode n WHERE n.nodeId = :nodeId")
+    String findHolder(@Param("nodeId") int nodeId);
+
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE ReceiptNode n SET n.expiresAt = :expiresAt WHERE n.nodeId = :nodeId AND n.holder = :holder")
+    int renew(@Param("nodeId") int nodeId, @Param("holder") String holder, @Param("expiresAt") Instant expiresAt);
+}
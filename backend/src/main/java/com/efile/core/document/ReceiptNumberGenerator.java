@@ -0,0 +1,148 @@
+package com.efile.core.document;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Receipt numbers are EF<millis>-<node><sequence>. The millisecond clock and the 12-bit sequence share one
+// AtomicLong, so issuing a number is a single CAS: a new millisecond resets the sequence, and a clock that
+// stalls, steps back or runs out of sequence simply carries into the next logical millisecond. The node id
+// is unique per running instance, which makes numbers unique cluster-wide without asking the database.
+@Component
+public class ReceiptNumberGenerator {
+
+    static final int MAX_NODE_ID = 1023;
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptNumberGenerator.class);
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final Duration LEASE_TTL = Duration.ofMinutes(5);
+
+    private final AtomicLong state = new AtomicLong();
+    private final LongSupplier clock;
+    private final IntSupplier nodeId;
+    private final ReceiptNodeRepository nodeRepository;
+    private final TransactionTemplate leaseTransaction;
+    private final String holder;
+    private volatile int leasedNodeId = -1;
+
+    @Autowired
+    public ReceiptNumberGenerator(
+        ReceiptNodeRepository nodeRepository,
+        @Value("${app.receipt.node-id:-1}") int configuredNodeId,
+        PlatformTransactionManager transactionManager
+    ) {
+        if (configuredNodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.receipt.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeRepository = nodeRepository;
+        // Leases must outlive the upload that happened to claim them, and the claim has to be read back in the
+        // transaction that made it, so each attempt runs on its own
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.holder = holderName();
+        this.clock = System::currentTimeMillis;
+        // An explicit node id is trusted as-is; otherwise one is leased from the database at startup
+        this.nodeId = configuredNodeId >= 0 ? () -> configuredNodeId : this::leasedNodeId;
+    }
+
+    ReceiptNumberGenerator(IntSupplier nodeId, LongSupplier clock) {
+        this.nodeRepository = null;
+        this.leaseTransaction = null;
+        this.holder = null;
+        this.clock = clock;
+        this.nodeId = nodeId;
+    }
+
+    public String next() {
+        int node = nodeId.getAsInt();
+        long current;
+        long next;
+        do {
+            current = state.get();
+            long now = clock.getAsLong();
+            next = now > current >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : current + 1;
+        } while (!state.compareAndSet(current, next));
+        return "EF" + (next >>> SEQUENCE_BITS) + "-" + String.format("%04d%04d", node, next & SEQUENCE_MASK);
+    }
+
+    // Leasing up front keeps the claim out of request transactions; a lease lost later is reclaimed on next use
+    @EventListener(ApplicationReadyEvent.class)
+    public void leaseOnStartup() {
+        nodeId.getAsInt();
+    }
+
+    @Scheduled(fixedDelayString = "PT1M")
+    public void renewLease() {
+        int node = leasedNodeId;
+        if (node < 0 || nodeRepository == null) {
+            return;
+        }
+        if (nodeRepository.renew(node, holder, Instant.now().plus(LEASE_TTL)) == 0) {
+            // Someone took the id after our lease lapsed; stop using it and claim a fresh one on next use
+            logger.warn("Lost receipt node lease {}", node);
+            synchronized (this) {
+                if (leasedNodeId == node) {
+                    leasedNodeId = -1;
+                }
+            }
+        }
+    }
+
+    private int leasedNodeId() {
+        int node = leasedNodeId;
+        if (node >= 0) {
+            return node;
+        }
+        synchronized (this) {
+            if (leasedNodeId < 0) {
+                leasedNodeId = claimNodeId();
+                logger.info("Leased receipt node id {}", leasedNodeId);
+            }
+            return leasedNodeId;
+        }
+    }
+
+    private int claimNodeId() {
+        int start = ThreadLocalRandom.current().nextInt(MAX_NODE_ID + 1);
+        for (int i = 0; i <= MAX_NODE_ID; i++) {
+            int candidate = (start + i) % (MAX_NODE_ID + 1);
+            Instant now = Instant.now();
+            Boolean claimed = leaseTransaction.execute(status -> {
+                nodeRepository.claim(candidate, holder, now.plus(LEASE_TTL), now);
+                return holder.equals(nodeRepository.findHolder(candidate));
+            });
+            if (Boolean.TRUE.equals(claimed)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("No receipt node id available");
+    }
+
+    private static String holderName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            host = "unknown";
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return (host.length() > 55 ? host.substring(0, 55) : host) + ":" + suffix;
+    }
+}
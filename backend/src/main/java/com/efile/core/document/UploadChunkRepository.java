@@ -0,0 +1,27 @@
+package com.efile.core.document;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, UploadChunk.Key> {
+
+    // Retried chunks are idempotent, so a duplicate receipt is silently ignored
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO upload_session_chunks (session_id, chunk_index) VALUES (:sessionId, :chunkIndex)", nativeQuery = true)
+    int markReceived(@Param("sessionId") String sessionId, @Param("chunkIndex") int chunkIndex);
+
+    @Query("SELECT c.chunkIndex FROM UploadChunk c WHERE c.sessionId = :sessionId ORDER BY c.chunkIndex")
+    List<Integer> findReceivedIndexes(@Param("sessionId") String sessionId);
+
+    long countBySessionId(String sessionId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadChunk c WHERE c.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+}
@@ -0,0 +1,81 @@
+package com.efile.core.document;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import org.hibernate.annotations.CreationTimestamp;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Entity
+@Table(
+    name = "upload_sessions",
+    indexes = {
+        @jakarta.persistence.Index(name = "idx_upload_sessions_expires_at", columnList = "expires_at")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "id")
+@ToString(of = "id")
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 191)
+    private String title;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private DocumentType type;
+
+    @Column(name = "case_id", nullable = false)
+    private Long caseId;
+
+    @Column(name = "created_by_id", nullable = false)
+    private Long createdById;
+
+    @Column(nullable = false, length = 255)
+    private String filename;
+
+    @Column(name = "total_size", nullable = false)
+    private long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+
+    @Column(name = "chunk_count", nullable = false)
+    private int chunkCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Set while one request assembles the upload, so a second complete() cannot stage the same parts
+    @Column(nullable = false)
+    private boolean completing;
+
+    // Chunk writes in progress; completion waits for zero so no chunk lands after the part has been hashed.
+    // A node that dies mid-write leaves its count behind and the session can then only expire.
+    @Column(name = "active_writes", nullable = false)
+    private int activeWrites;
+
+    public long chunkLength(int index) {
+        return index < chunkCount - 1 ? chunkSize : totalSize - (long) chunkSize * (chunkCount - 1);
+    }
+}
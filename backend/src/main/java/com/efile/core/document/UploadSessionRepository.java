@@ -0,0 +1,42 @@
+package com.efile.core.document;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    List<UploadSession> findByExpiresAtBefore(Instant cutoff);
+
+    // Compare-and-set on the flag: of two concurrent callers exactly one sees 1, and never while a chunk is being written
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.completing = true WHERE s.id = :id AND s.completing = false AND s.activeWrites = 0")
+    int claimCompletion(@Param("id") String id);
+
+    // Ignores chunk writers, which cannot be waited for here; a completion that has outlived abandonedBefore died with its node
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.completing = true "
+        + "WHERE s.id = :id AND (s.completing = false OR s.expiresAt < :abandonedBefore)")
+    int claimForPurge(@Param("id") String id, @Param("abandonedBefore") Instant abandonedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.activeWrites = s.activeWrites + 1 WHERE s.id = :id AND s.completing = false")
+    int beginWrite(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.activeWrites = s.activeWrites - 1 WHERE s.id = :id AND s.activeWrites > 0")
+    int endWrite(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.completing = false WHERE s.id = :id")
+    int releaseCompletion(@Param("id") String id);
+}
@@ -0,0 +1,10 @@
+package com.efile.core.document.dto;
+
+public record BatchUploadResult(
+    String filename,
+    boolean success,
+    DocumentResponse document,
+    String error,
+    Long duplicateOf
+) {
+}
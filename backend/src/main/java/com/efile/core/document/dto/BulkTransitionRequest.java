@@ -0,0 +1,13 @@
+package com.efile.core.document.dto;
+
+import com.efile.core.document.DocumentStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public record BulkTransitionRequest(
+    @NotEmpty List<@NotNull Long> documentIds,
+    @NotNull DocumentStatus targetStatus,
+    String reason
+) {
+}
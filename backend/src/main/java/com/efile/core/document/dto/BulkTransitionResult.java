@@ -0,0 +1,11 @@
+package com.efile.core.document.dto;
+
+import com.efile.core.document.DocumentStatus;
+
+public record BulkTransitionResult(
+    Long documentId,
+    boolean success,
+    DocumentStatus status,
+    String error
+) {
+}
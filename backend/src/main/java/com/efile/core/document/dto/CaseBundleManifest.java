@@ -0,0 +1,20 @@
+package com.efile.core.document.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record CaseBundleManifest(
+    Long caseId,
+    String caseTitle,
+    Instant generatedAt,
+    List<Entry> documents
+) {
+
+    public record Entry(
+        String file,
+        String error,
+        DocumentResponse document,
+        List<DocumentHistoryResponse> history
+    ) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.efile.core.document.dto;
+
+import com.efile.core.common.JobState;
+import java.time.Instant;
+
+public record CountReconciliationReport(
+    JobState state,
+    Instant startedAt,
+    Instant finishedAt,
+    long casesChecked,
+    long countersRepaired,
+    String failure
+) {
+}
@@ -0,0 +1,15 @@
+package com.efile.core.document.dto;
+
+import com.efile.core.document.DocumentType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record CreateUploadSessionRequest(
+    @NotBlank String title,
+    @NotNull DocumentType type,
+    @NotNull Long caseId,
+    @NotBlank String filename,
+    @Positive long totalSize
+) {
+}
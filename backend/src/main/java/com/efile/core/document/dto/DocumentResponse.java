@@ -19,6 +19,8 @@ public record DocumentResponse(
     String filePath,
     String receiptNumber,
     Instant uploadedAt,
-    Instant processedAt
+    Instant processedAt,
+    String contentHash,
+    long version
 ) {
 }
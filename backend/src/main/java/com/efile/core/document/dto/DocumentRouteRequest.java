@@ -0,0 +1,8 @@
+package com.efile.core.document.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record DocumentRouteRequest(
+    @NotNull Long departmentId
+) {
+}
@@ -0,0 +1,11 @@
+package com.efile.core.document.dto;
+
+import com.efile.core.document.DocumentType;
+
+public record DocumentRouteResponse(
+    DocumentType documentType,
+    Long departmentId,
+    String departmentName,
+    boolean overridden
+) {
+}
@@ -0,0 +1,19 @@
+package com.efile.core.document.dto;
+
+import com.efile.core.document.DuplicatePolicy;
+
+// duplicateOf names the document with the same content in the case; with LINK, document is that document
+public record UploadOutcome(
+    DocumentResponse document,
+    Long duplicateOf,
+    DuplicatePolicy duplicatePolicy
+) {
+
+    public static UploadOutcome stored(DocumentResponse document) {
+        return new UploadOutcome(document, null, null);
+    }
+
+    public boolean linked() {
+        return duplicatePolicy == DuplicatePolicy.LINK;
+    }
+}
@@ -0,0 +1,18 @@
+package com.efile.core.document.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record UploadSessionResponse(
+    String id,
+    String filename,
+    long totalSize,
+    int chunkSize,
+    int chunkCount,
+    List<ReceivedRange> receivedRanges,
+    boolean complete,
+    Instant expiresAt
+) {
+    public record ReceivedRange(long start, long end) {
+    }
+}
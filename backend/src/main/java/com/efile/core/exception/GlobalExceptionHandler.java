@@ -1,11 +1,13 @@
 package com.efile.core.exception;
 
+import com.efile.core.document.DocumentConflictException;
 import com.efile.core.storage.FileStorageException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -106,6 +108,26 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    // Lost races on versioned rows; the client should reload and decide again
+    @ExceptionHandler({DocumentConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConflictException(
+        RuntimeException ex,
+        HttpServletRequest request
+    ) {
+        String message = ex instanceof DocumentConflictException
+            ? ex.getMessage()
+            : "The record was changed by someone else, reload and try again";
+        ErrorResponse errorResponse = new ErrorResponse(
+            Instant.now(),
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            message,
+            request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(FileStorageException.class)
     public ResponseEntity<ErrorResponse> handleFileStorageException(
         FileStorageException ex,
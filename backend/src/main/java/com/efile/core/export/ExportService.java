@@ -5,18 +5,15 @@ import com.efile.core.casemanagement.CaseRepository;
 import com.efile.core.document.Document;
 import com.efile.core.document.DocumentRepository;
 import com.efile.core.document.DocumentType;
+import com.efile.core.security.CurrentUserProvider;
 import com.efile.core.user.User;
-import com.efile.core.user.UserRepository;
 import com.efile.core.user.UserRole;
-import jakarta.persistence.EntityNotFoundException;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,17 +23,17 @@ public class ExportService {
 
     private final DocumentRepository documentRepository;
     private final CaseRepository caseRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserProvider currentUserProvider;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_INSTANT;
 
     public ExportService(
         DocumentRepository documentRepository,
         CaseRepository caseRepository,
-        UserRepository userRepository
+        CurrentUserProvider currentUserProvider
     ) {
         this.documentRepository = documentRepository;
         this.caseRepository = caseRepository;
-        this.userRepository = userRepository;
+        this.currentUserProvider = currentUserProvider;
     }
 
     public byte[] exportDocumentsAsCsv() {
@@ -125,9 +122,6 @@ public class ExportService {
     }
 
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmailIgnoreCase(email)
-            .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+        return currentUserProvider.get();
     }
 }
@@ -0,0 +1,46 @@
+package com.efile.core.extraction;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DocumentTextRepository extends JpaRepository<DocumentText, Long> {
+
+    List<DocumentText> findByDocumentIdInAndStatus(Collection<Long> documentIds, ExtractionStatus status);
+
+    @Query("SELECT t.documentId FROM DocumentText t WHERE t.documentId IN :ids AND t.status = :status")
+    List<Long> findIdsByStatus(@Param("ids") Collection<Long> ids, @Param("status") ExtractionStatus status);
+
+    @Query("SELECT t.documentId FROM DocumentText t WHERE t.status = :status AND t.nextAttemptAt <= :now ORDER BY t.nextAttemptAt")
+    List<Long> findDue(@Param("status") ExtractionStatus status, @Param("now") Instant now, Pageable pageable);
+
+    // One statement for any number of documents. Rows already extracted are left alone; anything else starts
+    // over. status is assigned last because MySQL evaluates the assignments left to right.
+    @Modifying
+    @Query(
+        value = "INSERT INTO document_texts (document_id, status, attempts, next_attempt_at) "
+            + "SELECT d.id, 'PENDING', 0, CURRENT_TIMESTAMP(6) FROM documents d WHERE d.id IN (:ids) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "attempts = IF(status = 'EXTRACTED', attempts, 0), "
+            + "error = IF(status = 'EXTRACTED', error, NULL), "
+            + "next_attempt_at = IF(status = 'EXTRACTED', next_attempt_at, CURRENT_TIMESTAMP(6)), "
+            + "status = IF(status = 'EXTRACTED', status, 'PENDING')",
+        nativeQuery = true
+    )
+    int enqueue(@Param("ids") Collection<Long> ids);
+
+    // Same as enqueue, but extracted rows are queued again too
+    @Modifying
+    @Query(
+        value = "INSERT INTO document_texts (document_id, status, attempts, next_attempt_at) "
+            + "SELECT d.id, 'PENDING', 0, CURRENT_TIMESTAMP(6) FROM documents d WHERE d.id IN (:ids) "
+            + "ON DUPLICATE KEY UPDATE attempts = 0, error = NULL, next_attempt_at = CURRENT_TIMESTAMP(6), status = 'PENDING'",
+        nativeQuery = true
+    )
+    int requeue(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,7 @@
+package com.efile.core.extraction;
+
+public enum ExtractionStatus {
+    PENDING,
+    EXTRACTED,
+    FAILED
+}
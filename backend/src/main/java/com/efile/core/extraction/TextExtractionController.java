@@ -0,0 +1,36 @@
+package com.efile.core.extraction;
+
+import com.efile.core.extraction.dto.ReextractionReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/text-extraction/reextract")
+public class TextExtractionController {
+
+    private final TextExtractionService textExtractionService;
+
+    public TextExtractionController(TextExtractionService textExtractionService) {
+        this.textExtractionService = textExtractionService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<ReextractionReport> startReextraction(@RequestParam(defaultValue = "false") boolean force) {
+        ReextractionReport report = textExtractionService.startReextraction(force);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<ReextractionReport> getReport() {
+        ReextractionReport report = textExtractionService.report();
+        return ResponseEntity.ok(report);
+    }
+}
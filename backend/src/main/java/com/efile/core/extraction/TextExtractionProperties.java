@@ -0,0 +1,102 @@
+package com.efile.core.extraction;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConfigurationProperties(prefix = "text-extraction")
+public class TextExtractionProperties {
+
+    private int concurrency = 4;
+
+    private int queueCapacity = 200;
+
+    private Duration timeout = Duration.ofMinutes(1);
+
+    private int maxAttempts = 3;
+
+    private Duration retryBackoff = Duration.ofMinutes(1);
+
+    private Duration pollInterval = Duration.ofSeconds(30);
+
+    private DataSize maxFileSize = DataSize.ofMegabytes(50);
+
+    private int maxChars = 1_000_000;
+
+    private int reextractThreads = 0;
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(Duration retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public DataSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(DataSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public int getMaxChars() {
+        return maxChars;
+    }
+
+    public void setMaxChars(int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    // 0 uses one thread per available core
+    public int getReextractThreads() {
+        return reextractThreads;
+    }
+
+    public void setReextractThreads(int reextractThreads) {
+        this.reextractThreads = reextractThreads;
+    }
+}
@@ -0,0 +1,379 @@
+package com.efile.core.extraction;
+
+import com.efile.core.common.BackgroundJob;
+import com.efile.core.common.JobState;
+import com.efile.core.document.Document;
+import com.efile.core.document.DocumentFileView;
+import com.efile.core.document.DocumentRepository;
+import com.efile.core.extraction.dto.ReextractionReport;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.storage.FileStorageException;
+import com.efile.core.storage.FileStorageService;
+import com.efile.core.storage.StoredContent;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Pulls text out of uploaded files off the request path. An upload only records a PENDING row in its own
+// transaction; after commit the document is offered to a small pool of virtual threads. When that pool's
+// queue is full the offer is dropped rather than waited on, and the poller picks the row up once there is
+// room again, so a burst of uploads never slows down the uploads themselves. Failed attempts are retried
+// with a growing delay until the attempt limit marks the row FAILED.
+@Service
+public class TextExtractionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextExtractionService.class);
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final DocumentTextRepository textRepository;
+    private final DocumentRepository documentRepository;
+    private final FileStorageService fileStorageService;
+    private final TextExtractor textExtractor;
+    private final SearchIndexer searchIndexer;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final long maxFileSize;
+    private final int reextractThreads;
+    private final ThreadPoolExecutor workers;
+    // Interrupts parses that run past the time limit
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("text-extraction-deadline").daemon().factory());
+    // Documents queued or being extracted, so the poller and a re-extraction never work on the same one twice
+    private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+    private final BackgroundJob<Run> reextraction = new BackgroundJob<>("text-reextract");
+
+    public TextExtractionService(
+        DocumentTextRepository textRepository,
+        DocumentRepository documentRepository,
+        FileStorageService fileStorageService,
+        TextExtractor textExtractor,
+        SearchIndexer searchIndexer,
+        PlatformTransactionManager transactionManager,
+        TextExtractionProperties properties
+    ) {
+        this.textRepository = textRepository;
+        this.documentRepository = documentRepository;
+        this.fileStorageService = fileStorageService;
+        this.textExtractor = textExtractor;
+        this.searchIndexer = searchIndexer;
+        // Results are written from worker threads, some of them running inside another transaction's callbacks
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.timeout = properties.getTimeout();
+        this.maxAttempts = Math.max(1, properties.getMaxAttempts());
+        this.retryBackoff = properties.getRetryBackoff();
+        this.maxFileSize = properties.getMaxFileSize().toBytes();
+        this.reextractThreads = properties.getReextractThreads() > 0
+            ? properties.getReextractThreads()
+            : Runtime.getRuntime().availableProcessors();
+        int concurrency = Math.max(1, properties.getConcurrency());
+        this.workers = new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+            Thread.ofVirtual().name("text-extraction-", 0).factory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    // Called inside the upload transaction; extraction starts only once the documents are committed
+    public void schedule(Collection<Document> documents) {
+        List<Long> ids = documents.stream()
+            .filter(document -> textExtractor.supports(document.getFilePath()))
+            .map(Document::getId)
+            .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        textRepository.enqueue(ids);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ids.forEach(this::offer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(TextExtractionService.this::offer);
+            }
+        });
+    }
+
+    // Feeds due rows to the pool, never more than its queue has room for
+    @Scheduled(fixedDelayString = "${text-extraction.poll-interval:PT30S}")
+    public void pollPending() {
+        int room = workers.getQueue().remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        for (Long documentId : textRepository.findDue(ExtractionStatus.PENDING, Instant.now(), PageRequest.of(0, room))) {
+            if (!offer(documentId)) {
+                break;
+            }
+        }
+    }
+
+    // Starts a pass over every stored document in the background; force re-extracts documents that already have text
+    public ReextractionReport startReextraction(boolean force) {
+        reextraction.start(() -> new Run(force), this::reextract);
+        return report();
+    }
+
+    public ReextractionReport report() {
+        Run run = reextraction.current();
+        if (run == null) {
+            return new ReextractionReport(JobState.IDLE, null, null, false, 0, 0, 0, null);
+        }
+        return run.snapshot();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        deadlines.shutdownNow();
+    }
+
+    private boolean offer(Long documentId) {
+        if (!claimed.add(documentId)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> process(documentId, null));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            // The row stays PENDING and the poller offers it again later
+            claimed.remove(documentId);
+            return false;
+        }
+    }
+
+    // Parsing is CPU-bound, so the corpus pass runs on one platform thread per core rather than the upload pool
+    private void reextract(Run run) throws InterruptedException {
+        logger.info("Text re-extraction started (force={})", run.force);
+        ThreadPoolExecutor pool = BackgroundJob.boundedPool(reextractThreads);
+        try {
+            long afterId = 0;
+            List<DocumentFileView> page;
+            do {
+                page = documentRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, PAGE_SIZE));
+                List<Long> ids = page.stream()
+                    .filter(document -> textExtractor.supports(document.getFilePath()))
+                    .map(DocumentFileView::getId)
+                    .toList();
+                if (!ids.isEmpty()) {
+                    List<Long> pending = transactionTemplate.execute(status -> {
+                        if (run.force) {
+                            textRepository.requeue(ids);
+                        } else {
+                            textRepository.enqueue(ids);
+                        }
+                        return textRepository.findIdsByStatus(ids, ExtractionStatus.PENDING);
+                    });
+                    for (Long documentId : pending) {
+                        if (claimed.add(documentId)) {
+                            run.queued.incrementAndGet();
+                            pool.execute(() -> process(documentId, run));
+                        }
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            logger.info("Text re-extraction finished: {} queued, {} extracted, {} failed",
+                run.queued.get(), run.extracted.get(), run.failed.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void process(Long documentId, Run run) {
+        try {
+            DocumentFileView file = documentRepository.findFileViewById(documentId).orElse(null);
+            if (file == null) {
+                return;
+            }
+            String text;
+            try {
+                text = extract(file);
+            } catch (ExtractionException ex) {
+                boolean retrying = recordFailure(documentId, ex.getMessage(), ex.retryable);
+                if (run != null && !retrying) {
+                    run.failed.incrementAndGet();
+                }
+                return;
+            }
+            recordSuccess(documentId, text);
+            if (run != null) {
+                run.extracted.incrementAndGet();
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Text extraction for document {} failed", documentId, ex);
+        } finally {
+            claimed.remove(documentId);
+        }
+    }
+
+    private String extract(DocumentFileView file) throws ExtractionException {
+        StoredContent content;
+        try {
+            content = fileStorageService.openContent(file.getFilePath());
+        } catch (FileStorageException ex) {
+            throw new ExtractionException(ex.getMessage(), true);
+        }
+        if (content.length() > maxFileSize) {
+            throw new ExtractionException("File is too large for text extraction", false);
+        }
+        // Parsed on this worker, which keeps the document claimed and the pool slot taken until the parser really
+        // stops. Java cannot kill a parse: the deadline interrupts it, which stops reads and the PDF writer, while
+        // POI only notices once it returns, so a runaway file costs its own slot rather than one more thread.
+        Deadline deadline = new Deadline(Thread.currentThread());
+        try (InputStream in = content.openStream()) {
+            String text = textExtractor.extract(file.getFilePath(), in);
+            if (deadline.finish()) {
+                throw timedOut();
+            }
+            return text;
+        } catch (IOException | RuntimeException ex) {
+            if (deadline.finish()) {
+                throw timedOut();
+            }
+            // Read errors and parser failures look alike from here; the attempt limit bounds the retries
+            throw new ExtractionException(String.valueOf(ex.getMessage()), true);
+        } finally {
+            deadline.finish();
+        }
+    }
+
+    private ExtractionException timedOut() {
+        return new ExtractionException("Timed out after " + timeout.toSeconds() + "s", true);
+    }
+
+    private final class Deadline {
+
+        private final Thread worker;
+        private final ScheduledFuture<?> alarm;
+        private boolean finished;
+        private boolean expired;
+
+        Deadline(Thread worker) {
+            this.worker = worker;
+            this.alarm = deadlines.schedule(this::expire, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                worker.interrupt();
+            }
+        }
+
+        // Returns whether the parse ran out of time; the interrupt must not outlive it and fail the next query
+        synchronized boolean finish() {
+            if (!finished) {
+                finished = true;
+                alarm.cancel(false);
+                if (expired) {
+                    Thread.interrupted();
+                }
+            }
+            return expired;
+        }
+    }
+
+    private void recordSuccess(Long documentId, String text) {
+        transactionTemplate.executeWithoutResult(status -> {
+            DocumentText row = textRepository.findById(documentId).orElse(null);
+            if (row == null) {
+                // The document was deleted while it was being extracted
+                return;
+            }
+            row.setStatus(ExtractionStatus.EXTRACTED);
+            row.setContent(text);
+            row.setError(null);
+            row.setNextAttemptAt(null);
+            row.setExtractedAt(Instant.now());
+            row.setAttempts(row.getAttempts() + 1);
+            documentRepository.findById(documentId).ifPresent(searchIndexer::textChangedAfterCommit);
+        });
+    }
+
+    // Returns whether another attempt was scheduled
+    private boolean recordFailure(Long documentId, String error, boolean retryable) {
+        Boolean retrying = transactionTemplate.execute(status -> {
+            DocumentText row = textRepository.findById(documentId).orElse(null);
+            if (row == null) {
+                return false;
+            }
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            row.setError(error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+            if (retryable && attempts < maxAttempts) {
+                row.setStatus(ExtractionStatus.PENDING);
+                row.setNextAttemptAt(Instant.now().plus(retryBackoff.multipliedBy(1L << (attempts - 1))));
+                return true;
+            }
+            row.setStatus(ExtractionStatus.FAILED);
+            row.setNextAttemptAt(null);
+            return false;
+        });
+        logger.warn("Text extraction for document {} failed{}: {}", documentId, Boolean.TRUE.equals(retrying) ? ", will retry" : "", error);
+        return Boolean.TRUE.equals(retrying);
+    }
+
+    private static final class ExtractionException extends Exception {
+
+        private final boolean retryable;
+
+        ExtractionException(String message, boolean retryable) {
+            super(message);
+            this.retryable = retryable;
+        }
+    }
+
+    private static final class Run extends BackgroundJob.Run {
+
+        private final boolean force;
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong extracted = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        Run(boolean force) {
+            this.force = force;
+        }
+
+        ReextractionReport snapshot() {
+            return new ReextractionReport(getState(), getStartedAt(), getFinishedAt(), force, queued.get(), extracted.get(), failed.get(), getFailure());
+        }
+    }
+}
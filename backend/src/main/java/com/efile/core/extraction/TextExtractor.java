@@ -0,0 +1,123 @@
+package com.efile.core.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.Set;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.extractor.XSSFEventBasedExcelExtractor;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.xmlbeans.XmlException;
+import org.springframework.stereotype.Component;
+
+// Turns stored PDF, DOCX and XLSX files into plain text. The format is taken from the stored path, whose
+// extension was checked against the file signature on upload.
+@Component
+public class TextExtractor {
+
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("pdf", "docx", "xlsx");
+
+    private final int maxChars;
+
+    public TextExtractor(TextExtractionProperties properties) {
+        this.maxChars = properties.getMaxChars();
+    }
+
+    public boolean supports(String filePath) {
+        return SUPPORTED_EXTENSIONS.contains(extension(filePath));
+    }
+
+    public String extract(String filePath, InputStream content) throws IOException {
+        String extension = extension(filePath);
+        return switch (extension) {
+            case "pdf" -> extractPdf(content);
+            case "docx" -> extractDocx(content);
+            case "xlsx" -> extractXlsx(content);
+            default -> throw new IllegalArgumentException("Text extraction is not supported for ." + extension + " files");
+        };
+    }
+
+    private String extractPdf(InputStream content) throws IOException {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(content))) {
+            LimitedWriter writer = new LimitedWriter(maxChars);
+            try {
+                new PDFTextStripper().writeText(document, writer);
+            } catch (LimitedWriter.LimitReached ex) {
+                // The text so far is kept; the rest of a very long file is not worth indexing
+            }
+            return writer.toString();
+        }
+    }
+
+    private String extractDocx(InputStream content) throws IOException {
+        try (XWPFWordExtractor extractor = new XWPFWordExtractor(new XWPFDocument(content))) {
+            return truncate(extractor.getText());
+        }
+    }
+
+    private String extractXlsx(InputStream content) throws IOException {
+        // The event-based extractor streams sheets instead of building the whole workbook in memory
+        try (XSSFEventBasedExcelExtractor extractor = new XSSFEventBasedExcelExtractor(OPCPackage.open(content))) {
+            return truncate(extractor.getText());
+        } catch (OpenXML4JException | XmlException ex) {
+            throw new IOException("Not a valid spreadsheet", ex);
+        }
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    private static String extension(String filePath) {
+        int dot = filePath == null ? -1 : filePath.lastIndexOf('.');
+        return dot < 0 ? "" : filePath.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    // Caps the text and gives the PDF stripper, which never checks for interruption itself, a point where
+    // a timed-out extraction stops
+    private static final class LimitedWriter extends Writer {
+
+        private static final class LimitReached extends IOException {
+        }
+
+        private final StringBuilder text = new StringBuilder();
+        private final int limit;
+
+        LimitedWriter(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Text extraction interrupted");
+            }
+            int room = limit - text.length();
+            text.append(buffer, offset, Math.min(length, room));
+            if (length >= room) {
+                throw new LimitReached();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.efile.core.extraction.dto;
+
+import com.efile.core.common.JobState;
+import java.time.Instant;
+
+public record ReextractionReport(
+    JobState state,
+    Instant startedAt,
+    Instant finishedAt,
+    boolean force,
+    long documentsQueued,
+    long extracted,
+    long failed,
+    String failure
+) {
+}
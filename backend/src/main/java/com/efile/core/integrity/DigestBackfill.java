@@ -0,0 +1,134 @@
+package com.efile.core.integrity;
+
+import com.efile.core.common.BackgroundJob;
+import com.efile.core.common.JobState;
+import com.efile.core.document.DocumentFileView;
+import com.efile.core.document.DocumentRepository;
+import com.efile.core.integrity.dto.DigestBackfillReport;
+import com.efile.core.storage.FileStorageException;
+import com.efile.core.storage.FileStorageProperties;
+import com.efile.core.storage.FileStorageService;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// One-off pass that hashes the stored files of documents uploaded before digests were recorded, so duplicate
+// detection and the scrubber can see them. It shares the scrubber's thread count and read budget; rows are
+// filled only while still empty, so it can be rerun or interrupted at any point.
+@Service
+public class DigestBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(DigestBackfill.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final DocumentRepository documentRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final long maxBytesPerSecond;
+    private final BackgroundJob<Run> job = new BackgroundJob<>("digest-backfill");
+
+    public DigestBackfill(
+        DocumentRepository documentRepository,
+        FileStorageService fileStorageService,
+        FileStorageProperties properties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.documentRepository = documentRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = Math.max(1, properties.getScrubThreads());
+        this.maxBytesPerSecond = properties.getScrubMaxBytesPerSecond().toBytes();
+    }
+
+    public DigestBackfillReport start() {
+        job.start(Run::new, this::execute);
+        return report();
+    }
+
+    public DigestBackfillReport report() {
+        Run run = job.current();
+        if (run == null) {
+            return new DigestBackfillReport(JobState.IDLE, null, null, 0, 0, 0, 0, 0, null);
+        }
+        return run.snapshot();
+    }
+
+    private void execute(Run run) throws InterruptedException {
+        logger.info("Digest backfill started");
+        ThreadPoolExecutor pool = BackgroundJob.boundedPool(threads);
+        StoredFileHasher hasher = new StoredFileHasher(fileStorageService, maxBytesPerSecond);
+        try {
+            long afterId = 0;
+            List<DocumentFileView> page;
+            do {
+                page = documentRepository.findByContentHashIsNullAndIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, PAGE_SIZE));
+                for (DocumentFileView document : page) {
+                    pool.execute(() -> fill(document, hasher, run));
+                    afterId = document.getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            logger.info("Digest backfill finished: {} documents, {} filled, {} missing, {} failed",
+                run.scanned.get(), run.filled.get(), run.missing.get(), run.failed.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void fill(DocumentFileView document, StoredFileHasher hasher, Run run) {
+        try {
+            StoredFileHasher.Digest digest = hasher.hash(document.getFilePath());
+            run.bytes.addAndGet(digest.size());
+            if (digest.size() != document.getFileSize()) {
+                // A truncated file would record the wrong digest forever; leave it for the scrubber to report
+                logger.warn("Skipping digest for document {}: expected {} bytes, found {}", document.getId(), document.getFileSize(), digest.size());
+                run.failed.incrementAndGet();
+                return;
+            }
+            Integer updated = transactionTemplate.execute(status -> documentRepository.fillContentHash(document.getId(), digest.hash()));
+            if (updated != null && updated == 1) {
+                run.filled.incrementAndGet();
+            }
+        } catch (FileStorageException ex) {
+            run.missing.incrementAndGet();
+        } catch (IOException ex) {
+            logger.warn("Failed to hash document {}: {}", document.getId(), ex.getMessage());
+            run.failed.incrementAndGet();
+        } finally {
+            run.scanned.incrementAndGet();
+        }
+    }
+
+    private static final class Run extends BackgroundJob.Run {
+
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong filled = new AtomicLong();
+        private final AtomicLong missing = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        DigestBackfillReport snapshot() {
+            return new DigestBackfillReport(
+                getState(),
+                getStartedAt(),
+                getFinishedAt(),
+                scanned.get(),
+                bytes.get(),
+                filled.get(),
+                missing.get(),
+                failed.get(),
+                getFailure()
+            );
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.efile.core.integrity;
+
+import com.efile.core.integrity.dto.DigestBackfillReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/storage/digest-backfill")
+public class DigestBackfillController {
+
+    private final DigestBackfill digestBackfill;
+
+    public DigestBackfillController(DigestBackfill digestBackfill) {
+        this.digestBackfill = digestBackfill;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<DigestBackfillReport> start() {
+        DigestBackfillReport report = digestBackfill.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<DigestBackfillReport> getReport() {
+        DigestBackfillReport report = digestBackfill.report();
+        return ResponseEntity.ok(report);
+    }
+}
@@ -0,0 +1,56 @@
+package com.efile.core.integrity;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+// Shared byte budget for every scrub worker; each read books its bytes on a virtual timeline and sleeps
+// until its slot comes up, so the aggregate rate stays under the limit however many threads read.
+class IoThrottle {
+
+    private final double nanosPerByte;
+    private long nextFree = System.nanoTime();
+
+    IoThrottle(long bytesPerSecond) {
+        this.nanosPerByte = bytesPerSecond <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / (double) bytesPerSecond;
+    }
+
+    InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                acquire(1);
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    acquire(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    private void acquire(int bytes) throws InterruptedIOException {
+        if (nanosPerByte == 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            nextFree = Math.max(nextFree, now) + (long) (bytes * nanosPerByte);
+            wait = nextFree - now;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Scrub interrupted");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.efile.core.integrity;
+
+import com.efile.core.integrity.dto.ScrubReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/storage/scrub")
+public class ScrubController {
+
+    private final StorageScrubber storageScrubber;
+
+    public ScrubController(StorageScrubber storageScrubber) {
+        this.storageScrubber = storageScrubber;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<ScrubReport> startScrub() {
+        ScrubReport report = storageScrubber.start();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(report);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<ScrubReport> getReport() {
+        ScrubReport report = storageScrubber.report();
+        return ResponseEntity.ok(report);
+    }
+}
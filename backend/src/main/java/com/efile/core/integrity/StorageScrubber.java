@@ -0,0 +1,189 @@
+package com.efile.core.integrity;
+
+import com.efile.core.common.BackgroundJob;
+import com.efile.core.common.JobState;
+import com.efile.core.document.DocumentFileView;
+import com.efile.core.document.DocumentRepository;
+import com.efile.core.integrity.dto.ScrubReport;
+import com.efile.core.storage.FileStorageException;
+import com.efile.core.storage.FileStorageProperties;
+import com.efile.core.storage.FileStorageService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Verifies stored files against the documents table: every row is streamed through SHA-256 and compared
+// with its recorded hash (missing files are ghosts), then the tree is walked for files no row references
+// (orphans). Reads run on a bounded pool and share one throttle so live downloads keep their bandwidth.
+@Service
+public class StorageScrubber {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageScrubber.class);
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_FINDINGS = 1000;
+
+    private final DocumentRepository documentRepository;
+    private final FileStorageService fileStorageService;
+    private final int threads;
+    private final long maxBytesPerSecond;
+    private final BackgroundJob<Run> job = new BackgroundJob<>("storage-scrub");
+
+    public StorageScrubber(
+        DocumentRepository documentRepository,
+        FileStorageService fileStorageService,
+        FileStorageProperties properties
+    ) {
+        this.documentRepository = documentRepository;
+        this.fileStorageService = fileStorageService;
+        this.threads = Math.max(1, properties.getScrubThreads());
+        this.maxBytesPerSecond = properties.getScrubMaxBytesPerSecond().toBytes();
+    }
+
+    public ScrubReport start() {
+        job.start(Run::new, this::execute);
+        return report();
+    }
+
+    public ScrubReport report() {
+        Run run = job.current();
+        if (run == null) {
+            return new ScrubReport(JobState.IDLE, null, null, 0, 0, 0, 0, 0, 0, List.of(), List.of(), List.of(), null);
+        }
+        return run.snapshot();
+    }
+
+    @Scheduled(cron = "${file.storage.scrub-cron:-}")
+    public void scheduledScrub() {
+        start();
+    }
+
+    private void execute(Run run) throws InterruptedException {
+        logger.info("Storage scrub started");
+        ThreadPoolExecutor pool = BackgroundJob.boundedPool(threads);
+        StoredFileHasher hasher = new StoredFileHasher(fileStorageService, maxBytesPerSecond);
+        try {
+            Set<String> referenced = new HashSet<>();
+            long afterId = 0;
+            List<DocumentFileView> page;
+            do {
+                page = documentRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, PAGE_SIZE));
+                for (DocumentFileView document : page) {
+                    referenced.add(document.getFilePath());
+                    pool.execute(() -> verify(document, hasher, run));
+                    afterId = document.getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+            // Files written after the run began may belong to rows the pages above never saw
+            try (Stream<String> files = fileStorageService.listStoredFiles(run.getStartedAt())) {
+                files
+                    .filter(path -> !referenced.contains(path))
+                    .filter(path -> !documentRepository.existsByFilePath(path))
+                    .forEach(path -> run.orphan(path));
+            }
+            logger.info("Storage scrub finished: {} documents, {} corrupt, {} ghosts, {} orphans",
+                run.checked.get(), run.corruptCount.get(), run.ghostCount.get(), run.orphanCount.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void verify(DocumentFileView document, StoredFileHasher hasher, Run run) {
+        try {
+            StoredFileHasher.Digest digest = hasher.hash(document.getFilePath());
+            run.bytes.addAndGet(digest.size());
+            if (document.getContentHash() == null) {
+                // Rows from before hashing was recorded can only be checked for presence and length
+                run.unverifiable.incrementAndGet();
+                if (digest.size() != document.getFileSize()) {
+                    run.corrupt(document, "Expected " + document.getFileSize() + " bytes, found " + digest.size());
+                }
+                return;
+            }
+            if (!digest.hash().equals(document.getContentHash())) {
+                run.corrupt(document, "Digest mismatch: recorded " + document.getContentHash() + ", actual " + digest.hash());
+            }
+        } catch (FileStorageException ex) {
+            run.ghost(document, ex.getMessage());
+        } catch (IOException ex) {
+            // Includes decryption failures, which mean the bytes on disk were altered
+            run.corrupt(document, ex.getMessage());
+        } finally {
+            run.checked.incrementAndGet();
+        }
+    }
+
+    private static final class Run extends BackgroundJob.Run {
+
+        private final AtomicLong checked = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong unverifiable = new AtomicLong();
+        private final AtomicLong corruptCount = new AtomicLong();
+        private final AtomicLong ghostCount = new AtomicLong();
+        private final AtomicLong orphanCount = new AtomicLong();
+        private final List<ScrubReport.Finding> corrupt = new ArrayList<>();
+        private final List<ScrubReport.Finding> ghosts = new ArrayList<>();
+        private final List<ScrubReport.Finding> orphans = new ArrayList<>();
+
+        void corrupt(DocumentFileView document, String detail) {
+            corruptCount.incrementAndGet();
+            record(corrupt, new ScrubReport.Finding(document.getId(), document.getFilePath(), detail));
+        }
+
+        void ghost(DocumentFileView document, String detail) {
+            ghostCount.incrementAndGet();
+            record(ghosts, new ScrubReport.Finding(document.getId(), document.getFilePath(), detail));
+        }
+
+        void orphan(String path) {
+            orphanCount.incrementAndGet();
+            record(orphans, new ScrubReport.Finding(null, path, "No document references this file"));
+        }
+
+        // Counts are exact; the lists keep only the first findings so a badly damaged store cannot exhaust the heap
+        private void record(List<ScrubReport.Finding> findings, ScrubReport.Finding finding) {
+            synchronized (findings) {
+                if (findings.size() < MAX_FINDINGS) {
+                    findings.add(finding);
+                }
+            }
+        }
+
+        private List<ScrubReport.Finding> copy(List<ScrubReport.Finding> findings) {
+            synchronized (findings) {
+                return List.copyOf(findings);
+            }
+        }
+
+        ScrubReport snapshot() {
+            return new ScrubReport(
+                getState(),
+                getStartedAt(),
+                getFinishedAt(),
+                checked.get(),
+                bytes.get(),
+                unverifiable.get(),
+                corruptCount.get(),
+                ghostCount.get(),
+                orphanCount.get(),
+                copy(corrupt),
+                copy(ghosts),
+                copy(orphans),
+                getFailure()
+            );
+        }
+    }
+}
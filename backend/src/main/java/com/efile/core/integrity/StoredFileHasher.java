@@ -0,0 +1,48 @@
+package com.efile.core.integrity;
+
+import com.efile.core.storage.FileStorageService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Streams stored files through SHA-256 under one shared read budget, the way every integrity pass reads them.
+// A missing file surfaces as FileStorageException; IOException covers read and decryption failures.
+final class StoredFileHasher {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final IoThrottle throttle;
+
+    StoredFileHasher(FileStorageService fileStorageService, long maxBytesPerSecond) {
+        this.fileStorageService = fileStorageService;
+        this.throttle = new IoThrottle(maxBytesPerSecond);
+    }
+
+    Digest hash(String path) throws IOException {
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (InputStream in = throttle.wrap(fileStorageService.openContent(path).openStream())) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return new Digest(HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    record Digest(String hash, long size) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.efile.core.integrity.dto;
+
+import com.efile.core.common.JobState;
+import java.time.Instant;
+
+public record DigestBackfillReport(
+    JobState state,
+    Instant startedAt,
+    Instant finishedAt,
+    long documentsScanned,
+    long bytesHashed,
+    long filled,
+    long missing,
+    long failed,
+    String failure
+) {
+}
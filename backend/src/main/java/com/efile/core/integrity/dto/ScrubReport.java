@@ -0,0 +1,26 @@
+package com.efile.core.integrity.dto;
+
+import com.efile.core.common.JobState;
+import java.time.Instant;
+import java.util.List;
+
+public record ScrubReport(
+    JobState state,
+    Instant startedAt,
+    Instant finishedAt,
+    long documentsChecked,
+    long bytesVerified,
+    long unverifiable,
+    long corruptCount,
+    long ghostCount,
+    long orphanCount,
+    List<Finding> corrupt,
+    List<Finding> ghosts,
+    List<Finding> orphans,
+    String failure
+) {
+
+    // documentId is null for orphans, which by definition have no row
+    public record Finding(Long documentId, String path, String detail) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.efile.core.search;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Embedded Lucene index on local disk. Writes go straight to the IndexWriter; a reopen thread keeps searchers
+// at most a second behind, and commits (the fsync) are batched on a short schedule instead of per write.
+// Anything lost to a crash between commits is restored by a rebuild.
+@Component
+public class SearchIndex {
+
+    public record Hits(long total, List<Long> ids) {
+    }
+
+    static final String KEY = "key";
+    static final String ID = "id";
+    static final String GENERATION = "generation";
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+    private static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final FSDirectory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    public SearchIndex(@Value("${search.index-path:search-index}") String indexPath) {
+        try {
+            Path path = Paths.get(indexPath).toAbsolutePath().normalize();
+            Files.createDirectories(path);
+            directory = FSDirectory.open(path);
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(64);
+            writer = new IndexWriter(directory, config);
+            searcherManager = new SearcherManager(writer, null);
+            reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, 1.0, 0.05);
+            reopenThread.setName("search-index-reopen");
+            reopenThread.setDaemon(true);
+            reopenThread.start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open search index", ex);
+        }
+    }
+
+    Analyzer analyzer() {
+        return analyzer;
+    }
+
+    public boolean isEmpty() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    void update(String key, Document document) {
+        try {
+            writer.updateDocument(new Term(KEY, key), document);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to update search index", ex);
+        }
+    }
+
+    void delete(String key) {
+        try {
+            writer.deleteDocuments(new Term(KEY, key));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to update search index", ex);
+        }
+    }
+
+    void apply(Map<String, Document> changes) {
+        // A null value marks a deletion
+        changes.forEach((key, document) -> {
+            if (document == null) {
+                delete(key);
+            } else {
+                update(key, document);
+            }
+        });
+    }
+
+    // Drops every entry a rebuild did not rewrite, i.e. rows that no longer exist
+    void deleteOlderGenerations(long generation) {
+        try {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, generation - 1));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to update search index", ex);
+        }
+    }
+
+    public Hits search(Query query, Sort sort, int offset, int limit) {
+        if (offset + limit > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_RESULT_WINDOW + " hits");
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int window = Math.max(1, offset + limit);
+                TopDocs topDocs = sort == null ? searcher.search(query, window) : searcher.search(query, window, sort);
+                long total = searcher.count(query);
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>(limit);
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                for (int i = offset; i < scoreDocs.length && ids.size() < limit; i++) {
+                    ids.add(storedFields.document(scoreDocs[i].doc, Set.of(ID)).getField(ID).numericValue().longValue());
+                }
+                return new Hits(total, ids);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Search failed", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.commit-interval:PT5S}")
+    public void commit() {
+        if (!writer.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException ex) {
+            logger.warn("Failed to commit search index", ex);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            reopenThread.close();
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException ex) {
+            logger.warn("Failed to close search index", ex);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.efile.core.search;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search/index")
+public class SearchIndexController {
+
+    private final SearchIndexer searchIndexer;
+
+    public SearchIndexController(SearchIndexer searchIndexer) {
+        this.searchIndexer = searchIndexer;
+    }
+
+    // 202 when a rebuild was started, 409 when one is already running
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN','IT')")
+    public ResponseEntity<Void> rebuild() {
+        boolean started = searchIndexer.startRebuild();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.efile.core.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// JPA callbacks on indexed entities. Hibernate obtains this from the Spring context; the indexer is looked up
+// lazily because listeners are created while the EntityManagerFactory the indexer depends on is being built.
+@Component
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndexer> indexer;
+
+    public SearchIndexListener(ObjectProvider<SearchIndexer> indexer) {
+        this.indexer = indexer;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        indexer.getObject().indexAfterCommit(entity);
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        indexer.getObject().removeAfterCommit(entity);
+    }
+}
@@ -0,0 +1,395 @@
+package com.efile.core.search;
+
+import com.efile.core.casemanagement.Case;
+import com.efile.core.casemanagement.CaseRepository;
+import com.efile.core.casemanagement.CaseStatus;
+import com.efile.core.document.DocumentRepository;
+import com.efile.core.document.DocumentStatus;
+import com.efile.core.document.DocumentType;
+import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.document.dto.DocumentSearchCriteria;
+import com.efile.core.extraction.DocumentText;
+import com.efile.core.extraction.DocumentTextRepository;
+import com.efile.core.extraction.ExtractionStatus;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Maps documents and cases to index entries. Changes are captured when an entity is flushed and applied
+// once the transaction commits, so a rolled-back write never becomes searchable. Document entries are built
+// just before the commit, on the writing transaction's own connection, with the extracted text of every
+// changed document read in one query.
+@Service
+public class SearchIndexer {
+
+    private record DocumentChange(com.efile.core.document.Document document, DocumentStatus status) {
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexer.class);
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final int TEXT_BATCH_SIZE = 100;
+    private static final String KIND = "kind";
+    private static final String TITLE = "title";
+    private static final String BODY = "body";
+    private static final String STATUS = "status";
+    private static final String TYPE = "type";
+    private static final String CASE_ID = "case_id";
+    private static final String CATEGORY = "category";
+    private static final String CREATED_BY = "created_by";
+    private static final String ASSIGNED_TO = "assigned_to";
+    private static final String UPLOADED_AT = "uploaded_at";
+    private static final String CREATED_AT = "created_at";
+    private static final String DOCUMENT = "document";
+    private static final String CASE = "case";
+    private static final Map<String, Float> DOCUMENT_FIELDS = Map.of(TITLE, 3f, BODY, 1f);
+    private static final Map<String, Float> CASE_FIELDS = Map.of(TITLE, 3f, BODY, 1f);
+
+    private final SearchIndex index;
+    private final DocumentRepository documentRepository;
+    private final CaseRepository caseRepository;
+    private final DocumentTextRepository textRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readTransaction;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Stamped on every entry; a rebuild raises it and then drops entries still carrying an older value
+    private volatile long generation = System.currentTimeMillis();
+
+    public SearchIndexer(
+        SearchIndex index,
+        DocumentRepository documentRepository,
+        CaseRepository caseRepository,
+        DocumentTextRepository textRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.index = index;
+        this.documentRepository = documentRepository;
+        this.caseRepository = caseRepository;
+        this.textRepository = textRepository;
+        this.entityManager = entityManager;
+        // Joins the writing transaction while it commits; the rebuild gets one of its own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    public SearchIndex.Hits searchDocuments(String text, DocumentSearchCriteria criteria, Pageable pageable) {
+        List<Query> filters = new ArrayList<>();
+        filters.add(SearchQueries.exact(KIND, DOCUMENT));
+        criteria.status().ifPresent(status -> filters.add(SearchQueries.exact(STATUS, status)));
+        criteria.type().ifPresent(type -> filters.add(SearchQueries.exact(TYPE, type)));
+        criteria.caseId().ifPresent(caseId -> filters.add(SearchQueries.exact(CASE_ID, caseId)));
+        if (criteria.uploadedAfter().isPresent() || criteria.uploadedBefore().isPresent()) {
+            filters.add(SearchQueries.range(
+                UPLOADED_AT,
+                criteria.uploadedAfter().map(Instant::toEpochMilli).orElse(null),
+                criteria.uploadedBefore().map(Instant::toEpochMilli).orElse(null)
+            ));
+        }
+        Query query = SearchQueries.withFilters(SearchQueries.text(index.analyzer(), text, DOCUMENT_FIELDS), filters);
+        return index.search(query, sort(pageable, "uploadedAt", UPLOADED_AT), (int) pageable.getOffset(), pageable.getPageSize());
+    }
+
+    // visibleTo restricts hits to cases the user created or is assigned to; null means every case
+    public SearchIndex.Hits searchCases(String text, CaseStatus status, Long visibleTo, Pageable pageable) {
+        List<Query> filters = new ArrayList<>();
+        filters.add(SearchQueries.exact(KIND, CASE));
+        if (status != null) {
+            filters.add(SearchQueries.exact(STATUS, status));
+        }
+        if (visibleTo != null) {
+            filters.add(new BooleanQuery.Builder()
+                .add(SearchQueries.exact(CREATED_BY, visibleTo), BooleanClause.Occur.SHOULD)
+                .add(SearchQueries.exact(ASSIGNED_TO, visibleTo), BooleanClause.Occur.SHOULD)
+                .build());
+        }
+        Query query = SearchQueries.withFilters(SearchQueries.text(index.analyzer(), text, CASE_FIELDS), filters);
+        return index.search(query, sort(pageable, "createdAt", CREATED_AT), (int) pageable.getOffset(), pageable.getPageSize());
+    }
+
+    void indexAfterCommit(Object entity) {
+        if (entity instanceof com.efile.core.document.Document document) {
+            pending(documentKey(document.getId()), new DocumentChange(document, document.getStatus()));
+        } else if (entity instanceof Case caseEntity) {
+            pending(caseKey(caseEntity.getId()), toEntry(caseEntity));
+        }
+    }
+
+    void removeAfterCommit(Object entity) {
+        if (entity instanceof com.efile.core.document.Document document) {
+            pending(documentKey(document.getId()), null);
+        } else if (entity instanceof Case caseEntity) {
+            pending(caseKey(caseEntity.getId()), null);
+        }
+    }
+
+    // For bulk UPDATE statements, which bypass the entity lifecycle callbacks
+    public void statusChangedAfterCommit(com.efile.core.document.Document document, DocumentStatus status) {
+        pending(documentKey(document.getId()), new DocumentChange(document, status));
+    }
+
+    // For writes that never loaded the entity
+    public void documentChangedAfterCommit(DocumentResponse document) {
+        pending(documentKey(document.id()), document);
+    }
+
+    public void textChangedAfterCommit(com.efile.core.document.Document document) {
+        pending(documentKey(document.getId()), new DocumentChange(document, document.getStatus()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (index.isEmpty() && (documentRepository.count() > 0 || caseRepository.count() > 0)) {
+            logger.info("Search index is empty, rebuilding");
+            startRebuild();
+        }
+    }
+
+    // Rebuilds in the background while the old entries keep answering queries; returns false if one is running
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofPlatform().name("search-rebuild").daemon().start(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                logger.error("Search index rebuild failed", ex);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        long rebuildGeneration = Math.max(generation + 1, started);
+        // Writes committed from here on carry the new generation too, so the sweep below cannot drop them
+        generation = rebuildGeneration;
+        long documents = 0;
+        long afterId = 0;
+        List<com.efile.core.document.Document> documentPage;
+        do {
+            documentPage = documentRepository.findPageAfter(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            Map<Long, String> texts = extractedTexts(documentPage.stream().map(com.efile.core.document.Document::getId).toList());
+            for (com.efile.core.document.Document document : documentPage) {
+                index.update(documentKey(document.getId()), toEntry(document, document.getStatus(), texts.get(document.getId())));
+                afterId = document.getId();
+            }
+            documents += documentPage.size();
+        } while (documentPage.size() == REBUILD_PAGE_SIZE);
+        long cases = 0;
+        afterId = 0;
+        List<Case> casePage;
+        do {
+            casePage = caseRepository.findPageAfter(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Case caseEntity : casePage) {
+                index.update(caseKey(caseEntity.getId()), toEntry(caseEntity));
+                afterId = caseEntity.getId();
+            }
+            cases += casePage.size();
+        } while (casePage.size() == REBUILD_PAGE_SIZE);
+        index.deleteOlderGenerations(rebuildGeneration);
+        index.commit();
+        logger.info("Search index rebuilt: {} documents, {} cases in {} ms", documents, cases, System.currentTimeMillis() - started);
+    }
+
+    // change is an index entry, a DocumentChange or DocumentResponse whose entry is built before commit, or null for a deletion
+    private void pending(String key, Object change) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            index.apply(resolve(Collections.singletonMap(key, change)));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+            entityManager.unwrap(SessionImplementor.class).getActionQueue().registerProcess(pending);
+        }
+        // Later changes to the same row in one transaction replace earlier ones
+        pending.changes.put(key, change);
+    }
+
+    // Building entries after commit would need a second connection per writer while the first is still held.
+    // Hibernate runs this after its commit-time flush, so every change is in, but before the connection commits;
+    // the entries only reach Lucene once the commit has succeeded.
+    private final class PendingChanges implements BeforeTransactionCompletionProcess, TransactionSynchronization {
+
+        private final Map<String, Object> changes = new LinkedHashMap<>();
+        private Map<String, Document> entries = Map.of();
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            try {
+                entries = resolve(changes);
+            } catch (RuntimeException ex) {
+                // Indexing must not undo the write; a rebuild brings the index back in line
+                logger.error("Failed to build search index entries", ex);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            try {
+                index.apply(entries);
+            } catch (RuntimeException ex) {
+                logger.error("Failed to apply committed changes to the search index", ex);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SearchIndexer.this);
+        }
+    }
+
+    private Map<String, Document> resolve(Map<String, Object> changes) {
+        List<Long> documentIds = changes.values().stream()
+            .map(change -> change instanceof DocumentChange documentChange ? documentChange.document().getId()
+                : change instanceof DocumentResponse response ? response.id() : null)
+            .filter(Objects::nonNull)
+            .toList();
+        Map<Long, String> texts = extractedTexts(documentIds);
+        Map<String, Document> entries = new LinkedHashMap<>();
+        changes.forEach((key, change) -> {
+            if (change instanceof DocumentChange documentChange) {
+                com.efile.core.document.Document document = documentChange.document();
+                entries.put(key, toEntry(document, documentChange.status(), texts.get(document.getId())));
+            } else if (change instanceof DocumentResponse response) {
+                entries.put(key, toEntry(response.id(), response.title(), response.type(), response.status(),
+                    response.caseId(), response.uploadedAt(), texts.get(response.id())));
+            } else {
+                entries.put(key, (Document) change);
+            }
+        });
+        return entries;
+    }
+
+    // Read in small batches since a single text can run to a megabyte
+    private Map<Long, String> extractedTexts(List<Long> documentIds) {
+        if (documentIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> texts = new HashMap<>();
+        readTransaction.executeWithoutResult(status -> {
+            for (int from = 0; from < documentIds.size(); from += TEXT_BATCH_SIZE) {
+                List<Long> batch = documentIds.subList(from, Math.min(from + TEXT_BATCH_SIZE, documentIds.size()));
+                for (DocumentText text : textRepository.findByDocumentIdInAndStatus(batch, ExtractionStatus.EXTRACTED)) {
+                    texts.put(text.getDocumentId(), text.getContent());
+                }
+            }
+        });
+        return texts;
+    }
+
+    private Document toEntry(com.efile.core.document.Document document, DocumentStatus status, String text) {
+        Long caseId = document.getCaseRef() == null ? null : document.getCaseRef().getId();
+        return toEntry(document.getId(), document.getTitle(), document.getType(), status, caseId, document.getUploadedAt(), text);
+    }
+
+    private Document toEntry(
+        Long id, String title, DocumentType type, DocumentStatus status, Long caseId, Instant uploadedAt, String text
+    ) {
+        Document entry = base(DOCUMENT, documentKey(id), id);
+        entry.add(new TextField(TITLE, Objects.toString(title, ""), Field.Store.NO));
+        if (text != null) {
+            entry.add(new TextField(BODY, text, Field.Store.NO));
+        }
+        entry.add(new StringField(STATUS, String.valueOf(status), Field.Store.NO));
+        entry.add(new StringField(TYPE, String.valueOf(type), Field.Store.NO));
+        if (caseId != null) {
+            entry.add(new StringField(CASE_ID, String.valueOf(caseId), Field.Store.NO));
+        }
+        addTimestamp(entry, UPLOADED_AT, uploadedAt);
+        return entry;
+    }
+
+    private Document toEntry(Case caseEntity) {
+        Document entry = base(CASE, caseKey(caseEntity.getId()), caseEntity.getId());
+        entry.add(new TextField(TITLE, Objects.toString(caseEntity.getTitle(), ""), Field.Store.NO));
+        // Tags are stored as a JSON array; the analyzer drops the punctuation
+        String body = Objects.toString(caseEntity.getDescription(), "") + " " + Objects.toString(caseEntity.getTags(), "");
+        entry.add(new TextField(BODY, body, Field.Store.NO));
+        entry.add(new StringField(STATUS, String.valueOf(caseEntity.getStatus()), Field.Store.NO));
+        entry.add(new StringField(CATEGORY, String.valueOf(caseEntity.getCategory()), Field.Store.NO));
+        if (caseEntity.getCreatedBy() != null) {
+            entry.add(new StringField(CREATED_BY, String.valueOf(caseEntity.getCreatedBy().getId()), Field.Store.NO));
+        }
+        if (caseEntity.getAssignedTo() != null) {
+            entry.add(new StringField(ASSIGNED_TO, String.valueOf(caseEntity.getAssignedTo().getId()), Field.Store.NO));
+        }
+        addTimestamp(entry, CREATED_AT, caseEntity.getCreatedAt());
+        return entry;
+    }
+
+    private Document base(String kind, String key, Long id) {
+        Document entry = new Document();
+        entry.add(new StringField(SearchIndex.KEY, key, Field.Store.NO));
+        entry.add(new StringField(KIND, kind, Field.Store.NO));
+        entry.add(new StoredField(SearchIndex.ID, id));
+        entry.add(new LongPoint(SearchIndex.GENERATION, generation));
+        return entry;
+    }
+
+    private void addTimestamp(Document entry, String field, Instant value) {
+        long millis = (value == null ? Instant.now() : value).toEpochMilli();
+        entry.add(new LongPoint(field, millis));
+        entry.add(new NumericDocValuesField(field, millis));
+    }
+
+    // Relevance unless the caller sorted on the timestamp the index keeps doc values for
+    private Sort sort(Pageable pageable, String property, String field) {
+        org.springframework.data.domain.Sort.Order order = pageable.getSort().getOrderFor(property);
+        if (order == null) {
+            return null;
+        }
+        return new Sort(new SortField(field, SortField.Type.LONG, order.isDescending()));
+    }
+
+    private static String documentKey(Long id) {
+        return DOCUMENT + ":" + id;
+    }
+
+    private static String caseKey(Long id) {
+        return CASE + ":" + id;
+    }
+}
@@ -0,0 +1,108 @@
+package com.efile.core.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+// Turns search-box input into a Lucene query: "quoted text" must match as a phrase, every other word must
+// match either exactly or as a prefix (so results show up while the user is still typing), and exact matches
+// and the boosted fields rank first.
+final class SearchQueries {
+
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+    private static final float EXACT_BOOST = 2f;
+
+    private SearchQueries() {
+    }
+
+    static Query text(Analyzer analyzer, String input, Map<String, Float> fields) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        int clauses = 0;
+        Matcher matcher = PHRASE.matcher(input);
+        StringBuilder loose = new StringBuilder();
+        int last = 0;
+        while (matcher.find()) {
+            loose.append(input, last, matcher.start()).append(' ');
+            last = matcher.end();
+            List<String> tokens = analyze(analyzer, matcher.group(1));
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            fields.forEach((field, boost) -> anyField.add(boost(phrase(field, tokens), boost), BooleanClause.Occur.SHOULD));
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+            clauses++;
+        }
+        loose.append(input.substring(last));
+        for (String token : analyze(analyzer, loose.toString())) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            fields.forEach((field, boost) -> {
+                anyField.add(boost(new TermQuery(new Term(field, token)), boost * EXACT_BOOST), BooleanClause.Occur.SHOULD);
+                anyField.add(boost(new PrefixQuery(new Term(field, token)), boost), BooleanClause.Occur.SHOULD);
+            });
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+            clauses++;
+        }
+        return clauses == 0 ? new MatchNoDocsQuery("No searchable terms") : query.build();
+    }
+
+    static Query withFilters(Query query, List<Query> filters) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(query, BooleanClause.Occur.MUST);
+        // FILTER clauses restrict the hits without affecting their scores
+        filters.forEach(filter -> builder.add(filter, BooleanClause.Occur.FILTER));
+        return builder.build();
+    }
+
+    static Query exact(String field, Object value) {
+        return new TermQuery(new Term(field, String.valueOf(value)));
+    }
+
+    static Query range(String field, Long from, Long to) {
+        return LongPoint.newRangeQuery(field, from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to);
+    }
+
+    private static Query phrase(String field, List<String> tokens) {
+        if (tokens.size() == 1) {
+            return new TermQuery(new Term(field, tokens.get(0)));
+        }
+        PhraseQuery.Builder phrase = new PhraseQuery.Builder();
+        tokens.forEach(token -> phrase.add(new Term(field, token)));
+        return phrase.build();
+    }
+
+    private static Query boost(Query query, float boost) {
+        return boost == 1f ? query : new BoostQuery(query, boost);
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return tokens;
+    }
+}
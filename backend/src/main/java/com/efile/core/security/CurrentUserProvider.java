@@ -0,0 +1,53 @@
+package com.efile.core.security;
+
+import com.efile.core.user.User;
+import com.efile.core.user.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import java.util.Optional;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Resolves the authenticated User once per request. The JWT filter already loads the entity (with its
+// department) to authenticate the caller, so that instance is reused; otherwise the first lookup is cached
+// on the request. The entity is detached once its loading transaction ends: read its fields or use it as an
+// association, but reload it before changing the user itself.
+@Component
+public class CurrentUserProvider {
+
+    private static final String USER_ATTRIBUTE = CurrentUserProvider.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserProvider(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public User get() {
+        return find().orElseThrow(() -> new IllegalStateException("No authenticated user"));
+    }
+
+    // Empty when the caller is anonymous; a principal whose user row has gone is still an error
+    public Optional<User> find() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return Optional.empty();
+        }
+        if (principal.user() != null) {
+            return Optional.of(principal.user());
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User cached
+            && cached.getId().equals(principal.getId())) {
+            return Optional.of(cached);
+        }
+        User user = userRepository.findWithDepartmentById(principal.getId())
+            .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+        if (request != null) {
+            request.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.of(user);
+    }
+}
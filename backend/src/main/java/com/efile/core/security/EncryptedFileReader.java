@@ -0,0 +1,175 @@
+package com.efile.core.security;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+public class EncryptedFileReader implements Closeable {
+
+    private final FileChannel channel;
+    private final long regionOffset;
+    private final SecretKey key;
+    private final Cipher cipher;
+    private final int segmentSize;
+    private final byte[] noncePrefix;
+    private final byte[] header;
+    private final long regionLength;
+    private final int segmentCount;
+    private final long plaintextLength;
+    private final ByteBuffer sealed;
+    private final ByteBuffer opened;
+
+    // A negative length means the region runs to the end of the file
+    EncryptedFileReader(Path file, long offset, long length, SecretKey masterKey) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.regionOffset = offset;
+        try {
+            this.header = new byte[SegmentedEncryption.HEADER_LENGTH];
+            readFully(ByteBuffer.wrap(header), 0);
+            ByteBuffer fields = ByteBuffer.wrap(header);
+            byte[] magic = new byte[SegmentedEncryption.MAGIC.length];
+            fields.get(magic);
+            if (!Arrays.equals(magic, SegmentedEncryption.MAGIC)) {
+                throw new IOException("Not an encrypted file: " + file.getFileName());
+            }
+            this.segmentSize = fields.getInt();
+            byte[] salt = new byte[SegmentedEncryption.SALT_LENGTH];
+            fields.get(salt);
+            this.noncePrefix = new byte[SegmentedEncryption.NONCE_PREFIX_LENGTH];
+            fields.get(noncePrefix);
+            this.regionLength = length < 0 ? channel.size() - offset : length;
+            long sealedLength = regionLength - SegmentedEncryption.HEADER_LENGTH;
+            long sealedSegment = (long) segmentSize + SegmentedEncryption.TAG_LENGTH;
+            if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE - SegmentedEncryption.TAG_LENGTH) {
+                throw new IOException("Corrupt encrypted file header: " + file.getFileName());
+            }
+            if (sealedLength < SegmentedEncryption.TAG_LENGTH) {
+                throw new IOException("Truncated encrypted file: " + file.getFileName());
+            }
+            this.segmentCount = (int) Math.max(1, (sealedLength + sealedSegment - 1) / sealedSegment);
+            this.plaintextLength = sealedLength - (long) segmentCount * SegmentedEncryption.TAG_LENGTH;
+            this.key = SegmentedEncryption.fileKey(masterKey, salt);
+            this.cipher = Cipher.getInstance(SegmentedEncryption.ALGORITHM);
+            // The header is only authenticated once a segment is opened, so its size is not trusted beyond the file's
+            int bufferLength = (int) Math.min(sealedSegment, sealedLength);
+            this.sealed = ByteBuffer.allocate(bufferLength);
+            this.opened = ByteBuffer.allocate(bufferLength - SegmentedEncryption.TAG_LENGTH);
+        } catch (IOException | GeneralSecurityException | RuntimeException ex) {
+            channel.close();
+            if (ex instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Could not open encrypted file " + file.getFileName(), ex);
+        }
+    }
+
+    public long plaintextLength() {
+        return plaintextLength;
+    }
+
+    // Only the segments overlapping the range are read and authenticated
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        long remaining = count;
+        long offset = position;
+        while (remaining > 0) {
+            int index = (int) (offset / segmentSize);
+            ByteBuffer segment = openSegment(index);
+            segment.position((int) (offset - (long) index * segmentSize));
+            if (segment.remaining() == 0) {
+                throw new IOException("Range exceeds encrypted content");
+            }
+            if (segment.remaining() > remaining) {
+                segment.limit(segment.position() + (int) remaining);
+            }
+            int length = segment.remaining();
+            while (segment.hasRemaining()) {
+                target.write(segment);
+            }
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    public InputStream openStream() {
+        return new InputStream() {
+            private int nextSegment;
+            private ByteBuffer current = ByteBuffer.allocate(0);
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                while (!current.hasRemaining()) {
+                    if (nextSegment >= segmentCount) {
+                        return -1;
+                    }
+                    current = openSegment(nextSegment++);
+                }
+                int count = Math.min(len, current.remaining());
+                current.get(b, off, count);
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                EncryptedFileReader.this.close();
+            }
+        };
+    }
+
+    private ByteBuffer openSegment(int index) throws IOException {
+        if (index >= segmentCount) {
+            throw new IOException("Range exceeds encrypted content");
+        }
+        long sealedSegment = (long) segmentSize + SegmentedEncryption.TAG_LENGTH;
+        long start = SegmentedEncryption.HEADER_LENGTH + index * sealedSegment;
+        int length = (int) Math.min(sealedSegment, regionLength - start);
+        sealed.clear().limit(length);
+        readFully(sealed, start);
+        sealed.flip();
+        opened.clear();
+        try {
+            byte[] nonce = SegmentedEncryption.nonce(noncePrefix, index, index == segmentCount - 1);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(SegmentedEncryption.TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(header);
+            cipher.doFinal(sealed, opened);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("Encrypted segment " + index + " failed authentication", ex);
+        }
+        opened.flip();
+        return opened;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = regionOffset + position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read == -1) {
+                throw new IOException("Unexpected end of encrypted file");
+            }
+            offset += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
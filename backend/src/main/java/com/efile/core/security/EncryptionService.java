@@ -1,6 +1,9 @@
 package com.efile.core.security;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.util.Base64;
 import javax.crypto.Cipher;
@@ -19,14 +22,18 @@ public class EncryptionService {
     private static final int GCM_IV_LENGTH = 12;
 
     private final SecretKey secretKey;
+    private final boolean keyConfigured;
+    private final SecureRandom secureRandom = new SecureRandom();
 
     public EncryptionService(@Value("${app.encryption.key:}") String encryptionKey) {
         if (encryptionKey == null || encryptionKey.isEmpty()) {
             // Generate a key if not provided (for development)
             this.secretKey = generateKey();
+            this.keyConfigured = false;
         } else {
             byte[] decodedKey = Base64.getDecoder().decode(encryptionKey);
             this.secretKey = new SecretKeySpec(decodedKey, 0, decodedKey.length, "AES");
+            this.keyConfigured = true;
         }
     }
 
@@ -75,6 +82,23 @@ public class EncryptionService {
         }
     }
 
+    // A generated key dies with the process, which is fine for strings in tests but not for files at rest
+    public boolean isKeyConfigured() {
+        return keyConfigured;
+    }
+
+    public OutputStream encryptingStream(OutputStream out, int segmentSize) throws IOException {
+        return new SegmentedEncryptingOutputStream(out, secretKey, segmentSize, secureRandom);
+    }
+
+    public EncryptedFileReader openEncryptedFile(Path file) throws IOException {
+        return new EncryptedFileReader(file, 0, -1, secretKey);
+    }
+
+    public EncryptedFileReader openEncryptedFile(Path file, long offset, long length) throws IOException {
+        return new EncryptedFileReader(file, offset, length, secretKey);
+    }
+
     private SecretKey generateKey() {
         try {
             KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
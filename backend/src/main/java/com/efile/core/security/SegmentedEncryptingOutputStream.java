@@ -0,0 +1,89 @@
+package com.efile.core.security;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+class SegmentedEncryptingOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final SecretKey key;
+    private final Cipher cipher;
+    private final byte[] noncePrefix;
+    private final byte[] header;
+    private final byte[] plaintext;
+    private final byte[] ciphertext;
+    private int filled;
+    private int segmentIndex;
+    private boolean closed;
+
+    SegmentedEncryptingOutputStream(OutputStream out, SecretKey masterKey, int segmentSize, SecureRandom random) throws IOException {
+        this.out = out;
+        byte[] salt = new byte[SegmentedEncryption.SALT_LENGTH];
+        random.nextBytes(salt);
+        this.noncePrefix = new byte[SegmentedEncryption.NONCE_PREFIX_LENGTH];
+        random.nextBytes(noncePrefix);
+        this.header = SegmentedEncryption.header(segmentSize, salt, noncePrefix);
+        this.plaintext = new byte[segmentSize];
+        this.ciphertext = new byte[segmentSize + SegmentedEncryption.TAG_LENGTH];
+        try {
+            this.key = SegmentedEncryption.fileKey(masterKey, salt);
+            this.cipher = Cipher.getInstance(SegmentedEncryption.ALGORITHM);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("AES-GCM not available", ex);
+        }
+        out.write(header);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            // A full buffer is only sealed once more data arrives, so the final segment is always known when it is written
+            if (filled == plaintext.length) {
+                sealSegment(false);
+            }
+            int count = Math.min(len, plaintext.length - filled);
+            System.arraycopy(b, off, plaintext, filled, count);
+            filled += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            sealSegment(true);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void sealSegment(boolean last) throws IOException {
+        try {
+            byte[] nonce = SegmentedEncryption.nonce(noncePrefix, segmentIndex, last);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(SegmentedEncryption.TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(header);
+            int length = cipher.doFinal(ByteBuffer.wrap(plaintext, 0, filled), ByteBuffer.wrap(ciphertext));
+            out.write(ciphertext, 0, length);
+        } catch (GeneralSecurityException ex) {
+            throw new IOException("Failed to encrypt segment " + segmentIndex, ex);
+        }
+        filled = 0;
+        segmentIndex++;
+    }
+}
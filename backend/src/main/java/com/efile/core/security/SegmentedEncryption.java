@@ -0,0 +1,59 @@
+package com.efile.core.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+// File layout: MAGIC | segment size (int) | salt (32 bytes) | nonce prefix (7 bytes) | sealed segments.
+// Every file is sealed under its own key, HKDF-SHA256(master key, salt), so the short random nonce prefix only
+// has to be unique within one file. Each segment is sealed on its own with nonce = prefix | segment index |
+// last flag and the header as associated data, so any segment can be opened alone, and editing the header or
+// truncating or reordering segments fails authentication.
+final class SegmentedEncryption {
+
+    static final String ALGORITHM = "AES/GCM/NoPadding";
+    static final byte[] MAGIC = "EFS2".getBytes(StandardCharsets.US_ASCII);
+    static final int SALT_LENGTH = 32;
+    static final int NONCE_PREFIX_LENGTH = 7;
+    static final int TAG_LENGTH = 16;
+    static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES + SALT_LENGTH + NONCE_PREFIX_LENGTH;
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int FILE_KEY_LENGTH = 32;
+    private static final byte[] KEY_INFO = "efile segmented file key".getBytes(StandardCharsets.US_ASCII);
+
+    private SegmentedEncryption() {
+    }
+
+    static byte[] header(int segmentSize, byte[] salt, byte[] noncePrefix) {
+        return ByteBuffer.allocate(HEADER_LENGTH)
+            .put(MAGIC)
+            .putInt(segmentSize)
+            .put(salt)
+            .put(noncePrefix)
+            .array();
+    }
+
+    static byte[] nonce(byte[] noncePrefix, int segmentIndex, boolean last) {
+        return ByteBuffer.allocate(NONCE_PREFIX_LENGTH + Integer.BYTES + 1)
+            .put(noncePrefix)
+            .putInt(segmentIndex)
+            .put((byte) (last ? 1 : 0))
+            .array();
+    }
+
+    // HKDF (RFC 5869) with SHA-256; one expand block covers the 32-byte key
+    static SecretKey fileKey(SecretKey masterKey, byte[] salt) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC);
+        mac.init(new SecretKeySpec(salt, HMAC));
+        byte[] pseudoRandomKey = mac.doFinal(masterKey.getEncoded());
+        mac.init(new SecretKeySpec(pseudoRandomKey, HMAC));
+        mac.update(KEY_INFO);
+        mac.update((byte) 1);
+        byte[] okm = mac.doFinal();
+        return new SecretKeySpec(okm, 0, FILE_KEY_LENGTH, "AES");
+    }
+}
@@ -18,7 +18,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository
-            .findByEmailIgnoreCase(username)
+            .findWithDepartmentByEmailIgnoreCase(username)
             .map(UserPrincipal::from)
             .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
@@ -0,0 +1,64 @@
+package com.efile.core.security;
+
+import com.efile.core.user.UserRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Opt-in (app.current-user.metrics-enabled) count of UserRepository calls per request, including the JWT
+// filter's own lookup. Requests that needed more than one are logged at WARN so a service that starts loading
+// the caller itself again, instead of going through CurrentUserProvider, shows up in the logs.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.current-user.metrics-enabled", havingValue = "true")
+public class UserLookupMetrics extends OncePerRequestFilter implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLookupMetrics.class);
+    private static final String COUNTER_ATTRIBUTE = UserLookupMetrics.class.getName() + ".lookups";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        AtomicInteger lookups = new AtomicInteger();
+        request.setAttribute(COUNTER_ATTRIBUTE, lookups);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = lookups.get();
+            if (count > 1) {
+                logger.warn("{} {} made {} user repository calls", request.getMethod(), request.getRequestURI(), count);
+            } else {
+                logger.debug("{} {} made {} user repository calls", request.getMethod(), request.getRequestURI(), count);
+            }
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof UserRepository && bean instanceof Advised advised) {
+            advised.addAdvice(0, (MethodInterceptor) invocation -> {
+                RequestAttributes request = RequestContextHolder.getRequestAttributes();
+                if (request != null && request.getAttribute(COUNTER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof AtomicInteger lookups) {
+                    lookups.incrementAndGet();
+                }
+                return invocation.proceed();
+            });
+        }
+        return bean;
+    }
+}
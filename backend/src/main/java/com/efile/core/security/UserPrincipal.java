@@ -14,13 +14,20 @@ public class UserPrincipal implements UserDetails {
     private final String password;
     private final String role;
     private final boolean active;
+    // The entity loaded during authentication, handed to CurrentUserProvider so services need not reload it
+    private final transient User user;
 
     public UserPrincipal(Long id, String email, String password, String role, boolean active) {
+        this(id, email, password, role, active, null);
+    }
+
+    private UserPrincipal(Long id, String email, String password, String role, boolean active, User user) {
         this.id = id;
         this.email = email;
         this.password = password;
         this.role = role;
         this.active = active;
+        this.user = user;
     }
 
     public static UserPrincipal from(User user) {
@@ -29,7 +36,8 @@ public class UserPrincipal implements UserDetails {
             user.getEmail(),
             user.getPasswordHash(),
             user.getRole().name(),
-            user.isActive()
+            user.isActive(),
+            user
         );
     }
 
@@ -37,6 +45,10 @@ public class UserPrincipal implements UserDetails {
         return id;
     }
 
+    User user() {
+        return user;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + role));
@@ -0,0 +1,57 @@
+package com.efile.core.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+class DecodedContent implements StoredContent {
+
+    private final StoredContent source;
+    private final long length;
+    private final StorageCodec codec;
+    private final StoredContent encodedForm;
+
+    DecodedContent(StoredContent source, long length, StorageCodec codec, StoredContent encodedForm) {
+        this.source = source;
+        this.length = length;
+        this.codec = codec;
+        this.encodedForm = encodedForm;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        // Compressed streams have no random access, so a range costs a decode up to its end
+        try (InputStream in = openStream()) {
+            in.skipNBytes(position);
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = count;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IOException("Unexpected end of decoded content");
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    target.write(chunk);
+                }
+                remaining -= read;
+            }
+        }
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return codec.decode(source.openStream());
+    }
+
+    @Override
+    public StoredContent encodedForm() {
+        return encodedForm;
+    }
+}
@@ -0,0 +1,52 @@
+package com.efile.core.storage;
+
+import com.efile.core.security.EncryptedFileReader;
+import com.efile.core.security.EncryptionService;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+class EncryptedContent implements StoredContent {
+
+    private final Path file;
+    private final long offset;
+    private final long storedLength;
+    private final EncryptionService encryptionService;
+    private final long length;
+    private final String contentEncoding;
+
+    EncryptedContent(Path file, long offset, long storedLength, EncryptionService encryptionService, String contentEncoding)
+        throws IOException {
+        this.file = file;
+        this.offset = offset;
+        this.storedLength = storedLength;
+        this.encryptionService = encryptionService;
+        this.contentEncoding = contentEncoding;
+        try (EncryptedFileReader reader = encryptionService.openEncryptedFile(file, offset, storedLength)) {
+            this.length = reader.plaintextLength();
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        try (EncryptedFileReader reader = encryptionService.openEncryptedFile(file, offset, storedLength)) {
+            reader.transferTo(position, count, target);
+        }
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        return encryptionService.openEncryptedFile(file, offset, storedLength).openStream();
+    }
+
+    @Override
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+}
@@ -0,0 +1,106 @@
+package com.efile.core.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class FileContent implements StoredContent {
+
+    private final Path file;
+    private final long offset;
+    private final long length;
+    private final String contentEncoding;
+
+    FileContent(Path file, long length) {
+        this(file, 0, length, null);
+    }
+
+    FileContent(Path file, long offset, long length, String contentEncoding) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.contentEncoding = contentEncoding;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+            // transferTo may move fewer bytes than requested, so loop until the range is drained
+            while (transferred < count) {
+                long written = channel.transferTo(offset + position + transferred, count - transferred, target);
+                if (written <= 0) {
+                    throw new IOException("Unexpected end of file " + file.getFileName());
+                }
+                transferred += written;
+            }
+        }
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+        if (offset == 0) {
+            return Files.newInputStream(file);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(offset);
+        InputStream in = Channels.newInputStream(channel);
+        return new InputStream() {
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = in.read();
+                if (b != -1) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = in.read(b, off, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+        };
+    }
+
+    @Override
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public Path directFile() {
+        return file;
+    }
+
+    @Override
+    public long directOffset() {
+        return offset;
+    }
+}
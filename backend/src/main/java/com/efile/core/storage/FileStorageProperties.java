@@ -1,7 +1,9 @@
 package com.efile.core.storage;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 
 @Component
 @ConfigurationProperties(prefix = "file.storage")
@@ -9,6 +11,38 @@ public class FileStorageProperties {
 
     private String basePath = "uploads";
 
+    private boolean contentAddressed = false;
+
+    private boolean compressionEnabled = false;
+
+    private double compressionMinSavings = 0.05;
+
+    private boolean serveCompressed = true;
+
+    private boolean encryptionEnabled = false;
+
+    private DataSize encryptionSegmentSize = DataSize.ofKilobytes(64);
+
+    private boolean packEnabled = false;
+
+    private DataSize packThreshold = DataSize.ofKilobytes(128);
+
+    private DataSize packSegmentSize = DataSize.ofGigabytes(1);
+
+    private double packCompactionGarbageRatio = 0.3;
+
+    private Duration packCompactionInterval = Duration.ofHours(1);
+
+    private int scrubThreads = 4;
+
+    private DataSize scrubMaxBytesPerSecond = DataSize.ofMegabytes(100);
+
+    private DataSize chunkSize = DataSize.ofMegabytes(8);
+
+    private DataSize maxChunkedUploadSize = DataSize.ofGigabytes(2);
+
+    private Duration uploadSessionTtl = Duration.ofHours(24);
+
     public String getBasePath() {
         return basePath;
     }
@@ -16,4 +50,132 @@ public class FileStorageProperties {
     public void setBasePath(String basePath) {
         this.basePath = basePath;
     }
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    public void setContentAddressed(boolean contentAddressed) {
+        this.contentAddressed = contentAddressed;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public double getCompressionMinSavings() {
+        return compressionMinSavings;
+    }
+
+    public void setCompressionMinSavings(double compressionMinSavings) {
+        this.compressionMinSavings = compressionMinSavings;
+    }
+
+    public boolean isServeCompressed() {
+        return serveCompressed;
+    }
+
+    public void setServeCompressed(boolean serveCompressed) {
+        this.serveCompressed = serveCompressed;
+    }
+
+    public boolean isEncryptionEnabled() {
+        return encryptionEnabled;
+    }
+
+    public void setEncryptionEnabled(boolean encryptionEnabled) {
+        this.encryptionEnabled = encryptionEnabled;
+    }
+
+    public DataSize getEncryptionSegmentSize() {
+        return encryptionSegmentSize;
+    }
+
+    public void setEncryptionSegmentSize(DataSize encryptionSegmentSize) {
+        this.encryptionSegmentSize = encryptionSegmentSize;
+    }
+
+    public boolean isPackEnabled() {
+        return packEnabled;
+    }
+
+    public void setPackEnabled(boolean packEnabled) {
+        this.packEnabled = packEnabled;
+    }
+
+    public DataSize getPackThreshold() {
+        return packThreshold;
+    }
+
+    public void setPackThreshold(DataSize packThreshold) {
+        this.packThreshold = packThreshold;
+    }
+
+    public DataSize getPackSegmentSize() {
+        return packSegmentSize;
+    }
+
+    public void setPackSegmentSize(DataSize packSegmentSize) {
+        this.packSegmentSize = packSegmentSize;
+    }
+
+    public double getPackCompactionGarbageRatio() {
+        return packCompactionGarbageRatio;
+    }
+
+    public void setPackCompactionGarbageRatio(double packCompactionGarbageRatio) {
+        this.packCompactionGarbageRatio = packCompactionGarbageRatio;
+    }
+
+    public Duration getPackCompactionInterval() {
+        return packCompactionInterval;
+    }
+
+    public void setPackCompactionInterval(Duration packCompactionInterval) {
+        this.packCompactionInterval = packCompactionInterval;
+    }
+
+    public int getScrubThreads() {
+        return scrubThreads;
+    }
+
+    public void setScrubThreads(int scrubThreads) {
+        this.scrubThreads = scrubThreads;
+    }
+
+    public DataSize getScrubMaxBytesPerSecond() {
+        return scrubMaxBytesPerSecond;
+    }
+
+    public void setScrubMaxBytesPerSecond(DataSize scrubMaxBytesPerSecond) {
+        this.scrubMaxBytesPerSecond = scrubMaxBytesPerSecond;
+    }
+
+    public DataSize getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(DataSize chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public DataSize getMaxChunkedUploadSize() {
+        return maxChunkedUploadSize;
+    }
+
+    public void setMaxChunkedUploadSize(DataSize maxChunkedUploadSize) {
+        this.maxChunkedUploadSize = maxChunkedUploadSize;
+    }
+
+    public Duration getUploadSessionTtl() {
+        return uploadSessionTtl;
+    }
+
+    public void setUploadSessionTtl(Duration uploadSessionTtl) {
+        this.uploadSessionTtl = uploadSessionTtl;
+    }
 }
@@ -1,17 +1,42 @@
 package com.efile.core.storage;
 
+import com.efile.core.security.EncryptionService;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.springframework.core.io.AbstractResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -20,73 +45,538 @@ public class FileStorageService {
 
     private static final Set<String> ALLOWED_EXTENSIONS = Set.of("pdf", "docx", "xlsx", "png");
     private static final long MAX_FILE_SIZE_BYTES = 10L * 1024 * 1024;
+    private static final String MAX_FILE_SIZE_MESSAGE = "File exceeds maximum allowed size of 10MB";
+    private static final byte[] ZIP_SIGNATURE = {0x50, 0x4B, 0x03, 0x04};
+    private static final Map<String, byte[]> FILE_SIGNATURES = Map.of(
+        "pdf", "%PDF-".getBytes(StandardCharsets.US_ASCII),
+        "png", new byte[] {(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A},
+        "docx", ZIP_SIGNATURE,
+        "xlsx", ZIP_SIGNATURE
+    );
+    // PNG payloads are already deflated; PDFs and the XML parts of Office files usually still shrink
+    private static final Map<String, StorageCodec> EXTENSION_CODECS = Map.of(
+        "pdf", StorageCodec.GZIP,
+        "docx", StorageCodec.GZIP,
+        "xlsx", StorageCodec.GZIP,
+        "png", StorageCodec.NONE
+    );
+    private static final String CONTENT_ADDRESSED_ROOT = "cas";
+    private static final String TEMP_DIRECTORY = ".tmp";
+    private static final String CHUNK_DIRECTORY = "chunks";
     private final Path baseDirectory;
+    private final Path tempDirectory;
+    private final boolean contentAddressed;
+    private final boolean compressionEnabled;
+    private final double compressionMinSavings;
+    private final boolean serveCompressed;
+    private final boolean encryptionEnabled;
+    private final int encryptionSegmentSize;
+    private final StoredBlobRepository blobRepository;
+    private final EncryptionService encryptionService;
+    private final PackStore packStore;
 
-    public FileStorageService(FileStorageProperties properties) {
+    public FileStorageService(
+        FileStorageProperties properties,
+        StoredBlobRepository blobRepository,
+        EncryptionService encryptionService,
+        PackStore packStore
+    ) {
         String location = properties.getBasePath();
         this.baseDirectory = Paths.get(location).toAbsolutePath().normalize();
+        this.tempDirectory = baseDirectory.resolve(TEMP_DIRECTORY);
+        this.contentAddressed = properties.isContentAddressed();
+        this.compressionEnabled = properties.isCompressionEnabled();
+        this.compressionMinSavings = properties.getCompressionMinSavings();
+        this.serveCompressed = properties.isServeCompressed();
+        this.encryptionEnabled = properties.isEncryptionEnabled();
+        this.encryptionSegmentSize = Math.toIntExact(properties.getEncryptionSegmentSize().toBytes());
+        this.blobRepository = blobRepository;
+        this.encryptionService = encryptionService;
+        this.packStore = packStore;
+        if (encryptionEnabled && !encryptionService.isKeyConfigured()) {
+            // A generated key would leave every file written by this process unreadable after a restart
+            throw new IllegalStateException("file.storage.encryption-enabled requires app.encryption.key to be set");
+        }
         try {
             Files.createDirectories(this.baseDirectory);
+            Files.createDirectories(this.tempDirectory);
         } catch (IOException ex) {
             throw new FileStorageException("Could not create base upload directory", ex);
         }
     }
 
-    public String store(MultipartFile file, Long caseId) {
+    public StagedFile stage(MultipartFile file) {
         validateFile(file);
-        String extension = extractExtension(file.getOriginalFilename());
-        String filename = UUID.randomUUID() + "." + extension;
-        LocalDate today = LocalDate.now();
-        Path targetDirectory = baseDirectory.resolve(Paths.get(
-            String.valueOf(today.getYear()),
-            String.format("%02d", today.getMonthValue()),
-            caseId == null ? "general" : caseId.toString()
-        ));
+        try (InputStream in = file.getInputStream()) {
+            return stage(in, file.getOriginalFilename());
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to store file", ex);
+        }
+    }
+
+    // Writes the upload next to its final location without touching the database, so slow
+    // clients never hold a connection; commit() then publishes it with a rename
+    public StagedFile stage(InputStream content, String originalFilename) {
+        String extension = extractExtension(originalFilename);
+        return stage(content, extension, MAX_FILE_SIZE_BYTES);
+    }
+
+    private StagedFile stage(InputStream content, String extension, long maxSize) {
+        StorageCodec codec = codecFor(extension);
+        Path tempFile = null;
         try {
-            Files.createDirectories(targetDirectory);
-            Path targetFile = targetDirectory.resolve(filename);
-            Files.copy(file.getInputStream(), targetFile, StandardCopyOption.REPLACE_EXISTING);
-            Path relative = baseDirectory.relativize(targetFile);
-            return relative.toString().replace('\\', '/');
+            tempFile = Files.createTempFile(tempDirectory, "upload-", "." + extension);
+            // Hash, compress and encrypt while copying so the upload is read exactly once
+            MessageDigest digest = newDigest();
+            long size;
+            InputStream checked = new SizeLimitedInputStream(verifySignature(content, extension), maxSize, MAX_FILE_SIZE_MESSAGE);
+            try (InputStream in = new DigestInputStream(checked, digest);
+                 OutputStream out = codec.encode(openSealed(tempFile))) {
+                size = in.transferTo(out);
+            }
+            long storedSize = Files.size(tempFile);
+            if (codec != StorageCodec.NONE && storedSize > size * (1 - compressionMinSavings)) {
+                // Not worth a decode on every read; fall back to the raw bytes
+                Path encoded = tempFile;
+                tempFile = Files.createTempFile(tempDirectory, "upload-", "." + extension);
+                try (InputStream in = codec.decode(openUnsealed(encoded));
+                     OutputStream out = openSealed(tempFile)) {
+                    in.transferTo(out);
+                } finally {
+                    deleteQuietly(encoded);
+                }
+                codec = StorageCodec.NONE;
+                storedSize = Files.size(tempFile);
+            }
+            return new StagedFile(
+                tempFile,
+                extension,
+                size,
+                HexFormat.of().formatHex(digest.digest()),
+                codec,
+                storedSize,
+                encryptionEnabled
+            );
         } catch (IOException ex) {
+            deleteQuietly(tempFile);
             throw new FileStorageException("Failed to store file", ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(tempFile);
+            throw ex;
         }
     }
 
-    public Resource loadAsResource(String storedPath) {
+    @Transactional
+    public StoredFile commit(StagedFile staged, Long caseId) {
+        String relative = contentAddressed
+            ? contentAddressedPath(staged.digest(), staged.extension())
+            : datedPath(caseId, staged.extension());
+        Path targetFile = resolve(relative);
         try {
-            Path absolutePath = baseDirectory.resolve(storedPath).normalize();
-            if (!absolutePath.startsWith(baseDirectory)) {
-                throw new FileStorageException("Invalid file path");
+            // The upsert takes the row lock, so a concurrent delete of the same blob cannot unlink it underneath us
+            boolean inserted = blobRepository.addReference(
+                relative,
+                staged.digest(),
+                staged.size(),
+                staged.codec().name(),
+                staged.storedSize(),
+                staged.encrypted()
+            ) == 1;
+            boolean present = !inserted && (Files.exists(targetFile) || packStore.locate(relative) != null);
+            if (!inserted && !present) {
+                // The row describes a file that is gone; the replacement may be laid out differently
+                blobRepository.updateLayout(relative, staged.codec(), staged.storedSize(), staged.encrypted());
             }
-            Resource resource = new UrlResource(absolutePath.toUri());
-            if (!resource.exists() || !resource.isReadable()) {
+            if (!present) {
+                if (packStore.accepts(staged.storedSize())) {
+                    packStore.append(relative, staged.tempFile());
+                    // A rolled-back upload leaves no row behind, so its index entry would otherwise point at garbage forever
+                    unpackOnCompletion(relative, TransactionSynchronization.STATUS_ROLLED_BACK);
+                    deleteQuietly(staged.tempFile());
+                } else {
+                    Files.createDirectories(targetFile.getParent());
+                    Files.move(staged.tempFile(), targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    if (inserted) {
+                        unlinkOnRollback(targetFile);
+                    }
+                }
+            }
+            return new StoredFile(relative, staged.size(), staged.digest());
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to store file", ex);
+        }
+    }
+
+    public void discard(StagedFile staged) {
+        deleteQuietly(staged.tempFile());
+    }
+
+    public void validateFilename(String originalFilename) {
+        extractExtension(originalFilename);
+    }
+
+    public void allocatePart(String uploadId, long size) {
+        Path part = partPath(uploadId);
+        try {
+            Files.createDirectories(part.getParent());
+            // Sizing the file up front lets chunks land at their final offsets in any order
+            try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+                file.setLength(size);
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not allocate upload", ex);
+        }
+    }
+
+    public void writePart(String uploadId, long position, long length, InputStream content) {
+        Path part = partPath(uploadId);
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(content)) {
+            long written = 0;
+            while (written < length) {
+                long transferred = channel.transferFrom(source, position + written, length - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != length || content.read() != -1) {
+                throw new FileStorageException("Chunk must be exactly " + length + " bytes");
+            }
+        } catch (NoSuchFileException ex) {
+            throw new FileStorageException("Upload not found", ex);
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to write chunk", ex);
+        }
+    }
+
+    public StagedFile adoptPart(String uploadId, String originalFilename) {
+        String extension = extractExtension(originalFilename);
+        Path part = partPath(uploadId);
+        if (codecFor(extension) != StorageCodec.NONE || encryptionEnabled) {
+            // Compressed or encrypted storage needs a rewrite anyway, so the assembled file goes through the normal pipeline
+            StagedFile staged;
+            try (InputStream in = Files.newInputStream(part)) {
+                staged = stage(in, extension, Long.MAX_VALUE);
+            } catch (NoSuchFileException ex) {
+                throw new FileStorageException("Upload not found", ex);
+            } catch (IOException ex) {
+                throw new FileStorageException("Failed to read upload", ex);
+            }
+            deleteQuietly(part);
+            return staged;
+        }
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            MessageDigest digest = newDigest();
+            long size = 0;
+            byte[] head = null;
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                if (head == null) {
+                    head = new byte[Math.min(buffer.remaining(), FILE_SIGNATURES.get(extension).length)];
+                    buffer.get(head);
+                    buffer.rewind();
+                }
+                size += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            checkSignature(head == null ? new byte[0] : head, extension);
+            return new StagedFile(part, extension, size, HexFormat.of().formatHex(digest.digest()), StorageCodec.NONE, size, false);
+        } catch (NoSuchFileException ex) {
+            throw new FileStorageException("Upload not found", ex);
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to read upload", ex);
+        }
+    }
+
+    public void discardPart(String uploadId) {
+        deleteQuietly(partPath(uploadId));
+    }
+
+    public Resource loadAsResource(String storedPath) {
+        StoredContent content = openContent(storedPath);
+        if (content.directFile() != null && content.directOffset() == 0) {
+            try {
+                return new UrlResource(content.directFile().toUri());
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not read file", ex);
+            }
+        }
+        String filename = storedPath.substring(storedPath.lastIndexOf('/') + 1);
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "Stored file [" + storedPath + "]";
+            }
+
+            @Override
+            public String getFilename() {
+                return filename;
+            }
+
+            @Override
+            public long contentLength() {
+                return content.length();
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return content.openStream();
+            }
+        };
+    }
+
+    public StoredContent openContent(String storedPath) {
+        Path absolutePath = resolve(storedPath);
+        try {
+            long offset = 0;
+            long storedSize;
+            PackStore.PackedBlob packed = packStore.locate(storedPath);
+            if (packed != null) {
+                absolutePath = packed.segment();
+                offset = packed.offset();
+                storedSize = packed.length();
+            } else if (!Files.isRegularFile(absolutePath) || !Files.isReadable(absolutePath)) {
                 throw new FileStorageException("File not found");
+            } else {
+                storedSize = Files.size(absolutePath);
             }
-            return resource;
+            StoredBlob blob = blobRepository.findById(storedPath).orElse(null);
+            StorageCodec codec = blob == null ? StorageCodec.NONE : blob.effectiveCodec();
+            if (blob != null && blob.isEncryptedAtRest()) {
+                // Decrypting yields the codec's bytes, which can still be served as-is with their Content-Encoding
+                StoredContent decrypted = new EncryptedContent(absolutePath, offset, storedSize, encryptionService, null);
+                if (codec == StorageCodec.NONE) {
+                    return decrypted;
+                }
+                StoredContent encodedForm = serveCompressed
+                    ? new EncryptedContent(absolutePath, offset, storedSize, encryptionService, codec.contentEncoding())
+                    : null;
+                return new DecodedContent(decrypted, blob.getSize(), codec, encodedForm);
+            }
+            StoredContent stored = new FileContent(absolutePath, offset, storedSize, null);
+            if (codec == StorageCodec.NONE) {
+                return stored;
+            }
+            StoredContent encodedForm = serveCompressed
+                ? new FileContent(absolutePath, offset, storedSize, codec.contentEncoding())
+                : null;
+            return new DecodedContent(stored, blob.getSize(), codec, encodedForm);
         } catch (IOException ex) {
             throw new FileStorageException("Could not read file", ex);
         }
     }
 
+    // Relative paths of loose stored files last written before the cutoff; packed blobs and staging areas are skipped
+    public Stream<String> listStoredFiles(Instant modifiedBefore) {
+        Path packDirectory = baseDirectory.resolve(PackStore.PACK_DIRECTORY);
+        try {
+            return Files.walk(baseDirectory)
+                .filter(path -> !path.startsWith(tempDirectory) && !path.startsWith(packDirectory))
+                .filter(path -> {
+                    try {
+                        return Files.isRegularFile(path) && Files.getLastModifiedTime(path).toInstant().isBefore(modifiedBefore);
+                    } catch (IOException ex) {
+                        return false;
+                    }
+                })
+                .map(path -> baseDirectory.relativize(path).toString().replace('\\', '/'));
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list stored files", ex);
+        }
+    }
+
+    @Transactional
     public void delete(String storedPath) {
         try {
-            Path absolutePath = baseDirectory.resolve(storedPath).normalize();
-            if (!absolutePath.startsWith(baseDirectory)) {
-                throw new FileStorageException("Invalid file path");
+            Path absolutePath = resolve(storedPath);
+            // Files stored before reference tracking have no blob row and are removed directly
+            if (blobRepository.existsById(storedPath)) {
+                blobRepository.releaseReference(storedPath);
+                if (blobRepository.deleteIfUnreferenced(storedPath) == 0) {
+                    return;
+                }
+            }
+            // Packed bytes stay in their segment until the compactor rewrites it
+            if (packStore.locate(storedPath) != null) {
+                unpackOnCompletion(storedPath, TransactionSynchronization.STATUS_COMMITTED);
+            } else {
+                unlinkOnCommit(absolutePath);
             }
-            Files.deleteIfExists(absolutePath);
         } catch (IOException ex) {
             throw new FileStorageException("Failed to delete file", ex);
         }
     }
 
+    private Path resolve(String storedPath) {
+        Path absolutePath = baseDirectory.resolve(storedPath).normalize();
+        if (!absolutePath.startsWith(baseDirectory)) {
+            throw new FileStorageException("Invalid file path");
+        }
+        return absolutePath;
+    }
+
+    // Drops the pack entry once the transaction ends with the given outcome, never before: until then the blob
+    // row still points at it and a rollback must find it intact
+    private void unpackOnCompletion(String storedPath, int removeOnStatus) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (removeOnStatus == TransactionSynchronization.STATUS_COMMITTED) {
+                packStore.remove(storedPath);
+            }
+            return;
+        }
+        PackStore.PendingRemoval removal = packStore.scheduleRemoval(storedPath);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                packStore.completeRemoval(removal, status == removeOnStatus);
+            }
+        });
+    }
+
+    // The file is set aside while this transaction still holds the blob row, so an upload of the same content
+    // that commits right after us writes a fresh file instead of having it unlinked underneath; a rollback
+    // puts it back where the surviving row expects it
+    private void unlinkOnCommit(Path file) throws IOException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Path trash = tempDirectory.resolve("deleted-" + UUID.randomUUID());
+        try {
+            Files.move(file, trash, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException ex) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    deleteQuietly(trash);
+                    return;
+                }
+                try {
+                    Files.move(trash, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException ex) {
+                    throw new FileStorageException("Failed to restore " + file.getFileName() + " after rollback", ex);
+                }
+            }
+        });
+    }
+
+    private void unlinkOnRollback(Path file) throws IOException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // Content-addressed paths are shared, so once our row is gone another upload may already have moved its
+        // own copy into place; only the file this transaction wrote is removed
+        Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    if (fileKey != null && fileKey.equals(Files.readAttributes(file, BasicFileAttributes.class).fileKey())) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException ignored) {
+                    // Already gone, or replaced and no longer ours
+                }
+            }
+        });
+    }
+
+    private OutputStream openSealed(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return encryptionEnabled ? encryptionService.encryptingStream(out, encryptionSegmentSize) : out;
+    }
+
+    private InputStream openUnsealed(Path file) throws IOException {
+        return encryptionEnabled ? encryptionService.openEncryptedFile(file).openStream() : Files.newInputStream(file);
+    }
+
+    private StorageCodec codecFor(String extension) {
+        if (!compressionEnabled) {
+            return StorageCodec.NONE;
+        }
+        return EXTENSION_CODECS.getOrDefault(extension, StorageCodec.NONE);
+    }
+
+    private Path partPath(String uploadId) {
+        Path part = tempDirectory.resolve(CHUNK_DIRECTORY).resolve(uploadId + ".part").normalize();
+        if (!part.startsWith(tempDirectory)) {
+            throw new FileStorageException("Invalid upload id");
+        }
+        return part;
+    }
+
+    private String datedPath(Long caseId, String extension) {
+        LocalDate today = LocalDate.now();
+        return String.join("/",
+            String.valueOf(today.getYear()),
+            String.format("%02d", today.getMonthValue()),
+            caseId == null ? "general" : caseId.toString(),
+            UUID.randomUUID() + "." + extension
+        );
+    }
+
+    private String contentAddressedPath(String hash, String extension) {
+        // Two levels of fan-out keep each directory at no more than 256 entries
+        return String.join("/",
+            CONTENT_ADDRESSED_ROOT,
+            hash.substring(0, 2),
+            hash.substring(2, 4),
+            hash + "." + extension
+        );
+    }
+
+    private InputStream verifySignature(InputStream content, String extension) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(content);
+        int signatureLength = FILE_SIGNATURES.get(extension).length;
+        buffered.mark(signatureLength);
+        checkSignature(buffered.readNBytes(signatureLength), extension);
+        buffered.reset();
+        return buffered;
+    }
+
+    private void checkSignature(byte[] actual, String extension) {
+        if (actual.length == 0) {
+            throw new FileStorageException("File is empty");
+        }
+        if (!Arrays.equals(FILE_SIGNATURES.get(extension), actual)) {
+            throw new FileStorageException("File content does not match its ." + extension + " extension");
+        }
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // A leftover temp file only costs disk space and never shadows stored content
+        }
+    }
+
     private void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new FileStorageException("File is empty");
         }
         if (file.getSize() > MAX_FILE_SIZE_BYTES) {
-            throw new FileStorageException("File exceeds maximum allowed size of 10MB");
+            throw new FileStorageException(MAX_FILE_SIZE_MESSAGE);
         }
         String extension = extractExtension(file.getOriginalFilename());
         if (!ALLOWED_EXTENSIONS.contains(extension)) {
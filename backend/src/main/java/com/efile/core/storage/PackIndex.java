@@ -0,0 +1,251 @@
+package com.efile.core.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Open-addressing hash table in a memory-mapped file, keyed by a 128-bit hash of the stored path.
+// Slot layout: hash high (8) | hash low (8) | segment (4) | length (4) | offset (8). Segment 0 marks an
+// empty slot and -1 a deleted one.
+class PackIndex implements Closeable {
+
+    record Location(int segment, long offset, int length) {
+    }
+
+    private static final int MAGIC = 0x45465049;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 32;
+    private static final int EMPTY = 0;
+    private static final int DELETED = -1;
+    private static final double MAX_LOAD = 0.7;
+
+    private final Path file;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int live;
+    private int used;
+
+    private PackIndex(Path file) {
+        this.file = file;
+    }
+
+    static PackIndex open(Path file, int initialCapacity) throws IOException {
+        PackIndex index = new PackIndex(file);
+        if (Files.exists(file)) {
+            index.map(file);
+            if (index.buffer.getInt(0) != MAGIC) {
+                index.close();
+                throw new IOException("Corrupt pack index " + file.getFileName());
+            }
+            index.capacity = index.buffer.getInt(4);
+            index.live = index.buffer.getInt(8);
+            index.used = index.buffer.getInt(12);
+        } else {
+            Path fresh = file.resolveSibling(file.getFileName() + ".new");
+            writeEmpty(fresh, Integer.highestOneBit(Math.max(16, initialCapacity - 1) * 2));
+            Files.move(fresh, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            index.map(file);
+            index.capacity = index.buffer.getInt(4);
+        }
+        return index;
+    }
+
+    Location get(long hashHigh, long hashLow) {
+        lock.readLock().lock();
+        try {
+            int slot = find(hashHigh, hashLow);
+            return slot < 0 ? null : location(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void put(long hashHigh, long hashLow, Location location) throws IOException {
+        lock.writeLock().lock();
+        try {
+            int slot = find(hashHigh, hashLow);
+            if (slot < 0) {
+                slot = freeSlot(hashHigh, hashLow);
+                if (segment(slot) == EMPTY) {
+                    used++;
+                }
+                live++;
+            }
+            writeSlot(slot, hashHigh, hashLow, location);
+            if (used > capacity * MAX_LOAD) {
+                rehash();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Only moves the entry if it still points at the expected location, so a concurrent delete or rewrite wins
+    boolean replace(long hashHigh, long hashLow, Location expected, Location updated) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(hashHigh, hashLow);
+            if (slot < 0 || !location(slot).equals(expected)) {
+                return false;
+            }
+            writeSlot(slot, hashHigh, hashLow, updated);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Location remove(long hashHigh, long hashLow) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(hashHigh, hashLow);
+            if (slot < 0) {
+                return null;
+            }
+            Location removed = location(slot);
+            buffer.putInt(slotOffset(slot) + 16, DELETED);
+            live--;
+            writeHeader();
+            buffer.force(slotOffset(slot), SLOT_BYTES);
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Map<Integer, Long> liveBytesBySegment() {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Long> totals = new HashMap<>();
+            for (int slot = 0; slot < capacity; slot++) {
+                int segment = segment(slot);
+                if (segment > 0) {
+                    totals.merge(segment, (long) buffer.getInt(slotOffset(slot) + 20), Long::sum);
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private int find(long hashHigh, long hashLow) {
+        int mask = capacity - 1;
+        for (int probe = 0, slot = (int) hashLow & mask; probe < capacity; probe++, slot = (slot + 1) & mask) {
+            int segment = segment(slot);
+            if (segment == EMPTY) {
+                return -1;
+            }
+            int offset = slotOffset(slot);
+            if (segment != DELETED && buffer.getLong(offset) == hashHigh && buffer.getLong(offset + 8) == hashLow) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeSlot(long hashHigh, long hashLow) {
+        int mask = capacity - 1;
+        int slot = (int) hashLow & mask;
+        while (segment(slot) > 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() throws IOException {
+        // Deleted slots are dropped on the way, so a table full of tombstones may keep its size
+        int newCapacity = capacity;
+        while (live > newCapacity * MAX_LOAD / 2) {
+            newCapacity *= 2;
+        }
+        Path fresh = file.resolveSibling(file.getFileName() + ".new");
+        writeEmpty(fresh, newCapacity);
+        PackIndex target = new PackIndex(fresh);
+        target.map(fresh);
+        target.capacity = newCapacity;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (segment(slot) > 0) {
+                int offset = slotOffset(slot);
+                long hashHigh = buffer.getLong(offset);
+                long hashLow = buffer.getLong(offset + 8);
+                int free = target.freeSlot(hashHigh, hashLow);
+                target.writeSlot(free, hashHigh, hashLow, location(slot));
+                target.live++;
+                target.used++;
+            }
+        }
+        target.writeHeader();
+        target.buffer.force();
+        target.close();
+        Files.move(fresh, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        close();
+        map(file);
+        capacity = target.capacity;
+        live = target.live;
+        used = target.used;
+    }
+
+    private void map(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    private static void writeEmpty(Path path, int capacity) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = out.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, capacity);
+            mapped.force();
+        }
+    }
+
+    private void writeSlot(int slot, long hashHigh, long hashLow, Location location) {
+        int offset = slotOffset(slot);
+        buffer.putLong(offset, hashHigh);
+        buffer.putLong(offset + 8, hashLow);
+        buffer.putInt(offset + 16, location.segment());
+        buffer.putInt(offset + 20, location.length());
+        buffer.putLong(offset + 24, location.offset());
+        writeHeader();
+        buffer.force(offset, SLOT_BYTES);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(8, live);
+        buffer.putInt(12, used);
+        buffer.force(0, HEADER_BYTES);
+    }
+
+    private Location location(int slot) {
+        int offset = slotOffset(slot);
+        return new Location(buffer.getInt(offset + 16), buffer.getLong(offset + 24), buffer.getInt(offset + 20));
+    }
+
+    private int segment(int slot) {
+        return buffer.getInt(slotOffset(slot) + 16);
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,381 @@
+package com.efile.core.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Small blobs are appended to large segment files so the store holds a few big files instead of
+// millions of tiny ones. Each record is: magic (4) | key length (2) | key | data length (4) | data,
+// which keeps segments self-describing and lets the index be rebuilt by a scan. A removal appends a
+// tombstone (its own magic, no data) so the scan replays it instead of resurrecting the blob.
+@Component
+public class PackStore {
+
+    public record PackedBlob(Path segment, long offset, long length) {
+    }
+
+    // A removal that waits for its transaction to finish. An append of the same key in the meantime comes from a
+    // newer upload, so it supersedes the removal instead of being dropped by it.
+    public static final class PendingRemoval {
+
+        private final String key;
+        private boolean superseded;
+
+        private PendingRemoval(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(PackStore.class);
+    private static final int RECORD_MAGIC = 0x45465042;
+    private static final int TOMBSTONE_MAGIC = 0x45465044;
+    static final String PACK_DIRECTORY = "packs";
+    private static final String INDEX_FILE = "index.bin";
+    private static final String SEGMENT_SUFFIX = ".pack";
+    private static final int INITIAL_INDEX_CAPACITY = 4096;
+
+    private final Path directory;
+    private final boolean enabled;
+    private final long threshold;
+    private final long segmentSize;
+    private final double compactionGarbageRatio;
+    private final Object appendLock = new Object();
+    private final Set<Integer> retiredSegments = ConcurrentHashMap.newKeySet();
+    private final Map<String, PendingRemoval> pendingRemovals = new ConcurrentHashMap<>();
+    private PackIndex index;
+    private volatile int activeSegment;
+    private FileChannel activeChannel;
+    private long activePosition;
+
+    public PackStore(FileStorageProperties properties) {
+        this.directory = Paths.get(properties.getBasePath()).toAbsolutePath().normalize().resolve(PACK_DIRECTORY);
+        this.enabled = properties.isPackEnabled();
+        this.threshold = properties.getPackThreshold().toBytes();
+        this.segmentSize = properties.getPackSegmentSize().toBytes();
+        this.compactionGarbageRatio = properties.getPackCompactionGarbageRatio();
+        // Existing packs stay readable after packing is switched off
+        if (enabled || Files.isDirectory(directory)) {
+            try {
+                open();
+            } catch (IOException ex) {
+                throw new FileStorageException("Could not open pack store", ex);
+            }
+        }
+    }
+
+    public boolean accepts(long size) {
+        return enabled && size <= threshold;
+    }
+
+    public PackedBlob locate(String key) {
+        if (index == null) {
+            return null;
+        }
+        long[] hash = hash(key);
+        PackIndex.Location location = index.get(hash[0], hash[1]);
+        if (location == null) {
+            return null;
+        }
+        return new PackedBlob(segmentPath(location.segment()), location.offset(), location.length());
+    }
+
+    public void append(String key, Path source) {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size > threshold) {
+                throw new FileStorageException("File too large for pack storage");
+            }
+            long[] hash = hash(key);
+            synchronized (appendLock) {
+                PendingRemoval pending = pendingRemovals.remove(key);
+                if (pending != null) {
+                    pending.superseded = true;
+                }
+                PackIndex.Location location = appendRecord(key, in, 0, (int) size);
+                index.put(hash[0], hash[1], location);
+            }
+        } catch (IOException ex) {
+            throw new FileStorageException("Failed to store file", ex);
+        }
+    }
+
+    public boolean remove(String key) {
+        if (index == null) {
+            return false;
+        }
+        long[] hash = hash(key);
+        synchronized (appendLock) {
+            if (index.get(hash[0], hash[1]) == null) {
+                return false;
+            }
+            try {
+                appendTombstone(key);
+            } catch (IOException ex) {
+                throw new FileStorageException("Failed to remove file", ex);
+            }
+            return index.remove(hash[0], hash[1]) != null;
+        }
+    }
+
+    public PendingRemoval scheduleRemoval(String key) {
+        PendingRemoval removal = new PendingRemoval(key);
+        pendingRemovals.put(key, removal);
+        return removal;
+    }
+
+    public void completeRemoval(PendingRemoval removal, boolean apply) {
+        synchronized (appendLock) {
+            pendingRemovals.remove(removal.key, removal);
+            if (apply && !removal.superseded) {
+                remove(removal.key);
+            }
+        }
+    }
+
+    // Rewrites segments whose garbage share has crossed the threshold. Retired segments are only deleted on
+    // the following pass so downloads that resolved a location before the move, including sendfile, can finish.
+    @Scheduled(
+        fixedDelayString = "${file.storage.pack-compaction-interval:PT1H}",
+        initialDelayString = "${file.storage.pack-compaction-interval:PT1H}"
+    )
+    public void compact() {
+        if (index == null) {
+            return;
+        }
+        deleteRetiredSegments();
+        Map<Integer, Long> liveBytes = index.liveBytesBySegment();
+        for (int segment : listSegments()) {
+            if (segment == activeSegment || retiredSegments.contains(segment)) {
+                continue;
+            }
+            try {
+                long size = Files.size(segmentPath(segment));
+                long live = liveBytes.getOrDefault(segment, 0L);
+                if (size > 0 && 1 - (double) live / size >= compactionGarbageRatio) {
+                    compactSegment(segment);
+                }
+            } catch (IOException ex) {
+                logger.warn("Failed to compact pack segment {}", segment, ex);
+            }
+        }
+    }
+
+    private void compactSegment(int segment) throws IOException {
+        int moved = 0;
+        boolean olderSegments = listSegments().stream().anyMatch(other -> other < segment);
+        try (FileChannel in = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            for (ScannedRecord record : scan(in)) {
+                long[] hash = hash(record.key());
+                // The index only changes under appendLock, so each check is repeated there before writing: an
+                // append or remove slipping in between would otherwise land before the copy and lose on replay
+                if (record.tombstone()) {
+                    // Only needed while an older segment may still hold the removed record; a live entry means the
+                    // key was written again later, which already wins on replay
+                    if (olderSegments && index.get(hash[0], hash[1]) == null) {
+                        synchronized (appendLock) {
+                            if (index.get(hash[0], hash[1]) == null) {
+                                appendTombstone(record.key());
+                            }
+                        }
+                    }
+                    continue;
+                }
+                PackIndex.Location current = new PackIndex.Location(segment, record.dataOffset(), record.length());
+                if (!current.equals(index.get(hash[0], hash[1]))) {
+                    continue;
+                }
+                synchronized (appendLock) {
+                    if (!current.equals(index.get(hash[0], hash[1]))) {
+                        continue;
+                    }
+                    PackIndex.Location copied = appendRecord(record.key(), in, record.dataOffset(), record.length());
+                    index.replace(hash[0], hash[1], current, copied);
+                    moved++;
+                }
+            }
+        }
+        retiredSegments.add(segment);
+        logger.info("Compacted pack segment {}, moved {} live blobs", segment, moved);
+    }
+
+    private void deleteRetiredSegments() {
+        for (Integer segment : List.copyOf(retiredSegments)) {
+            try {
+                Files.deleteIfExists(segmentPath(segment));
+                retiredSegments.remove(segment);
+            } catch (IOException ex) {
+                logger.warn("Failed to delete retired pack segment {}", segment, ex);
+            }
+        }
+    }
+
+    private void appendTombstone(String key) throws IOException {
+        long end = writeHeader(TOMBSTONE_MAGIC, key, 0);
+        activeChannel.force(false);
+        activePosition = end;
+    }
+
+    private PackIndex.Location appendRecord(String key, FileChannel source, long sourceOffset, int length) throws IOException {
+        long dataOffset = writeHeader(RECORD_MAGIC, key, length);
+        long copied = 0;
+        while (copied < length) {
+            long transferred = source.transferTo(sourceOffset + copied, length - copied, activeChannel.position(dataOffset + copied));
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of pack source");
+            }
+            copied += transferred;
+        }
+        // The record must be durable before the index points at it
+        activeChannel.force(false);
+        activePosition = dataOffset + length;
+        return new PackIndex.Location(activeSegment, dataOffset, length);
+    }
+
+    // Rolls over to a new segment when the record would not fit, then returns where its data starts
+    private long writeHeader(int magic, String key, int length) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int headerLength = Integer.BYTES + Short.BYTES + keyBytes.length + Integer.BYTES;
+        if (activePosition > 0 && activePosition + headerLength + length > segmentSize) {
+            activeChannel.close();
+            openSegment(activeSegment + 1);
+        }
+        ByteBuffer header = ByteBuffer.allocate(headerLength)
+            .putInt(magic)
+            .putShort((short) keyBytes.length)
+            .put(keyBytes)
+            .putInt(length)
+            .flip();
+        long position = activePosition;
+        while (header.hasRemaining()) {
+            position += activeChannel.write(header, position);
+        }
+        return position;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Path indexFile = directory.resolve(INDEX_FILE);
+        boolean rebuild = !Files.exists(indexFile);
+        index = PackIndex.open(indexFile, INITIAL_INDEX_CAPACITY);
+        List<Integer> segments = listSegments();
+        if (rebuild && !segments.isEmpty()) {
+            // Later records win, which matches the order compaction writes copies in
+            logger.info("Rebuilding pack index from {} segments", segments.size());
+            for (int segment : segments) {
+                try (FileChannel in = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+                    for (ScannedRecord record : scan(in)) {
+                        long[] hash = hash(record.key());
+                        if (record.tombstone()) {
+                            index.remove(hash[0], hash[1]);
+                        } else {
+                            index.put(hash[0], hash[1], new PackIndex.Location(segment, record.dataOffset(), record.length()));
+                        }
+                    }
+                }
+            }
+        }
+        openSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1));
+    }
+
+    private void openSegment(int segment) throws IOException {
+        activeSegment = segment;
+        activeChannel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        // A record torn by a crash is never indexed; appending after it just leaves it as garbage
+        activePosition = activeChannel.size();
+    }
+
+    private record ScannedRecord(String key, long dataOffset, int length, boolean tombstone) {
+    }
+
+    private List<ScannedRecord> scan(FileChannel in) throws IOException {
+        List<ScannedRecord> records = new ArrayList<>();
+        long size = in.size();
+        long position = 0;
+        ByteBuffer fixed = ByteBuffer.allocate(Integer.BYTES + Short.BYTES);
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        while (position + fixed.capacity() <= size) {
+            fixed.clear();
+            readFully(in, fixed, position);
+            int magic = fixed.getInt(0);
+            if (magic != RECORD_MAGIC && magic != TOMBSTONE_MAGIC) {
+                break;
+            }
+            int keyLength = Short.toUnsignedInt(fixed.getShort(Integer.BYTES));
+            ByteBuffer key = ByteBuffer.allocate(keyLength);
+            long keyOffset = position + fixed.capacity();
+            if (keyOffset + keyLength + Integer.BYTES > size) {
+                break;
+            }
+            readFully(in, key, keyOffset);
+            length.clear();
+            readFully(in, length, keyOffset + keyLength);
+            long dataOffset = keyOffset + keyLength + Integer.BYTES;
+            int dataLength = length.getInt(0);
+            if (dataLength < 0 || dataOffset + dataLength > size) {
+                break;
+            }
+            records.add(new ScannedRecord(new String(key.array(), StandardCharsets.UTF_8), dataOffset, dataLength,
+                magic == TOMBSTONE_MAGIC));
+            position = dataOffset + dataLength;
+        }
+        return records;
+    }
+
+    private void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, offset);
+            if (read == -1) {
+                throw new IOException("Unexpected end of pack segment");
+            }
+            offset += read;
+        }
+    }
+
+    private List<Integer> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                .map(name -> Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                .sorted()
+                .toList();
+        } catch (NoSuchFileException ex) {
+            return List.of();
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list pack segments", ex);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("%08d", segment) + SEGMENT_SUFFIX);
+    }
+
+    private long[] hash(String key) {
+        try {
+            ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+            return new long[] {digest.getLong(), digest.getLong()};
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.efile.core.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+@Component
+public class RangedContentWriter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Validators describe the identity representation; encoded variants get their own derived entity tag
+    public record Validators(String entityTag, Instant lastModified, CacheControl cacheControl) {
+    }
+
+    private record Range(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    public void write(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        StoredContent content,
+        String filename,
+        MediaType contentType,
+        Validators validators
+    ) throws IOException {
+        long length = content.length();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        writeValidators(response, validators, validators.entityTag());
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        StoredContent encoded = content.encodedForm();
+        if (encoded != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            // Ranges address the decoded document, so only whole-body requests get the stored encoding
+            if (rangeHeader == null && acceptsEncoding(request, encoded.contentEncoding())) {
+                response.setStatus(HttpStatus.OK.value());
+                response.setContentType(contentType.toString());
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, encoded.contentEncoding());
+                if (validators.entityTag() != null) {
+                    response.setHeader(HttpHeaders.ETAG, variantTag(validators.entityTag(), encoded.contentEncoding()));
+                }
+                send(request, response, encoded, new Range(0, encoded.length() - 1));
+                return;
+            }
+        }
+        if (rangeHeader == null || !ifRangeMatches(request, validators)) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(contentType.toString());
+            send(request, response, content, new Range(0, length - 1));
+            return;
+        }
+
+        List<Range> ranges = parseRanges(rangeHeader, length);
+        if (ranges == null) {
+            // Syntactically broken or abusive range sets are ignored and the full body is served
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(contentType.toString());
+            send(request, response, content, new Range(0, length - 1));
+            return;
+        }
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setContentLength(0);
+            return;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (ranges.size() == 1) {
+            Range range = ranges.get(0);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(range, length));
+            send(request, response, content, range);
+            return;
+        }
+        writeMultipart(response, content, contentType, ranges, length);
+    }
+
+    // Answers If-None-Match / If-Modified-Since from metadata alone, so a 304 never opens the stored file
+    public boolean notModified(HttpServletRequest request, HttpServletResponse response, Validators validators) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        boolean notModified;
+        String matchedTag = validators.entityTag();
+        if (ifNoneMatch != null) {
+            // If-Modified-Since is ignored whenever If-None-Match is present
+            matchedTag = matchingTag(ifNoneMatch, validators.entityTag());
+            notModified = matchedTag != null;
+        } else {
+            notModified = modifiedSinceMatches(request, validators.lastModified());
+        }
+        if (!notModified) {
+            return false;
+        }
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        writeValidators(response, validators, matchedTag);
+        return true;
+    }
+
+    private void writeValidators(HttpServletResponse response, Validators validators, String entityTag) {
+        if (entityTag != null) {
+            response.setHeader(HttpHeaders.ETAG, entityTag);
+        }
+        if (validators.lastModified() != null) {
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, validators.lastModified().toEpochMilli());
+        }
+        if (validators.cacheControl() != null && validators.cacheControl().getHeaderValue() != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, validators.cacheControl().getHeaderValue());
+        }
+    }
+
+    private String matchingTag(String ifNoneMatch, String entityTag) {
+        if (entityTag == null) {
+            return null;
+        }
+        if (ifNoneMatch.trim().equals("*")) {
+            return entityTag;
+        }
+        // If-None-Match uses weak comparison, and a cached encoded variant is as good as the identity one
+        String opaque = entityTag.substring(1, entityTag.length() - 1);
+        for (String token : ifNoneMatch.split(",")) {
+            String candidate = token.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.length() < 2 || !candidate.startsWith("\"") || !candidate.endsWith("\"")) {
+                continue;
+            }
+            String value = candidate.substring(1, candidate.length() - 1);
+            if (value.equals(opaque) || value.startsWith(opaque + "-")) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private boolean modifiedSinceMatches(HttpServletRequest request, Instant lastModified) {
+        if (lastModified == null) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        return ifModifiedSince != -1 && lastModified.truncatedTo(ChronoUnit.SECONDS).toEpochMilli() <= ifModifiedSince;
+    }
+
+    private String variantTag(String entityTag, String contentEncoding) {
+        return entityTag.substring(0, entityTag.length() - 1) + "-" + contentEncoding + "\"";
+    }
+
+    private boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase(encoding)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, Validators validators) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // Ranges are only served from the identity representation, and If-Range requires a strong match
+            return ifRange.equals(validators.entityTag());
+        }
+        Instant lastModified = validators.lastModified();
+        if (lastModified == null) {
+            return false;
+        }
+        long ifRangeDate;
+        try {
+            ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        // HTTP dates carry whole seconds only
+        return ifRangeDate == lastModified.truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+    }
+
+    private List<Range> parseRanges(String rangeHeader, long length) {
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        List<Range> satisfiable = new ArrayList<>();
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start;
+            long end;
+            try {
+                start = httpRange.getRangeStart(length);
+                end = httpRange.getRangeEnd(length);
+            } catch (IllegalArgumentException ex) {
+                continue;
+            }
+            if (start > end) {
+                continue;
+            }
+            satisfiable.add(new Range(start, end));
+            total += end - start + 1;
+        }
+        if (total > length && satisfiable.size() > 1) {
+            return null;
+        }
+        return satisfiable;
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, StoredContent content, Range range) throws IOException {
+        long count = content.length() == 0 ? 0 : range.length();
+        response.setContentLengthLong(count);
+        if (count == 0) {
+            return;
+        }
+        if (content.directFile() != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat streams the region with sendfile once the servlet returns, bypassing the heap entirely
+            long offset = content.directOffset();
+            request.setAttribute(SENDFILE_FILENAME, content.directFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, offset + range.start());
+            request.setAttribute(SENDFILE_END, offset + range.end() + 1);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        content.transferTo(range.start(), range.length(), channel);
+        out.flush();
+    }
+
+    private void writeMultipart(
+        HttpServletResponse response,
+        StoredContent content,
+        MediaType contentType,
+        List<Range> ranges,
+        long length
+    ) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (Range range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\n"
+                + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range, length) + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range.length();
+        }
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += trailer.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            Range range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            content.transferTo(range.start(), range.length(), channel);
+        }
+        out.write(trailer);
+        out.flush();
+    }
+
+    private String contentRange(Range range, long length) {
+        return "bytes " + range.start() + "-" + range.end() + "/" + length;
+    }
+}
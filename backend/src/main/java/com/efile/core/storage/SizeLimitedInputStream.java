@@ -0,0 +1,55 @@
+package com.efile.core.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private final String limitMessage;
+    private long count;
+
+    SizeLimitedInputStream(InputStream in, long limit, String limitMessage) {
+        super(in);
+        this.limit = limit;
+        this.limitMessage = limitMessage;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value != -1) {
+            advance(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void advance(long bytes) {
+        count += bytes;
+        if (count > limit) {
+            throw new FileStorageException(limitMessage);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.efile.core.storage;
+
+import java.nio.file.Path;
+
+public record StagedFile(
+    Path tempFile,
+    String extension,
+    long size,
+    String digest,
+    StorageCodec codec,
+    long storedSize,
+    boolean encrypted
+) {
+}
@@ -0,0 +1,66 @@
+package com.efile.core.storage;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import org.hibernate.annotations.CreationTimestamp;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Entity
+@Table(
+    name = "stored_blobs",
+    indexes = {
+        @jakarta.persistence.Index(name = "idx_stored_blobs_digest", columnList = "digest")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(of = "path")
+@ToString(of = "path")
+public class StoredBlob {
+
+    @Id
+    @Column(length = 191)
+    private String path;
+
+    @Column(nullable = false, length = 64)
+    private String digest;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private StorageCodec codec;
+
+    @Column(name = "stored_size")
+    private Long storedSize;
+
+    private Boolean encrypted;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public StorageCodec effectiveCodec() {
+        return codec == null ? StorageCodec.NONE : codec;
+    }
+
+    public boolean isEncryptedAtRest() {
+        return Boolean.TRUE.equals(encrypted);
+    }
+}
@@ -0,0 +1,44 @@
+package com.efile.core.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // MySQL reports 1 affected row for a fresh insert and 2 when an existing row was updated
+    @Modifying
+    @Query(
+        value = "INSERT INTO stored_blobs (path, digest, size, codec, stored_size, encrypted, ref_count, created_at) "
+            + "VALUES (:path, :digest, :size, :codec, :storedSize, :encrypted, 1, CURRENT_TIMESTAMP(6)) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1",
+        nativeQuery = true
+    )
+    int addReference(
+        @Param("path") String path,
+        @Param("digest") String digest,
+        @Param("size") long size,
+        @Param("codec") String codec,
+        @Param("storedSize") long storedSize,
+        @Param("encrypted") boolean encrypted
+    );
+
+    // Used when a referenced blob's file had gone missing and was rewritten with the current settings
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.codec = :codec, b.storedSize = :storedSize, b.encrypted = :encrypted WHERE b.path = :path")
+    int updateLayout(
+        @Param("path") String path,
+        @Param("codec") StorageCodec codec,
+        @Param("storedSize") long storedSize,
+        @Param("encrypted") boolean encrypted
+    );
+
+    @Modifying
+    @Query("UPDATE StoredBlob b SET b.refCount = b.refCount - 1 WHERE b.path = :path AND b.refCount > 0")
+    int releaseReference(@Param("path") String path);
+
+    @Modifying
+    @Query("DELETE FROM StoredBlob b WHERE b.path = :path AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("path") String path);
+}
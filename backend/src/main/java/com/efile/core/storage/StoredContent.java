@@ -0,0 +1,34 @@
+package com.efile.core.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+public interface StoredContent {
+
+    long length();
+
+    void transferTo(long position, long count, WritableByteChannel target) throws IOException;
+
+    InputStream openStream() throws IOException;
+
+    // Content-Encoding of these bytes, or null when they are the document itself
+    default String contentEncoding() {
+        return null;
+    }
+
+    // The stored bytes as-is, for clients that can decode them; null when there is no such form
+    default StoredContent encodedForm() {
+        return null;
+    }
+
+    // Non-null when the bytes sit unmodified on disk and can be handed to the container's sendfile
+    default Path directFile() {
+        return null;
+    }
+
+    default long directOffset() {
+        return 0;
+    }
+}
@@ -0,0 +1,8 @@
+package com.efile.core.storage;
+
+public record StoredFile(
+    String path,
+    long size,
+    String digest
+) {
+}
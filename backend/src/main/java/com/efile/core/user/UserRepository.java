@@ -2,12 +2,20 @@ package com.efile.core.user;
 
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmailIgnoreCase(String email);
 
+    // The authenticated user outlives the lookup's session, so the department is fetched up front
+    @EntityGraph(attributePaths = "department")
+    Optional<User> findWithDepartmentByEmailIgnoreCase(String email);
+
+    @EntityGraph(attributePaths = "department")
+    Optional<User> findWithDepartmentById(Long id);
+
     boolean existsByEmailIgnoreCase(String email);
 
     List<User> findByRole(UserRole role);
@@ -0,0 +1,245 @@
+package com.efile.core.casemanagement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.efile.core.casemanagement.dto.CaseResponse;
+import com.efile.core.casemanagement.dto.CaseSearchCriteria;
+import com.efile.core.casemanagement.dto.TagFacet;
+import com.efile.core.common.CursorResponse;
+import com.efile.core.document.CaseDocumentCount;
+import com.efile.core.document.CaseDocumentCounters;
+import com.efile.core.document.Document;
+import com.efile.core.document.DocumentRoutingTable;
+import com.efile.core.document.DocumentService;
+import com.efile.core.document.DocumentStatus;
+import com.efile.core.document.DocumentType;
+import com.efile.core.document.DuplicatePolicyProperties;
+import com.efile.core.document.ReceiptNumberGenerator;
+import com.efile.core.extraction.TextExtractionService;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.security.CurrentUserProvider;
+import com.efile.core.storage.FileStorageService;
+import com.efile.core.user.User;
+import com.efile.core.user.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+// Guards the case listings against creeping back to a query per case
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CaseService.class, DocumentService.class, CaseDocumentCounters.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class CaseListingQueryCountTest {
+
+    // The count cache is package-private to the document module, so it is picked up by name
+    @TestConfiguration
+    @ComponentScan(
+        basePackageClasses = DocumentService.class,
+        useDefaultFilters = false,
+        includeFilters = @ComponentScan.Filter(type = FilterType.REGEX, pattern = ".*\\.DocumentCountCache")
+    )
+    static class DocumentBeans {
+    }
+
+    private static final int CASES = 30;
+    private static final int DOCUMENTS_PER_CASE = 3;
+
+    @MockitoBean
+    private SearchIndexer searchIndexer;
+
+    @MockitoBean
+    private CurrentUserProvider currentUserProvider;
+
+    @MockitoBean
+    private DocumentRoutingTable routingTable;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private ReceiptNumberGenerator receiptNumberGenerator;
+
+    @MockitoBean
+    private TextExtractionService textExtractionService;
+
+    @MockitoBean
+    private DuplicatePolicyProperties duplicatePolicies;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CaseService caseService;
+
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("owner@example.com", UserRole.ACCOUNTANT);
+        User other = user("other@example.com", UserRole.PROCUREMENT);
+        for (int i = 0; i < CASES; i++) {
+            Case caseEntity = new Case();
+            caseEntity.setTitle("Case " + i);
+            caseEntity.setDescription("Description " + i);
+            caseEntity.setPriority(i % 3 == 0 ? CasePriority.HIGH : CasePriority.MEDIUM);
+            // Every third case belongs to someone else entirely
+            caseEntity.setCreatedBy(i % 3 == 2 ? other : owner);
+            caseEntity.setAssignedTo(i % 2 == 0 ? other : null);
+            // The last five cases are finished and drop out of the facet counts
+            caseEntity.setStatus(i >= CASES - 5 ? CaseStatus.CLOSED : CaseStatus.OPEN);
+            entityManager.persist(caseEntity);
+            entityManager.persist(new CaseTag(caseEntity.getId(), "audit"));
+            entityManager.persist(new CaseTag(caseEntity.getId(), "q" + (i % 4 + 1)));
+            for (int d = 0; d < DOCUMENTS_PER_CASE; d++) {
+                Document document = new Document();
+                document.setTitle("Document " + i + "-" + d);
+                document.setType(DocumentType.GENERAL);
+                document.setFilePath(i + "/" + d + ".pdf");
+                document.setFileSize(100);
+                document.setReceiptNumber("R-" + i + "-" + d);
+                document.setCaseRef(caseEntity);
+                document.setUploadedBy(owner);
+                entityManager.persist(document);
+            }
+            entityManager.persist(new CaseDocumentCount(caseEntity.getId(), DocumentStatus.DRAFT, DOCUMENTS_PER_CASE));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageCostsFourStatementsWhateverItsSize() {
+        when(currentUserProvider.get()).thenReturn(user("admin@example.com", UserRole.ADMIN));
+        statistics.clear();
+
+        Page<CaseResponse> page = caseService.listCases(
+            CaseSearchCriteria.none(),
+            PageRequest.of(0, 25, Sort.by("id"))
+        );
+
+        assertEquals(25, page.getNumberOfElements());
+        assertEquals(CASES, page.getTotalElements());
+        // Cases joined with their users, the count, and one IN query each for the page's documents and tags
+        assertEquals(4, statistics.getPrepareStatementCount());
+        page.getContent().forEach(response -> {
+            assertEquals(DOCUMENTS_PER_CASE, response.documentCounts().get(DocumentStatus.DRAFT));
+            assertEquals(0L, response.documentCounts().get(DocumentStatus.APPROVED));
+            assertEquals(2, response.tags().size());
+        });
+    }
+
+    @Test
+    void visibilityAndFiltersApplyInTheQuery() {
+        when(currentUserProvider.get()).thenReturn(owner);
+
+        Page<CaseResponse> page = caseService.listCases(
+            CaseSearchCriteria.of(null, CasePriority.HIGH, null, null, null, null, null, null, null, null, null),
+            PageRequest.of(0, 5, Sort.by("id"))
+        );
+
+        // HIGH is every i % 3 == 0, none of which belong to the other user
+        assertEquals(5, page.getNumberOfElements());
+        assertEquals(CASES / 3, page.getTotalElements());
+        page.getContent().forEach(response -> assertEquals("owner@example.com", response.createdBy().email()));
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorWalksEveryVisibleCaseOnceWithoutCounting() {
+        when(currentUserProvider.get()).thenReturn(owner);
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorResponse<CaseResponse> page = caseService.searchCases(
+                CaseSearchCriteria.none(), CaseSort.TITLE, Sort.Direction.ASC, cursor, 7, false);
+            // Cases with their users, then their documents and tags; never a count
+            assertEquals(3, statistics.getPrepareStatementCount());
+            page.content().forEach(response -> assertTrue(seen.add(response.id())));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Everything except the cases the other user created
+        assertEquals(CASES - CASES / 3, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void cursorIsBoundToItsSort() {
+        when(currentUserProvider.get()).thenReturn(owner);
+        String cursor = caseService.searchCases(CaseSearchCriteria.none(), CaseSort.TITLE, Sort.Direction.ASC, null, 5, false).nextCursor();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> caseService.searchCases(CaseSearchCriteria.none(), CaseSort.CREATED_AT, Sort.Direction.DESC, cursor, 5, false));
+        assertThrows(IllegalArgumentException.class,
+            () -> caseService.searchCases(CaseSearchCriteria.none(), CaseSort.TITLE, Sort.Direction.ASC, "not-a-cursor", 5, false));
+    }
+
+    @Test
+    void tagFilterRequiresEveryTag() {
+        when(currentUserProvider.get()).thenReturn(user("admin@example.com", UserRole.ADMIN));
+
+        Page<CaseResponse> page = caseService.listCases(
+            CaseSearchCriteria.of(null, null, null, null, null, null, null, null, null, null, List.of("audit", "q2")),
+            PageRequest.of(0, 50, Sort.by("id"))
+        );
+
+        assertEquals(CASES / 4 + (CASES % 4 > 1 ? 1 : 0), page.getTotalElements());
+        page.getContent().forEach(response -> assertTrue(response.tags().contains("q2")));
+    }
+
+    @Test
+    void facetsCountOpenCasesInOneStatement() {
+        when(currentUserProvider.get()).thenReturn(user("admin@example.com", UserRole.ADMIN));
+        statistics.clear();
+
+        List<TagFacet> facets = caseService.getTagFacets();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(new TagFacet("audit", CASES - 5), facets.get(0));
+        // Cases 25..29 are closed; q1 is i % 4 == 0 below 25, i.e. 0, 4, ..., 24
+        assertTrue(facets.contains(new TagFacet("q1", 7)));
+        assertEquals(5, facets.size());
+    }
+
+    private User user(String email, UserRole role) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPasswordHash("x");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}
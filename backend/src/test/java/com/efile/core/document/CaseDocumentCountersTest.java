@@ -0,0 +1,133 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.efile.core.casemanagement.Case;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.user.User;
+import com.efile.core.user.UserRole;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Counter deltas are only written when a transaction commits, so these tests commit for real against an
+// H2 database in MySQL mode (for the upserts) instead of rolling back around each test
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:counters;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CaseDocumentCounters.class, CaseDocumentCountReconciler.class})
+class CaseDocumentCountersTest {
+
+    @MockitoBean
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CaseDocumentCounters counters;
+
+    @Autowired
+    private CaseDocumentCountReconciler reconciler;
+
+    private TransactionTemplate transactionTemplate;
+    private Long caseId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            User owner = new User();
+            owner.setName("Owner");
+            owner.setEmail("owner-" + System.nanoTime() + "@example.com");
+            owner.setPasswordHash("x");
+            owner.setRole(UserRole.ACCOUNTANT);
+            entityManager.persist(owner);
+            Case caseEntity = new Case();
+            caseEntity.setTitle("Audit 2025");
+            caseEntity.setDescription("Annual audit");
+            caseEntity.setCreatedBy(owner);
+            entityManager.persist(caseEntity);
+            for (DocumentStatus documentStatus : List.of(DocumentStatus.DRAFT, DocumentStatus.DRAFT, DocumentStatus.APPROVED)) {
+                Document document = new Document();
+                document.setTitle("Statement");
+                document.setType(DocumentType.FINANCIAL_REPORT);
+                document.setFilePath("2025/" + System.nanoTime() + ".pdf");
+                document.setFileSize(1024);
+                document.setReceiptNumber("R-" + System.nanoTime());
+                document.setCaseRef(caseEntity);
+                document.setUploadedBy(owner);
+                document.setStatus(documentStatus);
+                entityManager.persist(document);
+            }
+            caseId = caseEntity.getId();
+        });
+    }
+
+    @Test
+    void deltasAreSummedAndWrittenOnCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            counters.added(caseId, DocumentStatus.DRAFT, 2);
+            counters.moved(caseId, DocumentStatus.DRAFT, DocumentStatus.SUBMITTED);
+            counters.added(caseId, DocumentStatus.DRAFT, 1);
+        });
+        transactionTemplate.executeWithoutResult(status -> counters.removed(caseId, DocumentStatus.SUBMITTED));
+
+        Map<DocumentStatus, Long> counts = counters.countsOf(List.of(caseId)).get(caseId);
+        assertEquals(2L, counts.get(DocumentStatus.DRAFT));
+        assertEquals(0L, counts.get(DocumentStatus.SUBMITTED));
+        assertEquals(DocumentStatus.values().length, counts.size());
+    }
+
+    @Test
+    void rolledBackChangesAreNotCounted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            counters.added(caseId, DocumentStatus.DRAFT, 5);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0L, counters.countsOf(List.of(caseId)).get(caseId).get(DocumentStatus.DRAFT));
+    }
+
+    @Test
+    void countsOnlyChangeInsideATransaction() {
+        assertThrows(IllegalStateException.class, () -> counters.added(caseId, DocumentStatus.DRAFT, 1));
+    }
+
+    @Test
+    void reconcileRepairsDriftedCounters() {
+        // DRAFT is wrong, APPROVED is missing and REJECTED has no documents behind it
+        transactionTemplate.executeWithoutResult(status -> {
+            counters.added(caseId, DocumentStatus.DRAFT, 5);
+            counters.added(caseId, DocumentStatus.REJECTED, 1);
+        });
+
+        Integer repaired = transactionTemplate.execute(status -> reconciler.reconcile(List.of(caseId)));
+
+        assertEquals(Integer.valueOf(3), repaired);
+        Map<DocumentStatus, Long> counts = counters.countsOf(List.of(caseId)).get(caseId);
+        assertEquals(2L, counts.get(DocumentStatus.DRAFT));
+        assertEquals(1L, counts.get(DocumentStatus.APPROVED));
+        assertEquals(0L, counts.get(DocumentStatus.REJECTED));
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(status -> reconciler.reconcile(List.of(caseId))));
+    }
+}
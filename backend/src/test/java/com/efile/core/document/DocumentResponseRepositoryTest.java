@@ -0,0 +1,176 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.efile.core.casemanagement.Case;
+import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.user.User;
+import com.efile.core.user.UserRole;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class DocumentResponseRepositoryTest {
+
+    private static final int DOCUMENTS = 15;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("uploadedAt"), Sort.Order.desc("id"));
+
+    @MockitoBean
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User uploader = user("uploader@example.com");
+        User approver = user("approver@example.com");
+        Case caseEntity = new Case();
+        caseEntity.setTitle("Audit 2025");
+        caseEntity.setDescription("Annual audit");
+        caseEntity.setCreatedBy(uploader);
+        entityManager.persist(caseEntity);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            Document document = new Document();
+            document.setTitle("Statement " + i);
+            document.setType(DocumentType.FINANCIAL_REPORT);
+            document.setFilePath("2025/01/" + i + ".pdf");
+            document.setFileSize(1024);
+            // The first three share content; the last predates recorded digests
+            document.setContentHash(i < 3 ? "same" : i == DOCUMENTS - 1 ? null : "hash-" + i);
+            document.setReceiptNumber("R-" + i);
+            document.setCaseRef(caseEntity);
+            document.setUploadedBy(uploader);
+            if (i % 2 == 0) {
+                document.setStatus(DocumentStatus.APPROVED);
+                document.setApprovedBy(approver);
+            }
+            entityManager.persist(document);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pageIsOneStatementWithoutEntities() {
+        Page<DocumentResponse> page = documentRepository.findResponses(Specification.allOf(), PageRequest.of(0, 20, NEWEST_FIRST));
+
+        assertEquals(DOCUMENTS, page.getNumberOfElements());
+        assertEquals(DOCUMENTS, page.getTotalElements());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        DocumentResponse approved = page.getContent().stream().filter(d -> d.status() == DocumentStatus.APPROVED).findFirst().orElseThrow();
+        assertEquals("Audit 2025", approved.caseTitle());
+        assertEquals("uploader@example.com", approved.uploadedByName());
+        assertEquals("approver@example.com", approved.approvedByName());
+    }
+
+    @Test
+    void limitedListingIsOneStatement() {
+        Specification<Document> approved = (root, query, cb) -> cb.equal(root.get("status"), DocumentStatus.APPROVED);
+        List<DocumentResponse> rows = documentRepository.findResponses(approved, NEWEST_FIRST, 5);
+
+        assertEquals(5, rows.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void downloadViewIsOneStatementWithoutEntities() {
+        Long id = documentRepository.findResponses(
+            (root, query, cb) -> cb.equal(root.get("status"), DocumentStatus.APPROVED), NEWEST_FIRST, 1).get(0).id();
+        statistics.clear();
+
+        DocumentDownloadView view = documentRepository.findDownloadViewById(id).orElseThrow();
+
+        assertEquals(DocumentStatus.APPROVED, view.getStatus());
+        assertTrue(view.getFilePath().endsWith(".pdf"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void conditionalTransitionRejectsStaleVersion() {
+        DocumentResponse draft = documentRepository.findResponses(
+            (root, query, cb) -> cb.equal(root.get("status"), DocumentStatus.DRAFT), NEWEST_FIRST, 1).get(0);
+
+        assertEquals(1, documentRepository.transitionIfUnchanged(
+            draft.id(), DocumentStatus.DRAFT, draft.version(), DocumentStatus.SUBMITTED));
+        // A second writer that read the same row loses
+        assertEquals(0, documentRepository.transitionIfUnchanged(
+            draft.id(), DocumentStatus.DRAFT, draft.version(), DocumentStatus.WITHDRAWN));
+        assertEquals(draft.version() + 1, documentRepository.findResponsesByIds(List.of(draft.id())).get(0).version());
+    }
+
+    @Test
+    void duplicateProbeFindsOldestDocumentWithSameContent() {
+        Long caseId = documentRepository.findResponses(Specification.allOf(), NEWEST_FIRST, 1).get(0).caseId();
+        List<DocumentFileView> copies = documentRepository.findByCaseRefIdAndContentHashIn(caseId, List.of("same"));
+        Long oldest = copies.stream().map(DocumentFileView::getId).min(Long::compare).orElseThrow();
+
+        assertEquals(3, copies.size());
+        assertEquals(oldest, documentRepository.findFirstByCaseRefIdAndContentHashOrderByIdAsc(caseId, "same").orElseThrow().getId());
+        assertTrue(documentRepository.findFirstByCaseRefIdAndContentHashOrderByIdAsc(caseId, "other").isEmpty());
+        assertTrue(documentRepository.findFirstByCaseRefIdAndContentHashOrderByIdAsc(caseId + 1, "same").isEmpty());
+    }
+
+    @Test
+    void backfillFillsOnlyMissingDigests() {
+        List<DocumentFileView> missing = documentRepository.findByContentHashIsNullAndIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10));
+
+        assertEquals(1, missing.size());
+        assertEquals(1, documentRepository.fillContentHash(missing.get(0).getId(), "filled"));
+        assertEquals(0, documentRepository.fillContentHash(missing.get(0).getId(), "again"));
+        assertTrue(documentRepository.findByContentHashIsNullAndIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void entityMappingLoadsAssociationsPerRow() {
+        // The path the projections replace: the page query, then a SELECT per distinct lazy association
+        documentRepository.findAll(PageRequest.of(0, 20, NEWEST_FIRST)).getContent().forEach(document -> {
+            document.getCaseRef().getTitle();
+            document.getUploadedBy().getName();
+            if (document.getApprovedBy() != null) {
+                document.getApprovedBy().getName();
+            }
+        });
+
+        assertTrue(statistics.getPrepareStatementCount() > 1);
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setName(email);
+        user.setEmail(email);
+        user.setPasswordHash("x");
+        user.setRole(UserRole.ACCOUNTANT);
+        return entityManager.persist(user);
+    }
+}
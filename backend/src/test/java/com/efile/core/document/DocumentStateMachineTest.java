@@ -0,0 +1,40 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class DocumentStateMachineTest {
+
+    @Test
+    void reviewFlow() {
+        assertTrue(DocumentStateMachine.allows(DocumentStatus.DRAFT, DocumentStatus.SUBMITTED));
+        assertTrue(DocumentStateMachine.allows(DocumentStatus.SUBMITTED, DocumentStatus.UNDER_REVIEW));
+        assertTrue(DocumentStateMachine.allows(DocumentStatus.UNDER_REVIEW, DocumentStatus.APPROVED));
+        assertTrue(DocumentStateMachine.allows(DocumentStatus.UNDER_REVIEW, DocumentStatus.REJECTED));
+        assertTrue(DocumentStateMachine.allows(DocumentStatus.REJECTED, DocumentStatus.DRAFT));
+        assertFalse(DocumentStateMachine.allows(DocumentStatus.SUBMITTED, DocumentStatus.APPROVED));
+    }
+
+    @Test
+    void finalStatusesHaveNoMoves() {
+        for (DocumentStatus target : DocumentStatus.values()) {
+            assertFalse(DocumentStateMachine.allows(DocumentStatus.APPROVED, target));
+            assertFalse(DocumentStateMachine.allows(DocumentStatus.WITHDRAWN, target));
+        }
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+            () -> DocumentStateMachine.check(DocumentStatus.APPROVED, DocumentStatus.REJECTED));
+        assertEquals("Approved documents cannot be changed", ex.getMessage());
+    }
+
+    @Test
+    void effects() {
+        assertEquals(DocumentStateMachine.Effect.DECISION, DocumentStateMachine.effect(DocumentStatus.APPROVED));
+        assertEquals(DocumentStateMachine.Effect.DECISION, DocumentStateMachine.effect(DocumentStatus.REJECTED));
+        assertEquals(DocumentStateMachine.Effect.CLOSE, DocumentStateMachine.effect(DocumentStatus.WITHDRAWN));
+        assertEquals(DocumentStateMachine.Effect.STATUS_ONLY, DocumentStateMachine.effect(DocumentStatus.UNDER_REVIEW));
+    }
+}
@@ -0,0 +1,246 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.efile.core.casemanagement.Case;
+import com.efile.core.document.dto.BatchUploadResult;
+import com.efile.core.document.dto.UploadOutcome;
+import com.efile.core.extraction.TextExtractionService;
+import com.efile.core.search.SearchIndexer;
+import com.efile.core.security.CurrentUserProvider;
+import com.efile.core.storage.FileStorageService;
+import com.efile.core.storage.StagedFile;
+import com.efile.core.storage.StoredFile;
+import com.efile.core.user.User;
+import com.efile.core.user.UserRole;
+import jakarta.persistence.EntityManager;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+// Uploads go through the real service and duplicate probes against H2; only the file store is stubbed, and
+// it uses the file's text as its digest so each test can say which uploads repeat which
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:duplicates;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DocumentService.class, DuplicatePolicyProperties.class, CaseDocumentCounters.class})
+class DuplicatePolicyTest {
+
+    @MockitoBean
+    private SearchIndexer searchIndexer;
+
+    @MockitoBean
+    private TextExtractionService textExtractionService;
+
+    @MockitoBean
+    private FileStorageService fileStorageService;
+
+    @MockitoBean
+    private CurrentUserProvider currentUserProvider;
+
+    @MockitoBean
+    private ReceiptNumberGenerator receiptNumberGenerator;
+
+    @MockitoBean
+    private DocumentRoutingTable routingTable;
+
+    @MockitoBean
+    private DocumentCountCache countCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DuplicatePolicyProperties duplicatePolicies;
+
+    @Autowired
+    private DocumentService documentService;
+
+    private Long caseId;
+    private Long existingId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = new TransactionTemplate(transactionManager).execute(status -> {
+            User user = new User();
+            user.setName("Owner");
+            user.setEmail("owner-" + System.nanoTime() + "@example.com");
+            user.setPasswordHash("x");
+            user.setRole(UserRole.ACCOUNTANT);
+            entityManager.persist(user);
+            Case caseEntity = new Case();
+            caseEntity.setTitle("Audit 2025");
+            caseEntity.setDescription("Annual audit");
+            caseEntity.setCreatedBy(user);
+            entityManager.persist(caseEntity);
+            Document document = new Document();
+            document.setTitle("Ledger");
+            document.setType(DocumentType.FINANCIAL_REPORT);
+            document.setFilePath("2025/" + System.nanoTime() + ".pdf");
+            document.setFileSize(6);
+            document.setContentHash("ledger");
+            document.setReceiptNumber("R-" + System.nanoTime());
+            document.setCaseRef(caseEntity);
+            document.setUploadedBy(user);
+            document.setStatus(DocumentStatus.DRAFT);
+            entityManager.persist(document);
+            caseId = caseEntity.getId();
+            existingId = document.getId();
+            return user;
+        });
+        when(currentUserProvider.get()).thenReturn(owner);
+        when(receiptNumberGenerator.next()).thenAnswer(invocation -> "R-" + System.nanoTime());
+        when(fileStorageService.stage(any(InputStream.class), anyString())).thenAnswer(invocation -> {
+            String text = new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8);
+            return staged(text);
+        });
+        when(fileStorageService.commit(any(StagedFile.class), anyLong())).thenAnswer(invocation -> {
+            StagedFile staged = invocation.getArgument(0);
+            return new StoredFile("2025/" + System.nanoTime() + ".pdf", staged.size(), staged.digest());
+        });
+    }
+
+    @Test
+    void warnStoresTheCopyAndNamesTheOriginal() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.WARN);
+
+        UploadOutcome outcome = documentService.uploadDocument("Ledger copy", DocumentType.FINANCIAL_REPORT, caseId, staged("ledger"));
+
+        assertNotEquals(existingId, outcome.document().id());
+        assertEquals(existingId, outcome.duplicateOf());
+        assertFalse(outcome.linked());
+        assertEquals(2, documentsInCase());
+    }
+
+    @Test
+    void linkHandsBackTheExistingDocumentWithoutStoring() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.LINK);
+
+        UploadOutcome outcome = documentService.uploadDocument("Ledger copy", DocumentType.FINANCIAL_REPORT, caseId, staged("ledger"));
+
+        assertEquals(existingId, outcome.document().id());
+        assertEquals(existingId, outcome.duplicateOf());
+        assertTrue(outcome.linked());
+        verify(fileStorageService, never()).commit(any(StagedFile.class), anyLong());
+        assertEquals(1, documentsInCase());
+    }
+
+    @Test
+    void rejectRefusesTheUpload() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.REJECT);
+
+        DocumentConflictException ex = assertThrows(DocumentConflictException.class, () ->
+            documentService.uploadDocument("Ledger copy", DocumentType.FINANCIAL_REPORT, caseId, staged("ledger")));
+
+        assertTrue(ex.getMessage().endsWith("as document " + existingId));
+        assertEquals(1, documentsInCase());
+    }
+
+    @Test
+    void policyIsChosenByDocumentType() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.WARN);
+        duplicatePolicies.getPolicies().put(DocumentType.FINANCIAL_REPORT, DuplicatePolicy.REJECT);
+        try {
+            assertThrows(DocumentConflictException.class, () ->
+                documentService.uploadDocument("Ledger copy", DocumentType.FINANCIAL_REPORT, caseId, staged("ledger")));
+        } finally {
+            duplicatePolicies.getPolicies().clear();
+        }
+    }
+
+    @Test
+    void warnBatchStoresTwinsAndPointsThemAtTheFirstCopy() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.WARN);
+
+        List<BatchUploadResult> results = uploadBatch("invoice", "invoice", "ledger");
+
+        assertTrue(results.stream().allMatch(BatchUploadResult::success));
+        assertNull(results.get(0).duplicateOf());
+        assertNotEquals(results.get(0).document().id(), results.get(1).document().id());
+        assertEquals(results.get(0).document().id(), results.get(1).duplicateOf());
+        assertNotEquals(existingId, results.get(2).document().id());
+        assertEquals(existingId, results.get(2).duplicateOf());
+        assertEquals(4, documentsInCase());
+    }
+
+    @Test
+    void linkBatchStoresEachContentOnce() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.LINK);
+
+        List<BatchUploadResult> results = uploadBatch("invoice", "invoice", "ledger");
+
+        assertTrue(results.stream().allMatch(BatchUploadResult::success));
+        Long invoiceId = results.get(0).document().id();
+        assertEquals(invoiceId, results.get(1).document().id());
+        assertEquals(invoiceId, results.get(1).duplicateOf());
+        assertEquals(existingId, results.get(2).document().id());
+        assertEquals(existingId, results.get(2).duplicateOf());
+        assertEquals(2, documentsInCase());
+    }
+
+    @Test
+    void rejectBatchFailsOnlyTheRepeats() {
+        duplicatePolicies.setDefaultPolicy(DuplicatePolicy.REJECT);
+
+        List<BatchUploadResult> results = uploadBatch("invoice", "invoice", "ledger");
+
+        assertTrue(results.get(0).success());
+        assertFalse(results.get(1).success());
+        assertEquals("This file repeats invoice-0.pdf in the same batch", results.get(1).error());
+        assertFalse(results.get(2).success());
+        assertTrue(results.get(2).error().endsWith("as document " + existingId));
+        assertEquals(2, documentsInCase());
+    }
+
+    private List<BatchUploadResult> uploadBatch(String... contents) {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < contents.length; i++) {
+            files.add(new MockMultipartFile("files", contents[i] + "-" + i + ".pdf", "application/pdf",
+                contents[i].getBytes(StandardCharsets.UTF_8)));
+        }
+        return documentService.uploadDocuments(DocumentType.FINANCIAL_REPORT, caseId, files, null);
+    }
+
+    private long documentsInCase() {
+        return entityManager.createQuery("select count(d) from Document d where d.caseRef.id = :caseId", Long.class)
+            .setParameter("caseId", caseId)
+            .getSingleResult();
+    }
+
+    private static StagedFile staged(String content) {
+        return new StagedFile(Path.of("staged-" + content), ".pdf", content.length(), content, null, content.length(), false);
+    }
+}
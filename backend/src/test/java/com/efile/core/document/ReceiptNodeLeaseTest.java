@@ -0,0 +1,61 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.efile.core.search.SearchIndexer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Leases are claimed from inside upload transactions whose snapshot predates the claim, so this runs with
+// MySQL's default REPEATABLE READ isolation and real commits rather than one rolled-back test transaction
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:receipts;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.hikari.transaction-isolation=TRANSACTION_REPEATABLE_READ",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReceiptNodeLeaseTest {
+
+    @MockitoBean
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private ReceiptNodeRepository nodeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void leaseClaimedInsideAnOpenTransactionIsSeen() {
+        ReceiptNumberGenerator first = new ReceiptNumberGenerator(nodeRepository, -1, transactionManager);
+        ReceiptNumberGenerator second = new ReceiptNumberGenerator(nodeRepository, -1, transactionManager);
+        TransactionTemplate upload = new TransactionTemplate(transactionManager);
+
+        // The upload has read before the generator claims, fixing its snapshot
+        String firstReceipt = upload.execute(status -> {
+            nodeRepository.count();
+            return first.next();
+        });
+        String secondReceipt = upload.execute(status -> {
+            nodeRepository.count();
+            return second.next();
+        });
+
+        assertEquals(2, nodeRepository.count());
+        assertNotEquals(node(firstReceipt), node(secondReceipt));
+    }
+
+    private static String node(String receipt) {
+        return receipt.substring(receipt.indexOf('-') + 1, receipt.indexOf('-') + 5);
+    }
+}
@@ -0,0 +1,72 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ReceiptNumberGeneratorTest {
+
+    @Test
+    void uniqueUnderContention() throws Exception {
+        ReceiptNumberGenerator generator = new ReceiptNumberGenerator(() -> 7, System::currentTimeMillis);
+        int threads = 16;
+        int perThread = 50_000;
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        issued.add(generator.next());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(threads * perThread, issued.size());
+    }
+
+    @Test
+    void staysMonotonicWhenClockStepsBack() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        ReceiptNumberGenerator generator = new ReceiptNumberGenerator(() -> 1, now::get);
+        String first = generator.next();
+        now.set(999_000);
+        String second = generator.next();
+        assertTrue(millis(second) >= millis(first));
+        assertEquals("EF1000000-00010001", second);
+    }
+
+    @Test
+    void sequenceOverflowCarriesIntoNextMillisecond() {
+        ReceiptNumberGenerator generator = new ReceiptNumberGenerator(() -> 3, () -> 5_000);
+        String last = null;
+        for (int i = 0; i <= 4096; i++) {
+            last = generator.next();
+        }
+        assertEquals("EF5001-00030000", last);
+    }
+
+    private long millis(String receipt) {
+        return Long.parseLong(receipt.substring(2, receipt.indexOf('-')));
+    }
+}
@@ -0,0 +1,80 @@
+package com.efile.core.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.efile.core.search.SearchIndexer;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class UploadSessionRepositoryTest {
+
+    @MockitoBean
+    private SearchIndexer searchIndexer;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UploadSessionRepository sessionRepository;
+
+    @Test
+    void onlyOneCallerClaimsCompletion() {
+        persistSession("session-1", Instant.now().plusSeconds(60));
+
+        assertEquals(1, sessionRepository.claimCompletion("session-1"));
+        assertEquals(0, sessionRepository.claimCompletion("session-1"));
+
+        // A failed attempt hands the session back so the client can retry
+        sessionRepository.releaseCompletion("session-1");
+        assertEquals(1, sessionRepository.claimCompletion("session-1"));
+    }
+
+    @Test
+    void chunkWritesAndCompletionExcludeEachOther() {
+        persistSession("session-1", Instant.now().plusSeconds(60));
+
+        assertEquals(1, sessionRepository.beginWrite("session-1"));
+        assertEquals(1, sessionRepository.beginWrite("session-1"));
+        assertEquals(0, sessionRepository.claimCompletion("session-1"));
+        sessionRepository.endWrite("session-1");
+        assertEquals(0, sessionRepository.claimCompletion("session-1"));
+        sessionRepository.endWrite("session-1");
+
+        assertEquals(1, sessionRepository.claimCompletion("session-1"));
+        assertEquals(0, sessionRepository.beginWrite("session-1"));
+    }
+
+    @Test
+    void purgeLeavesRunningCompletionsAlone() {
+        Instant now = Instant.now();
+        persistSession("running", now.minusSeconds(60));
+        persistSession("abandoned", now.minus(Duration.ofDays(2)));
+        sessionRepository.claimCompletion("running");
+        sessionRepository.claimCompletion("abandoned");
+
+        Instant abandonedBefore = now.minus(Duration.ofDays(1));
+        assertEquals(0, sessionRepository.claimForPurge("running", abandonedBefore));
+        assertEquals(1, sessionRepository.claimForPurge("abandoned", abandonedBefore));
+    }
+
+    private void persistSession(String id, Instant expiresAt) {
+        UploadSession session = new UploadSession();
+        session.setId(id);
+        session.setTitle("Statement");
+        session.setType(DocumentType.FINANCIAL_REPORT);
+        session.setCaseId(1L);
+        session.setCreatedById(1L);
+        session.setFilename("statement.pdf");
+        session.setTotalSize(10);
+        session.setChunkSize(10);
+        session.setChunkCount(1);
+        session.setExpiresAt(expiresAt);
+        entityManager.persistAndFlush(session);
+    }
+}
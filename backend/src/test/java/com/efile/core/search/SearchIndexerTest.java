@@ -0,0 +1,154 @@
+package com.efile.core.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.efile.core.casemanagement.Case;
+import com.efile.core.document.Document;
+import com.efile.core.document.DocumentStatus;
+import com.efile.core.document.DocumentType;
+import com.efile.core.document.dto.DocumentResponse;
+import com.efile.core.extraction.DocumentText;
+import com.efile.core.extraction.ExtractionStatus;
+import com.efile.core.user.User;
+import com.efile.core.user.UserRole;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Entries are built while the writing transaction still holds its connection, so this commits for real
+// with every other pooled connection taken: anything that needed a second one would time out instead of indexing
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:indexer;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.hikari.maximum-pool-size=2",
+    "spring.datasource.hikari.connection-timeout=1000",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(SearchIndexer.class)
+class SearchIndexerTest {
+
+    @MockitoBean
+    private SearchIndex index;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SearchIndexer indexer;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void entryWithTextIsAppliedOnCommit() throws SQLException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        // New rows take ids from a table generator that uses a connection of its own, so insert them first
+        Long documentId = transactionTemplate.execute(status -> newDocument().getId());
+        clearInvocations(index);
+
+        try (Connection held = dataSource.getConnection()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Document document = entityManager.find(Document.class, documentId);
+                document.setTitle("Ledger Q3");
+                DocumentText text = new DocumentText();
+                text.setDocument(document);
+                text.setStatus(ExtractionStatus.EXTRACTED);
+                text.setContent("quarterly ledger reconciliation");
+                entityManager.persist(text);
+            });
+        }
+
+        ArgumentCaptor<Map<String, org.apache.lucene.document.Document>> entries = ArgumentCaptor.forClass(Map.class);
+        verify(index).apply(entries.capture());
+        org.apache.lucene.document.Document entry = entries.getValue().get("document:" + documentId);
+        assertEquals("quarterly ledger reconciliation", entry.get("body"));
+        assertEquals("DRAFT", entry.get("status"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transitionIsIndexedFromItsResponse() throws SQLException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long documentId = transactionTemplate.execute(status -> {
+            Document document = newDocument();
+            DocumentText text = new DocumentText();
+            text.setDocument(document);
+            text.setStatus(ExtractionStatus.EXTRACTED);
+            text.setContent("signed engagement letter");
+            entityManager.persist(text);
+            return document.getId();
+        });
+        clearInvocations(index);
+
+        try (Connection held = dataSource.getConnection()) {
+            transactionTemplate.executeWithoutResult(status -> indexer.documentChangedAfterCommit(new DocumentResponse(
+                documentId, "Ledger", DocumentType.FINANCIAL_REPORT, DocumentStatus.APPROVED, null, null, null, null,
+                null, null, 1024, null, null, null, null, null, 1
+            )));
+        }
+
+        ArgumentCaptor<Map<String, org.apache.lucene.document.Document>> entries = ArgumentCaptor.forClass(Map.class);
+        verify(index).apply(entries.capture());
+        org.apache.lucene.document.Document entry = entries.getValue().get("document:" + documentId);
+        assertEquals("signed engagement letter", entry.get("body"));
+        assertEquals("APPROVED", entry.get("status"));
+    }
+
+    @Test
+    void rolledBackChangesAreNotApplied() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            newDocument();
+            status.setRollbackOnly();
+        });
+
+        verify(index, never()).apply(anyMap());
+    }
+
+    private Document newDocument() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("owner-" + System.nanoTime() + "@example.com");
+        owner.setPasswordHash("x");
+        owner.setRole(UserRole.ACCOUNTANT);
+        entityManager.persist(owner);
+        Case caseEntity = new Case();
+        caseEntity.setTitle("Audit 2025");
+        caseEntity.setDescription("Annual audit");
+        caseEntity.setCreatedBy(owner);
+        entityManager.persist(caseEntity);
+        Document document = new Document();
+        document.setTitle("Ledger");
+        document.setType(DocumentType.FINANCIAL_REPORT);
+        document.setFilePath("2025/" + System.nanoTime() + ".pdf");
+        document.setFileSize(1024);
+        document.setReceiptNumber("R-" + System.nanoTime());
+        document.setCaseRef(caseEntity);
+        document.setUploadedBy(owner);
+        document.setStatus(DocumentStatus.DRAFT);
+        entityManager.persist(document);
+        return document;
+    }
+}
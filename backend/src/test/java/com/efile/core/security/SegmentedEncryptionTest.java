@@ -0,0 +1,115 @@
+package com.efile.core.security;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentedEncryptionTest {
+
+    private static final int SEGMENT_SIZE = 64;
+
+    private final EncryptionService encryptionService =
+        new EncryptionService(Base64.getEncoder().encodeToString(new byte[32]));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsWholeFilesAndRanges() throws IOException {
+        byte[] content = content(SEGMENT_SIZE * 3 + 17);
+        Path file = encrypt("a.enc", content);
+
+        assertArrayEquals(content, readAll(file));
+        try (EncryptedFileReader reader = encryptionService.openEncryptedFile(file)) {
+            assertEquals(content.length, reader.plaintextLength());
+            ByteArrayOutputStream range = new ByteArrayOutputStream();
+            reader.transferTo(SEGMENT_SIZE - 5, SEGMENT_SIZE + 10, Channels.newChannel(range));
+            assertArrayEquals(Arrays.copyOfRange(content, SEGMENT_SIZE - 5, 2 * SEGMENT_SIZE + 5), range.toByteArray());
+        }
+    }
+
+    @Test
+    void emptyAndSegmentAlignedFilesRoundTrip() throws IOException {
+        assertArrayEquals(new byte[0], readAll(encrypt("empty.enc", new byte[0])));
+        byte[] aligned = content(SEGMENT_SIZE * 2);
+        assertArrayEquals(aligned, readAll(encrypt("aligned.enc", aligned)));
+    }
+
+    @Test
+    void sameContentIsSealedDifferentlyEachTime() throws IOException {
+        byte[] content = content(SEGMENT_SIZE);
+
+        assertFalse(Arrays.equals(Files.readAllBytes(encrypt("a.enc", content)), Files.readAllBytes(encrypt("b.enc", content))));
+    }
+
+    @Test
+    void tamperedSegmentFailsAuthentication() throws IOException {
+        Path file = encrypt("a.enc", content(SEGMENT_SIZE * 2));
+        flipByte(file, SegmentedEncryption.HEADER_LENGTH + SEGMENT_SIZE + 20);
+
+        assertThrows(IOException.class, () -> readAll(file));
+    }
+
+    @Test
+    void tamperedHeaderFailsAuthentication() throws IOException {
+        byte[] content = content(SEGMENT_SIZE * 2);
+        // Flip a bit in the salt and then in the nonce prefix; the segment size is covered by the same AAD
+        Path salt = encrypt("salt.enc", content);
+        flipByte(salt, SegmentedEncryption.MAGIC.length + Integer.BYTES);
+        Path prefix = encrypt("prefix.enc", content);
+        flipByte(prefix, SegmentedEncryption.HEADER_LENGTH - 1);
+
+        assertThrows(IOException.class, () -> readAll(salt));
+        assertThrows(IOException.class, () -> readAll(prefix));
+    }
+
+    @Test
+    void truncationAtASegmentBoundaryIsDetected() throws IOException {
+        Path file = encrypt("a.enc", content(SEGMENT_SIZE * 3));
+        byte[] sealed = Files.readAllBytes(file);
+        // Dropping the last segment leaves a well-formed file whose new final segment was not sealed as last
+        Files.write(file, Arrays.copyOf(sealed, sealed.length - SegmentedEncryption.TAG_LENGTH - SEGMENT_SIZE));
+
+        assertThrows(IOException.class, () -> readAll(file));
+    }
+
+    private Path encrypt(String name, byte[] content) throws IOException {
+        Path file = directory.resolve(name);
+        try (OutputStream out = encryptionService.encryptingStream(Files.newOutputStream(file), SEGMENT_SIZE)) {
+            out.write(content);
+        }
+        return file;
+    }
+
+    private byte[] readAll(Path file) throws IOException {
+        try (InputStream in = encryptionService.openEncryptedFile(file).openStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void flipByte(Path file, int position) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[position] ^= 1;
+        Files.write(file, bytes);
+    }
+
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,97 @@
+package com.efile.core.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class PackStoreTest {
+
+    @TempDir
+    Path baseDirectory;
+
+    @Test
+    void removedBlobsStayRemovedWhenTheIndexIsRebuilt() throws Exception {
+        PackStore store = new PackStore(properties());
+        Path source = Files.writeString(baseDirectory.resolve("source.bin"), "packed bytes");
+        store.append("a.pdf", source);
+        store.append("b.pdf", source);
+        store.remove("a.pdf");
+
+        Files.delete(baseDirectory.resolve(PackStore.PACK_DIRECTORY).resolve("index.bin"));
+        PackStore rebuilt = new PackStore(properties());
+
+        assertNull(rebuilt.locate("a.pdf"));
+        assertNotNull(rebuilt.locate("b.pdf"));
+    }
+
+    @Test
+    void deferredRemovalIsSupersededByALaterAppend() throws Exception {
+        PackStore store = new PackStore(properties());
+        Path source = Files.writeString(baseDirectory.resolve("source.bin"), "packed bytes");
+        store.append("a.pdf", source);
+
+        PackStore.PendingRemoval removal = store.scheduleRemoval("a.pdf");
+        store.append("a.pdf", source);
+        store.completeRemoval(removal, true);
+
+        assertNotNull(store.locate("a.pdf"));
+    }
+
+    @Test
+    void compactionKeepsRemovalsAcrossRebuilds() throws Exception {
+        // Two records per segment: a and b share the first, c starts the second, which a's tombstone joins
+        FileStorageProperties properties = properties();
+        properties.setPackSegmentSize(DataSize.ofBytes(60));
+        PackStore store = new PackStore(properties);
+        store.append("a.pdf", Files.writeString(baseDirectory.resolve("a.bin"), "first blob  "));
+        store.append("b.pdf", Files.writeString(baseDirectory.resolve("b.bin"), "second blob "));
+        store.append("c.pdf", Files.writeString(baseDirectory.resolve("c.bin"), "third blob  "));
+        store.remove("a.pdf");
+
+        // Moves b out of the first segment and carries a's tombstone past it; the old segment is only retired
+        store.compact();
+        assertRebuiltContents(properties);
+
+        // The next pass deletes the retired segment, after which the records only exist as copies
+        store.compact();
+        assertFalse(Files.exists(baseDirectory.resolve(PackStore.PACK_DIRECTORY).resolve("00000001.pack")));
+        assertRebuiltContents(properties);
+    }
+
+    private void assertRebuiltContents(FileStorageProperties properties) throws IOException {
+        Files.delete(baseDirectory.resolve(PackStore.PACK_DIRECTORY).resolve("index.bin"));
+        PackStore rebuilt = new PackStore(properties);
+
+        assertNull(rebuilt.locate("a.pdf"));
+        assertEquals("second blob ", read(rebuilt.locate("b.pdf")));
+        assertEquals("third blob  ", read(rebuilt.locate("c.pdf")));
+    }
+
+    private static String read(PackStore.PackedBlob blob) throws IOException {
+        assertNotNull(blob);
+        try (FileChannel channel = FileChannel.open(blob.segment(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) blob.length());
+            channel.read(buffer, blob.offset());
+            return new String(buffer.array(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private FileStorageProperties properties() {
+        FileStorageProperties properties = new FileStorageProperties();
+        properties.setBasePath(baseDirectory.toString());
+        properties.setPackEnabled(true);
+        return properties;
+    }
+}
@@ -0,0 +1,313 @@
+package com.efile.core.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RangedContentWriterTest {
+
+    private static final byte[] BODY = "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"v1\"";
+    private static final Instant LAST_MODIFIED = Instant.parse("2025-03-01T10:15:30.250Z");
+    private static final RangedContentWriter.Validators VALIDATORS = new RangedContentWriter.Validators(ETAG, LAST_MODIFIED, null);
+
+    private final RangedContentWriter writer = new RangedContentWriter();
+
+    @Test
+    void wholeBodyWithoutRange() throws IOException {
+        MockHttpServletResponse response = write(new MockHttpServletRequest(), new Bytes(BODY));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(BODY.length, response.getContentLengthLong());
+        assertArrayEquals(BODY, response.getContentAsByteArray());
+    }
+
+    @Test
+    void singleRange() throws IOException {
+        MockHttpServletResponse response = write(ranged("bytes=2-5"), new Bytes(BODY));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    void suffixAndOpenEndedRanges() throws IOException {
+        MockHttpServletResponse suffix = write(ranged("bytes=-4"), new Bytes(BODY));
+        MockHttpServletResponse openEnded = write(ranged("bytes=18-"), new Bytes(BODY));
+        // A suffix longer than the file is the whole file
+        MockHttpServletResponse longSuffix = write(ranged("bytes=-100"), new Bytes(BODY));
+
+        assertEquals("bytes 16-19/20", suffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("ghij", suffix.getContentAsString());
+        assertEquals("bytes 18-19/20", openEnded.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("ij", openEnded.getContentAsString());
+        assertEquals("bytes 0-19/20", longSuffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(BODY, longSuffix.getContentAsByteArray());
+    }
+
+    @Test
+    void multipleRangesAreSentAsMultipartByteranges() throws IOException {
+        MockHttpServletResponse response = write(ranged("bytes=0-1, 10-12"), new Bytes(BODY));
+
+        assertEquals(206, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        String contentType = response.getContentType();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String expected = "\r\n--" + boundary + "\r\n"
+            + "Content-Type: application/pdf\r\n"
+            + "Content-Range: bytes 0-1/20\r\n\r\n"
+            + "01"
+            + "\r\n--" + boundary + "\r\n"
+            + "Content-Type: application/pdf\r\n"
+            + "Content-Range: bytes 10-12/20\r\n\r\n"
+            + "abc"
+            + "\r\n--" + boundary + "--\r\n";
+        assertEquals(expected, response.getContentAsString());
+        assertEquals(expected.length(), response.getContentLengthLong());
+    }
+
+    @Test
+    void unsatisfiableRangeIs416WithTheLength() throws IOException {
+        MockHttpServletResponse response = write(ranged("bytes=20-30"), new Bytes(BODY));
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void unsatisfiableRangesAreDroppedFromASet() throws IOException {
+        MockHttpServletResponse response = write(ranged("bytes=30-40, 4-6"), new Bytes(BODY));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 4-6/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("456", response.getContentAsString());
+    }
+
+    @Test
+    void malformedOrOverlappingRangeSetsGetTheWholeBody() throws IOException {
+        MockHttpServletResponse malformed = write(ranged("bytes=5-2"), new Bytes(BODY));
+        MockHttpServletResponse overlapping = write(ranged("bytes=0-15, 5-19"), new Bytes(BODY));
+
+        assertEquals(200, malformed.getStatus());
+        assertArrayEquals(BODY, malformed.getContentAsByteArray());
+        assertEquals(200, overlapping.getStatus());
+        assertArrayEquals(BODY, overlapping.getContentAsByteArray());
+    }
+
+    @Test
+    void ifRangeWithCurrentValidatorServesTheRange() throws IOException {
+        MockHttpServletRequest byTag = ranged("bytes=0-3");
+        byTag.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        MockHttpServletRequest byDate = ranged("bytes=0-3");
+        // The header carries whole seconds; the stored instant has a fraction that must be ignored
+        byDate.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED));
+
+        MockHttpServletResponse tagResponse = write(byTag, new Bytes(BODY));
+        MockHttpServletResponse dateResponse = write(byDate, new Bytes(BODY));
+
+        assertEquals(206, tagResponse.getStatus());
+        assertEquals("0123", tagResponse.getContentAsString());
+        assertEquals(206, dateResponse.getStatus());
+        assertEquals("0123", dateResponse.getContentAsString());
+    }
+
+    @Test
+    void ifRangeWithStaleValidatorServesTheWholeBody() throws IOException {
+        MockHttpServletRequest staleTag = ranged("bytes=0-3");
+        staleTag.addHeader(HttpHeaders.IF_RANGE, "\"v0\"");
+        MockHttpServletRequest weakTag = ranged("bytes=0-3");
+        weakTag.addHeader(HttpHeaders.IF_RANGE, "W/" + ETAG);
+        MockHttpServletRequest staleDate = ranged("bytes=0-3");
+        staleDate.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED.minusSeconds(60)));
+
+        for (MockHttpServletRequest request : new MockHttpServletRequest[] {staleTag, weakTag, staleDate}) {
+            MockHttpServletResponse response = write(request, new Bytes(BODY));
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+            assertArrayEquals(BODY, response.getContentAsByteArray());
+        }
+    }
+
+    @Test
+    void storedEncodingIsSentWhenAccepted() throws IOException {
+        byte[] compressed = "compressed".getBytes(StandardCharsets.US_ASCII);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8");
+
+        MockHttpServletResponse response = write(request, new Bytes(BODY, new Bytes(compressed, "gzip")));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"v1-gzip\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(compressed, response.getContentAsByteArray());
+    }
+
+    @Test
+    void encodingRefusedWithZeroQualityIsDecoded() throws IOException {
+        for (String acceptEncoding : new String[] {"gzip;q=0", "br, GZIP; q=0.000", "identity"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+
+            MockHttpServletResponse response = write(request, new Bytes(BODY, new Bytes(new byte[] {1, 2, 3}, "gzip")));
+
+            assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+            assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+            assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+            assertArrayEquals(BODY, response.getContentAsByteArray(), acceptEncoding);
+        }
+    }
+
+    @Test
+    void rangesAreServedFromTheDecodedDocument() throws IOException {
+        MockHttpServletRequest request = ranged("bytes=0-1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        MockHttpServletResponse response = write(request, new Bytes(BODY, new Bytes(new byte[] {1, 2, 3}, "gzip")));
+
+        assertEquals(206, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("01", response.getContentAsString());
+    }
+
+    @Test
+    void emptyFile() throws IOException {
+        MockHttpServletResponse whole = write(new MockHttpServletRequest(), new Bytes(new byte[0]));
+        MockHttpServletResponse ranged = write(ranged("bytes=0-"), new Bytes(new byte[0]));
+
+        assertEquals(200, whole.getStatus());
+        assertEquals(0, whole.getContentLengthLong());
+        assertEquals(0, whole.getContentAsByteArray().length);
+        assertEquals(416, ranged.getStatus());
+        assertEquals("bytes */0", ranged.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void directFilesAreHandedToSendfile() throws IOException {
+        MockHttpServletRequest request = ranged("bytes=4-7");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        Bytes content = new Bytes(BODY) {
+            @Override
+            public Path directFile() {
+                return Path.of("/data/packs/00000001.pack");
+            }
+
+            @Override
+            public long directOffset() {
+                return 100;
+            }
+        };
+
+        MockHttpServletResponse response = write(request, content);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals("/data/packs/00000001.pack", request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(104L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(108L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void notModifiedAcceptsTheEncodedVariantTag() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/\"v1-gzip\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(writer.notModified(request, response, VALIDATORS));
+        assertEquals(304, response.getStatus());
+        assertEquals("\"v1-gzip\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request, StoredContent content) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, content, "report.pdf", MediaType.APPLICATION_PDF, VALIDATORS);
+        return response;
+    }
+
+    private static MockHttpServletRequest ranged(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atOffset(ZoneOffset.UTC));
+    }
+
+    private static class Bytes implements StoredContent {
+
+        private final byte[] bytes;
+        private final String contentEncoding;
+        private final StoredContent encodedForm;
+
+        Bytes(byte[] bytes) {
+            this(bytes, null, null);
+        }
+
+        Bytes(byte[] bytes, String contentEncoding) {
+            this(bytes, contentEncoding, null);
+        }
+
+        Bytes(byte[] bytes, StoredContent encodedForm) {
+            this(bytes, null, encodedForm);
+        }
+
+        private Bytes(byte[] bytes, String contentEncoding, StoredContent encodedForm) {
+            this.bytes = bytes;
+            this.contentEncoding = contentEncoding;
+            this.encodedForm = encodedForm;
+        }
+
+        @Override
+        public long length() {
+            return bytes.length;
+        }
+
+        @Override
+        public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) position, (int) count);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        }
+
+        @Override
+        public InputStream openStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public String contentEncoding() {
+            return contentEncoding;
+        }
+
+        @Override
+        public StoredContent encodedForm() {
+            return encodedForm;
+        }
+    }
+}
@@ -1,5 +1,5 @@
 import { User } from "./user";
-import { Document } from "./document";
+import { Document, DocumentStatus } from "./document";
 import { Communication } from "./communication";
 
 export enum CaseStatus {
@@ -41,6 +41,7 @@ export interface Case {
   createdById: string;
   createdBy?: User;
   documents?: Document[];
+  documentCounts?: Record<DocumentStatus, number>;
   communications?: Communication[];
   dueDate?: string;
   estimatedCompletionDate?: string;